@@ -1,13 +1,19 @@
 // package AIManager; // Asumsi paket jika tidak ada di file.
 
 import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Kelas AIManager mengelola logika dan alur permainan ketika bermain melawan AI (mode single player).
  * Ini bertanggung jawab untuk memulai game AI, mengatur giliran pemain/AI,
  * dan memicu AI untuk membuat pergerakan setelah giliran pemain manusia.
+ * Pencarian AI berjalan di thread executor tersendiri pada salinan papan, sehingga EDT tetap bebas
+ * untuk menggambar dan menerima input; langkah yang dipilih diterapkan kembali di EDT.
+ * Selama giliran pemain manusia, AI dapat "pondering": terus mencari balasan yang mungkin di latar
+ * belakang sehingga tabel transposisinya sudah terisi ketika langkah pemain tiba.
  */
 public class AIManager {
     // Referensi ke objek-objek inti game
@@ -15,6 +21,21 @@ public class AIManager {
     private final GameUI gameUI;
     private final GamePanel gamePanel;
     private TicTacToeAI ai; // Objek yang berisi algoritma AI
+    private TicTacToeAI.Strategy aiStrategy = TicTacToeAI.Strategy.PERFECT; // Strategi AI untuk mode VS_AI
+    private long aiTimeBudgetMillis = TicTacToeAI.DEFAULT_TIME_BUDGET_MILLIS; // Batas waktu berpikir AI per langkah
+    private int aiSearchThreads = TicTacToeAI.DEFAULT_SEARCH_THREADS; // Jumlah thread pencarian AI
+
+    // Executor khusus untuk pencarian AI (satu thread daemon dengan prioritas sedikit di bawah EDT)
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ai-search");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+    private Future<?> pendingSearch;  // Tugas pencarian yang sedang berjalan (untuk pembatalan)
+    private Future<?> pendingPonder;  // Tugas pondering selama giliran pemain manusia
+    private boolean ponderEnabled = true; // Apakah AI berpikir selama giliran pemain manusia
+    private int searchGeneration;     // Bertambah setiap kali pencarian dibatalkan; hasil lama diabaikan
 
     /**
      * Konstruktor untuk AIManager.
@@ -27,6 +48,42 @@ public class AIManager {
         this.gameLogic = gameLogic;
         this.gameUI = gameUI;
         this.gamePanel = gamePanel;
+        PerfectPlaySolver.init(); // Membangun tabel posisi sekali saat startup
+    }
+
+    /**
+     * Mengatur strategi yang digunakan AI untuk game berikutnya.
+     */
+    public void setAiStrategy(TicTacToeAI.Strategy strategy) {
+        this.aiStrategy = strategy;
+    }
+
+    /**
+     * Mengatur batas waktu berpikir AI per langkah (milidetik) untuk papan yang memakai pencarian.
+     * Batas waktu yang lebih kecil membuat AI lebih lemah (tingkat kesulitan lebih rendah).
+     */
+    public void setAiTimeBudgetMillis(long millis) {
+        this.aiTimeBudgetMillis = millis;
+        if (ai != null) {
+            ai.setTimeBudgetMillis(millis);
+        }
+    }
+
+    /**
+     * Mengatur jumlah thread yang dipakai pencarian AI, berlaku mulai game berikutnya.
+     */
+    public void setAiSearchThreads(int threads) {
+        this.aiSearchThreads = threads;
+    }
+
+    /**
+     * Mengaktifkan atau menonaktifkan pondering (AI berpikir selama giliran pemain manusia).
+     */
+    public void setAiPondering(boolean enabled) {
+        this.ponderEnabled = enabled;
+        if (!enabled) {
+            stopPondering();
+        }
     }
 
     /**
@@ -49,26 +106,21 @@ public class AIManager {
      */
     public void startVsAIGame(boolean humanStarts) {
         gameUI.hideFirstTurnPanel(); // Menyembunyikan panel pilihan giliran pertama
-        ai = new TicTacToeAI(); // Membuat instance baru dari algoritma AI
+        cancelPendingMove(); // Pencarian dari game sebelumnya tidak boleh diterapkan
+        ai = new TicTacToeAI(aiStrategy); // Membuat instance baru dari algoritma AI
+        ai.setTimeBudgetMillis(aiTimeBudgetMillis);
+        ai.setSearchThreads(aiSearchThreads);
 
         // Mendapatkan nama tampilan simbol pemain
         String playerSeedDisplay = gameLogic.getPlayerSeed() != null ? gameLogic.getPlayerSeed().getDisplayName() : "Unknown";
         if (humanStarts) {
             gameLogic.setMyTurn(true); // Mengatur giliran pemain manusia
             gameUI.setStatusText("You are " + playerSeedDisplay + ". Your turn."); // Memperbarui status bar
+            startPondering(); // AI berpikir selama pemain menentukan langkah pertama
         } else {
             gameLogic.setMyTurn(false); // Mengatur giliran AI
             gameUI.setStatusText("You are " + playerSeedDisplay + ". AI's turn."); // Memperbarui status bar
-            // Memulai timer untuk memicu langkah AI setelah penundaan singkat
-            Timer timer = new Timer(100, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    ((Timer) e.getSource()).stop(); // Menghentikan timer setelah dipicu
-                    System.out.println("Timer triggered: Calling aiMakeMove() in startVsAIGame");
-                    aiMakeMove(); // Memanggil metode langkah AI
-                }
-            });
-            timer.start(); // Memulai timer
+            aiMakeMove(); // Memulai pencarian AI di latar belakang
         }
         gameUI.updatePlayerNameLabels(); // Memperbarui label nama pemain di UI
     }
@@ -86,10 +138,10 @@ public class AIManager {
         }
         // Memvalidasi langkah: game sedang bermain dan sel kosong
         if (gameLogic.getCurrentState() == State.PLAYING &&
-                gameLogic.getBoard().cells[row][col].content == Seed.NO_SEED) {
-            gameLogic.getBoard().cells[row][col].content = gameLogic.getPlayerSeed(); // Menetapkan simbol pemain ke sel
+                gameLogic.getBoard().isEmpty(row, col)) {
+            stopPondering(); // Hasil pondering tetap tersimpan di tabel transposisi AI
             SoundEffect.EAT_FOOD.play(); // Memainkan efek suara
-            // Memperbarui state game setelah langkah pemain
+            // Menetapkan simbol pemain ke sel dan memperbarui state game setelah langkah pemain
             gameLogic.setCurrentState(gameLogic.getBoard().stepGame(gameLogic.getPlayerSeed(), row, col));
 
             // Memperbarui tampilan panel secara asinkron di EDT
@@ -102,16 +154,7 @@ public class AIManager {
             if (gameLogic.getCurrentState() == State.PLAYING) {
                 gameLogic.setMyTurn(false); // Mengatur giliran ke AI
                 gameUI.setStatusText("AI's turn. Please wait."); // Memperbarui status bar
-                // Memulai timer untuk memicu langkah AI
-                Timer timer = new Timer(100, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        ((Timer) e.getSource()).stop(); // Menghentikan timer
-                        System.out.println("Timer triggered: Calling aiMakeMove() in makeMove");
-                        aiMakeMove(); // Memanggil metode langkah AI
-                    }
-                });
-                timer.start(); // Memulai timer
+                aiMakeMove(); // Memulai pencarian AI di latar belakang
             } else {
                 // Jika game berakhir
                 gameLogic.updateScore(gameLogic.getPlayerSeed()); // Memperbarui skor
@@ -127,9 +170,70 @@ public class AIManager {
         }
     }
 
+    /**
+     * Menjalankan pencarian AI pada executor khusus dan mengembalikan CompletableFuture
+     * dari indeks sel yang dipilih. Pencarian memakai salinan papan sehingga papan yang
+     * digambar di EDT tidak pernah diubah oleh thread AI.
+     */
+    public CompletableFuture<Integer> computeAiMove(Board snapshot, Seed aiSeed) {
+        TicTacToeAI engine = ai;
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        pendingSearch = aiExecutor.submit(() -> {
+            try {
+                result.complete(engine.findBestMoveIndex(snapshot, aiSeed));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Membatalkan pencarian AI yang sedang berjalan (misalnya saat Play Again atau Reset Score).
+     * Thread AI diinterupsi sehingga pencarian berhenti pada pemeriksaan berikutnya,
+     * dan hasil yang mungkin masih datang akan diabaikan.
+     */
+    public void cancelPendingMove() {
+        searchGeneration++;
+        stopPondering();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(true);
+            pendingSearch = null;
+            System.out.println("AIManager: Pending AI search cancelled");
+        }
+    }
+
+    /**
+     * Memulai pondering pada salinan papan saat ini: AI mencari dari sudut pandang pemain manusia
+     * sampai dihentikan, sehingga tabel transposisinya berisi balasan untuk langkah-langkah yang mungkin.
+     * Pencarian sesungguhnya setelah langkah pemain berjalan pada executor yang sama, jadi selalu
+     * menunggu pondering berhenti lebih dulu.
+     */
+    private void startPondering() {
+        if (!ponderEnabled || ai == null || gameLogic.getCurrentState() != State.PLAYING) {
+            return;
+        }
+        stopPondering();
+        TicTacToeAI engine = ai;
+        Board snapshot = gameLogic.getBoard().copy();
+        Seed humanSeed = gameLogic.getPlayerSeed();
+        pendingPonder = aiExecutor.submit(() -> engine.ponder(snapshot, humanSeed));
+    }
+
+    /**
+     * Menghentikan pondering (menginterupsi thread AI). Hasilnya tetap ada di tabel transposisi.
+     */
+    private void stopPondering() {
+        if (pendingPonder != null) {
+            pendingPonder.cancel(true);
+            pendingPonder = null;
+        }
+    }
+
     /**
      * Memicu AI untuk membuat langkah.
-     * Metode ini dipanggil oleh timer setelah giliran pemain manusia.
+     * Metode ini dipanggil di EDT setelah giliran pemain manusia; pencarian berjalan di latar belakang
+     * dan hasilnya diterapkan kembali di EDT oleh applyAiMove().
      */
     private void aiMakeMove() {
         // Keluar jika game tidak dalam state PLAYING
@@ -153,12 +257,36 @@ public class AIManager {
             return;
         }
 
-        // Meminta AI untuk menemukan langkah terbaik
-        int[] bestMove = ai.findBestMove(gameLogic.getBoard(), gameLogic.getAiSeed());
+        // Meminta AI untuk menemukan langkah terbaik di latar belakang (indeks sel)
+        int generation = searchGeneration;
+        computeAiMove(gameLogic.getBoard().copy(), gameLogic.getAiSeed())
+                .whenComplete((bestMove, error) -> SwingUtilities.invokeLater(() -> {
+                    if (generation != searchGeneration) {
+                        return; // Pencarian sudah dibatalkan (game baru dimulai)
+                    }
+                    pendingSearch = null;
+                    if (error != null) {
+                        System.err.println("AIManager: AI search failed: " + error);
+                        applyAiMove(-1);
+                    } else {
+                        applyAiMove(bestMove);
+                    }
+                }));
+    }
+
+    /**
+     * Menerapkan langkah AI (indeks sel) ke papan. Dipanggil di EDT setelah pencarian selesai.
+     */
+    private void applyAiMove(int bestMove) {
+        if (gameLogic.getCurrentState() != State.PLAYING) {
+            System.out.println("applyAiMove: Game not in PLAYING state, exiting.");
+            return;
+        }
         // Penanganan error jika langkah AI tidak valid
-        if (bestMove == null || bestMove.length < 2 || (bestMove[0] == -1 && bestMove[1] == -1)) {
+        if (bestMove < 0 || bestMove >= gameLogic.getBoard().getCellCount()
+                || !gameLogic.getBoard().isEmptyAt(bestMove)) {
             gameUI.setStatusText("AI couldn't find a valid move! (Error in AI logic or full board)");
-            System.err.println("Invalid bestMove from AI: " + (bestMove == null ? "null" : "length=" + bestMove.length));
+            System.err.println("Invalid bestMove from AI: " + bestMove);
             gameLogic.setCurrentState(State.DRAW); // Game dianggap seri
             SwingUtilities.invokeLater(() -> {
                 gamePanel.repaint();
@@ -170,15 +298,14 @@ public class AIManager {
             return;
         }
 
-        int aiRow = bestMove[0]; // Baris langkah AI
-        int aiCol = bestMove[1]; // Kolom langkah AI
+        int aiRow = bestMove / gameLogic.getBoard().getCols(); // Baris langkah AI
+        int aiCol = bestMove % gameLogic.getBoard().getCols(); // Kolom langkah AI
 
         // Jika langkah AI valid
         if (aiRow != -1 && aiCol != -1) {
             System.out.println("AI move: Row=" + aiRow + ", Col=" + aiCol + ", Seed=" + gameLogic.getAiSeed());
-            gameLogic.getBoard().cells[aiRow][aiCol].content = gameLogic.getAiSeed(); // Menetapkan simbol AI ke sel
             SoundEffect.TOY.play(); // Memainkan efek suara
-            // Memperbarui state game setelah langkah AI
+            // Menetapkan simbol AI ke sel dan memperbarui state game setelah langkah AI
             gameLogic.setCurrentState(gameLogic.getBoard().stepGame(gameLogic.getAiSeed(), aiRow, aiCol));
 
             // Memperbarui tampilan panel secara asinkron di EDT
@@ -192,6 +319,7 @@ public class AIManager {
                 gameLogic.setMyTurn(true); // Mengatur giliran ke pemain manusia
                 String playerSeedDisplay = gameLogic.getPlayerSeed() != null ? gameLogic.getPlayerSeed().getDisplayName() : "Unknown";
                 gameUI.setStatusText("Your turn (" + playerSeedDisplay + "). Make your move."); // Memperbarui status bar
+                startPondering(); // AI terus berpikir selama giliran pemain manusia
             } else {
                 // Jika game berakhir
                 gameLogic.updateScore(gameLogic.getAiSeed()); // Memperbarui skor
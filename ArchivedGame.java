@@ -0,0 +1,211 @@
+// package ArchivedGame; // Asumsi paket jika tidak ada di file.
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kelas ArchivedGame adalah satu game yang sudah selesai dalam bentuk arsip yang ringkas.
+ * Seluruh urutan langkah dikemas menjadi satu record biner, bukan satu baris per langkah:
+ *   byte versi, byte rows, byte cols, byte winLength, byte flags (bit 0-1 = hasil, bit 2 = O jalan dulu),
+ *   short jumlah langkah, lalu indeks sel (row * cols + col) setiap langkah sesuai urutan.
+ * Indeks sel memakai 4 bit per langkah jika papan paling banyak 16 sel (dua langkah per byte),
+ * 8 bit jika paling banyak 256 sel, dan 16 bit untuk papan yang lebih besar.
+ * Game 3x3 dengan 9 langkah hanya butuh 12 byte. Username pemain tidak ada di dalam record;
+ * penyimpanan menaruhnya di kolom tersendiri agar bisa dicari per pengguna.
+ */
+public class ArchivedGame {
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 7; // Ukuran header record (byte)
+    private static final int MAX_DIMENSION = 255; // Ukuran papan maksimum yang muat di header
+
+    private final String gameId;          // ID game
+    private final String crossUsername;   // Username pemain X (null jika tidak diketahui)
+    private final String noughtUsername;  // Username pemain O (null jika tidak diketahui)
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final State result;           // Hasil akhir game
+    private final Seed firstPlayer;       // Pemain yang jalan duluan
+    private final int[] cells;            // Indeks sel setiap langkah, sesuai urutan
+
+    /**
+     * Konstruktor untuk ArchivedGame. Melempar IllegalArgumentException jika ukuran papan
+     * tidak muat di header atau ada indeks sel di luar papan.
+     */
+    public ArchivedGame(String gameId, String crossUsername, String noughtUsername, int rows, int cols,
+                        int winLength, State result, Seed firstPlayer, int[] cells) {
+        if (rows < 1 || cols < 1 || rows > MAX_DIMENSION || cols > MAX_DIMENSION
+                || winLength < 1 || winLength > MAX_DIMENSION) {
+            throw new IllegalArgumentException("Board size cannot be archived: " + rows + "x" + cols + " with k=" + winLength);
+        }
+        if (cells.length > 0xFFFF) {
+            throw new IllegalArgumentException("Too many moves to archive: " + cells.length);
+        }
+        for (int cell : cells) {
+            if (cell < 0 || cell >= rows * cols) {
+                throw new IllegalArgumentException("Cell index outside the board: " + cell);
+            }
+        }
+        this.gameId = gameId;
+        this.crossUsername = crossUsername;
+        this.noughtUsername = noughtUsername;
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.result = result;
+        this.firstPlayer = firstPlayer;
+        this.cells = cells.clone();
+    }
+
+    /**
+     * Membuat arsip dari langkah-langkah game (urut menurut moveNumber) dengan memutarnya ulang
+     * di Board, sehingga hasil yang diarsipkan selalu sesuai dengan langkahnya.
+     * Melempar IllegalArgumentException jika langkah tidak valid, tidak bergantian, atau game belum selesai.
+     */
+    public static ArchivedGame fromMoves(String gameId, int rows, int cols, int winLength, List<DatabaseManager.Move> moves) {
+        Board board = new Board(rows, cols, winLength);
+        State state = State.PLAYING;
+        String crossUsername = null;
+        String noughtUsername = null;
+        Seed firstPlayer = null;
+        Seed expected = null;
+        int[] cells = new int[moves.size()];
+        int count = 0;
+        for (DatabaseManager.Move move : moves) {
+            if (state != State.PLAYING) {
+                throw new IllegalArgumentException("Move after the end of game " + gameId + ": " + move);
+            }
+            Seed seed = "X".equals(move.playerSeed) ? Seed.CROSS : Seed.NOUGHT;
+            if (expected != null && seed != expected) {
+                throw new IllegalArgumentException("Moves of game " + gameId + " do not alternate: " + move);
+            }
+            if (!board.isInside(move.row, move.col) || !board.isEmpty(move.row, move.col)) {
+                throw new IllegalArgumentException("Invalid move in game " + gameId + ": " + move);
+            }
+            if (firstPlayer == null) {
+                firstPlayer = seed;
+            }
+            if (seed == Seed.CROSS) {
+                crossUsername = move.playerUsername;
+            } else {
+                noughtUsername = move.playerUsername;
+            }
+            state = board.stepGame(seed, move.row, move.col);
+            cells[count++] = move.row * cols + move.col;
+            expected = (seed == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        }
+        if (state == State.PLAYING) {
+            throw new IllegalArgumentException("Game " + gameId + " is not finished (" + count + " moves)");
+        }
+        return new ArchivedGame(gameId, crossUsername, noughtUsername, rows, cols, winLength, state, firstPlayer, cells);
+    }
+
+    /**
+     * Mengembalikan jumlah bit per langkah untuk papan dengan cellCount sel (4, 8, atau 16).
+     */
+    static int bitsPerMove(int cellCount) {
+        if (cellCount <= 16) {
+            return 4;
+        }
+        return cellCount <= 256 ? 8 : 16;
+    }
+
+    /**
+     * Mengemas game menjadi record biner (lihat format di dokumentasi kelas).
+     */
+    public byte[] encode() {
+        int bits = bitsPerMove(rows * cols);
+        int payload = (cells.length * bits + 7) / 8;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload);
+        buffer.put((byte) FORMAT_VERSION);
+        buffer.put((byte) rows);
+        buffer.put((byte) cols);
+        buffer.put((byte) winLength);
+        buffer.put((byte) (result.ordinal() | (firstPlayer == Seed.NOUGHT ? 4 : 0)));
+        buffer.putShort((short) cells.length);
+        if (bits == 4) {
+            for (int i = 0; i < cells.length; i += 2) {
+                int high = cells[i];
+                int low = (i + 1 < cells.length) ? cells[i + 1] : 0;
+                buffer.put((byte) ((high << 4) | low));
+            }
+        } else if (bits == 8) {
+            for (int cell : cells) {
+                buffer.put((byte) cell);
+            }
+        } else {
+            for (int cell : cells) {
+                buffer.putShort((short) cell);
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Membongkar record biner dari encode(). Melempar IllegalArgumentException jika record rusak
+     * atau versinya tidak dikenal.
+     */
+    public static ArchivedGame decode(String gameId, String crossUsername, String noughtUsername, byte[] record) {
+        if (record.length < HEADER_SIZE) {
+            throw new IllegalArgumentException("Archive record too short: " + record.length + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int version = buffer.get() & 0xFF;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown archive record version: " + version);
+        }
+        int rows = buffer.get() & 0xFF;
+        int cols = buffer.get() & 0xFF;
+        int winLength = buffer.get() & 0xFF;
+        int flags = buffer.get() & 0xFF;
+        int moveCount = buffer.getShort() & 0xFFFF;
+        State[] states = State.values();
+        if ((flags & 3) >= states.length) {
+            throw new IllegalArgumentException("Invalid result in archive record: " + (flags & 3));
+        }
+        int bits = bitsPerMove(rows * cols);
+        if (buffer.remaining() < (moveCount * bits + 7) / 8) {
+            throw new IllegalArgumentException("Archive record truncated: " + moveCount + " moves expected");
+        }
+        int[] cells = new int[moveCount];
+        for (int i = 0; i < moveCount; i++) {
+            if (bits == 4) {
+                int packed = buffer.get(HEADER_SIZE + i / 2) & 0xFF;
+                cells[i] = (i % 2 == 0) ? packed >>> 4 : packed & 0x0F;
+            } else if (bits == 8) {
+                cells[i] = buffer.get() & 0xFF;
+            } else {
+                cells[i] = buffer.getShort() & 0xFFFF;
+            }
+        }
+        return new ArchivedGame(gameId, crossUsername, noughtUsername, rows, cols, winLength,
+                states[flags & 3], (flags & 4) != 0 ? Seed.NOUGHT : Seed.CROSS, cells);
+    }
+
+    /**
+     * Mengembalikan langkah-langkah game sebagai Move (moveNumber mulai dari 1), misalnya untuk replay.
+     */
+    public List<DatabaseManager.Move> toMoves() {
+        List<DatabaseManager.Move> moves = new ArrayList<>(cells.length);
+        Seed seed = firstPlayer;
+        for (int i = 0; i < cells.length; i++) {
+            String username = (seed == Seed.CROSS) ? crossUsername : noughtUsername;
+            moves.add(new DatabaseManager.Move(gameId, i + 1, username, seed.getDisplayName(),
+                    cells[i] / cols, cells[i] % cols));
+            seed = (seed == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        }
+        return moves;
+    }
+
+    public String getGameId() { return gameId; } // Mengembalikan ID game
+    public String getCrossUsername() { return crossUsername; } // Mengembalikan username pemain X
+    public String getNoughtUsername() { return noughtUsername; } // Mengembalikan username pemain O
+    public int getRows() { return rows; } // Mengembalikan jumlah baris papan
+    public int getCols() { return cols; } // Mengembalikan jumlah kolom papan
+    public int getWinLength() { return winLength; } // Mengembalikan jumlah bidak berurutan untuk menang
+    public State getResult() { return result; } // Mengembalikan hasil akhir game
+    public Seed getFirstPlayer() { return firstPlayer; } // Mengembalikan pemain yang jalan duluan
+    public int getMoveCount() { return cells.length; } // Mengembalikan jumlah langkah
+    public int getCell(int moveIndex) { return cells[moveIndex]; } // Mengembalikan indeks sel langkah ke-moveIndex (mulai 0)
+}
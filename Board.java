@@ -1,34 +1,142 @@
 // package Board; // Asumsi paket jika tidak ada di file.
 
 import java.awt.*;
+import java.util.Arrays;
 
 /**
- * Kelas Board memodelkan papan permainan Tic-Tac-Toe (grid 3x3).
- * Kelas ini bertanggung jawab untuk mengelola state dari masing-masing sel di papan
- * dan menyediakan metode untuk memeriksa kondisi kemenangan atau seri.
+ * Kelas Board memodelkan papan permainan k-in-a-row berukuran ROWS x COLS
+ * (default 3x3 dengan k=3 untuk Tic-Tac-Toe klasik, tetapi juga misalnya 15x15 dengan k=5 untuk Gomoku).
+ * Isi papan disimpan dalam array byte primitif, dan untuk setiap "jendela" (k sel berurutan secara
+ * horizontal, vertikal, atau diagonal) disimpan penghitung jumlah bidak masing-masing pemain.
+ * Setiap langkah hanya memperbarui jendela yang melewati sel terakhir (paling banyak 4k jendela),
+ * sehingga pemeriksaan menang dan pemeriksaan "seri mati" (tidak ada jendela yang masih bisa
+ * dimenangkan) berjalan dalam O(k), bukan O(N^2).
+ * Papan juga memelihara kunci Zobrist 64-bit dan nilai evaluasi heuristik secara inkremental,
+ * keduanya diperbarui di stepGame() dan dikembalikan di undoMove(), untuk dipakai oleh pencarian AI.
+ * Array Cell tetap dipertahankan sebagai tampilan tipis untuk menggambar papan.
  */
 public class Board {
 
-   // Konstanta untuk dimensi papan
-   public static final int ROWS = 3;  // Jumlah baris
-   public static final int COLS = 3;  // Jumlah kolom
+   // Konstanta untuk dimensi papan default (Tic-Tac-Toe klasik)
+   public static final int DEFAULT_ROWS = 3;       // Jumlah baris default
+   public static final int DEFAULT_COLS = 3;       // Jumlah kolom default
+   public static final int DEFAULT_WIN_LENGTH = 3; // Jumlah bidak berurutan untuk menang (k)
 
-   // Konstanta untuk dimensi kanvas gambar papan
-   public static final int CANVAS_WIDTH = Cell.SIZE * COLS;   // Lebar kanvas gambar
-   public static final int CANVAS_HEIGHT = Cell.SIZE * ROWS;  // Tinggi kanvas gambar
+   // Konstanta untuk tampilan papan
+   public static final int MAX_CANVAS_SIZE = 600;            // Ukuran kanvas maksimum (piksel) untuk papan besar
    public static final int GRID_WIDTH = 8;                   // Lebar garis grid
    public static final int GRID_WIDTH_HALF = GRID_WIDTH / 2; // Setengah lebar garis grid
    public static final Color COLOR_GRID = Color.LIGHT_GRAY;  // Warna garis grid
    public static final int Y_OFFSET = 1;                     // Offset Y untuk fine-tuning tampilan
 
-   // Atribut: Array 2D dari objek Cell yang merepresentasikan sel-sel di papan
+   // Kunci posisi basis-3 (0 = kosong, 1 = X, 2 = O) hanya muat di int untuk papan kecil
+   public static final int MAX_KEYED_CELLS = 19;
+   public static final int[] POW3 = new int[MAX_KEYED_CELLS];
+
+   // Arah jendela: horizontal, vertikal, diagonal utama, diagonal berlawanan
+   private static final int DIRECTIONS = 4;
+   private static final int[] DIR_ROW = {0, 1, 1, 1};
+   private static final int[] DIR_COL = {1, 0, 1, -1};
+
+   // Kunci Zobrist yang di-XOR-kan ketika O yang jalan (posisi sama, giliran berbeda)
+   public static final long SIDE_TO_MOVE_KEY = 0x6A09E667F3BCC909L;
+   // Seed tetap agar papan berukuran sama menghasilkan kunci Zobrist yang sama (berbagi tabel transposisi)
+   private static final long ZOBRIST_SEED = 0x9E3779B97F4A7C15L;
+
+   // Bobot evaluasi jendela berdasarkan jumlah bidak satu pemain di jendela yang masih hidup
+   private static final int MAX_WEIGHTED_STONES = 10;
+   private static final int[] WINDOW_WEIGHTS = new int[MAX_WEIGHTED_STONES + 1];
+
+   // Nilai sel pada array grid
+   private static final byte EMPTY = 0;
+   private static final byte CROSS = 1;
+   private static final byte NOUGHT = 2;
+
+   static {
+      int pow = 1;
+      for (int idx = 0; idx < MAX_KEYED_CELLS; ++idx) {
+         POW3[idx] = pow;
+         pow *= 3;
+      }
+      for (int stones = 1; stones <= MAX_WEIGHTED_STONES; ++stones) {
+         WINDOW_WEIGHTS[stones] = 1 << (2 * (stones - 1)); // 1, 4, 16, 64, ...
+      }
+   }
+
+   // Atribut konfigurasi papan
+   private final int rows;      // Jumlah baris
+   private final int cols;      // Jumlah kolom
+   private final int winLength; // Jumlah bidak berurutan untuk menang
+   private final int cellCount; // Jumlah sel (rows * cols)
+   private final int cellSize;  // Ukuran sel dalam piksel untuk menggambar
+
+   // Atribut: Array 2D dari objek Cell yang merepresentasikan sel-sel di papan (tampilan)
    Cell[][] cells;
 
+   // Atribut: state papan
+   private final byte[] grid;          // Isi setiap sel (EMPTY, CROSS, NOUGHT), indeks = row * cols + col
+   private final boolean[] windowValid; // Apakah jendela (arah, sel awal) muat di dalam papan
+   private final int[] windowCross;     // Jumlah bidak X di setiap jendela
+   private final int[] windowNought;    // Jumlah bidak O di setiap jendela
+   private final int totalWindows;      // Jumlah jendela yang valid
+   private int liveWindows;             // Jumlah jendela yang belum berisi bidak kedua pemain
+   private int moveCount;               // Jumlah bidak di papan
+   private int positionKey;             // Kunci posisi basis-3 (hanya untuk papan dengan <= MAX_KEYED_CELLS sel)
+   private final long[] zobristTable;   // Angka acak per (sel, pemain): indeks = idx * 2 + (0 untuk X, 1 untuk O)
+   private long zobristKey;             // Kunci Zobrist posisi saat ini
+   private int evaluation;              // Skor heuristik dari sudut pandang X (positif menguntungkan X)
+
    /**
-    * Konstruktor untuk Board.
-    * Memanggil metode initGame() untuk menginisialisasi papan.
+    * Konstruktor untuk Board Tic-Tac-Toe klasik 3x3.
     */
    public Board() {
+      this(DEFAULT_ROWS, DEFAULT_COLS, DEFAULT_WIN_LENGTH);
+   }
+
+   /**
+    * Konstruktor untuk Board berukuran rows x cols dengan k = winLength.
+    * Memanggil metode initGame() untuk menginisialisasi papan.
+    */
+   public Board(int rows, int cols, int winLength) {
+      if (rows < 1 || cols < 1 || winLength < 1 || (winLength > rows && winLength > cols)) {
+         throw new IllegalArgumentException("Invalid board size " + rows + "x" + cols + " with k=" + winLength);
+      }
+      this.rows = rows;
+      this.cols = cols;
+      this.winLength = winLength;
+      this.cellCount = rows * cols;
+      this.cellSize = Math.min(Cell.SIZE, MAX_CANVAS_SIZE / Math.max(rows, cols));
+      this.grid = new byte[cellCount];
+
+      // Membangkitkan tabel Zobrist dengan generator deterministik (SplitMix64)
+      zobristTable = new long[cellCount * 2];
+      long state = ZOBRIST_SEED;
+      for (int i = 0; i < zobristTable.length; ++i) {
+         state += 0x9E3779B97F4A7C15L;
+         long z = state;
+         z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+         z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+         zobristTable[i] = z ^ (z >>> 31);
+      }
+
+      // Menandai jendela yang valid: jendela diidentifikasi oleh (arah, sel awal)
+      windowValid = new boolean[DIRECTIONS * cellCount];
+      windowCross = new int[DIRECTIONS * cellCount];
+      windowNought = new int[DIRECTIONS * cellCount];
+      int count = 0;
+      for (int dir = 0; dir < DIRECTIONS; ++dir) {
+         for (int row = 0; row < rows; ++row) {
+            for (int col = 0; col < cols; ++col) {
+               int endRow = row + (winLength - 1) * DIR_ROW[dir];
+               int endCol = col + (winLength - 1) * DIR_COL[dir];
+               if (endRow >= 0 && endRow < rows && endCol >= 0 && endCol < cols) {
+                  windowValid[dir * cellCount + row * cols + col] = true;
+                  count++;
+               }
+            }
+         }
+      }
+      totalWindows = count;
       initGame();
    }
 
@@ -37,92 +145,276 @@ public class Board {
     * Mengalokasikan array Cell dan membuat instance Cell untuk setiap posisi.
     */
    public void initGame() {
-      cells = new Cell[ROWS][COLS]; // Mengalokasikan array 2D
-      for (int row = 0; row < ROWS; ++row) {
-         for (int col = 0; col < COLS; ++col) {
+      cells = new Cell[rows][cols]; // Mengalokasikan array 2D
+      for (int row = 0; row < rows; ++row) {
+         for (int col = 0; col < cols; ++col) {
             // Mengalokasikan dan menginisialisasi setiap elemen array dengan objek Cell baru
-            cells[row][col] = new Cell(row, col);
+            cells[row][col] = new Cell(row, col, cellSize);
          }
       }
+      clearState();
    }
 
    /**
     * Mengatur ulang isi papan game ke state awal, siap untuk game baru.
-    * Memanggil metode newGame() pada setiap Cell di papan.
+    * Mengosongkan state papan dan memanggil metode newGame() pada setiap Cell di papan.
     */
    public void newGame() {
-      for (int row = 0; row < ROWS; ++row) {
-         for (int col = 0; col < COLS; ++col) {
+      clearState();
+      for (int row = 0; row < rows; ++row) {
+         for (int col = 0; col < cols; ++col) {
             cells[row][col].newGame(); // Meminta setiap sel untuk membersihkan isinya
          }
       }
    }
 
+   /**
+    * Membuat salinan papan dengan ukuran dan isi yang sama.
+    * Salinan dipakai oleh thread AI agar pencarian tidak pernah mengubah papan yang sedang digambar.
+    * Langkah diputar ulang lewat stepGame() sehingga semua penghitung dan kunci ikut tersusun.
+    */
+   public Board copy() {
+      Board copy = new Board(rows, cols, winLength);
+      for (int idx = 0; idx < cellCount; ++idx) {
+         if (grid[idx] != EMPTY) {
+            copy.stepGame(grid[idx] == CROSS ? Seed.CROSS : Seed.NOUGHT, idx / cols, idx % cols);
+         }
+      }
+      return copy;
+   }
+
+   /**
+    * Mengosongkan grid dan semua penghitung jendela.
+    */
+   private void clearState() {
+      Arrays.fill(grid, EMPTY);
+      Arrays.fill(windowCross, 0);
+      Arrays.fill(windowNought, 0);
+      liveWindows = totalWindows;
+      moveCount = 0;
+      positionKey = 0;
+      zobristKey = 0L;
+      evaluation = 0;
+   }
+
    /**
     * Pemain yang diberikan membuat langkah pada sel (selectedRow, selectedCol).
-    * Metode ini memperbarui isi sel yang dipilih, lalu menghitung dan mengembalikan
-    * state game yang baru (PLAYING, DRAW, CROSS_WON, NOUGHT_WON).
+    * Metode ini memperbarui grid, penghitung jendela, dan tampilan sel, lalu menghitung
+    * dan mengembalikan state game yang baru (PLAYING, DRAW, CROSS_WON, NOUGHT_WON).
     */
    public State stepGame(Seed player, int selectedRow, int selectedCol) {
-      // Memperbarui papan game dengan langkah pemain
+      int idx = selectedRow * cols + selectedCol;
+      boolean isCross = player == Seed.CROSS;
+
+      // Memperbarui grid dan tampilan sel dengan langkah pemain
+      grid[idx] = isCross ? CROSS : NOUGHT;
+      moveCount++;
+      if (cellCount <= MAX_KEYED_CELLS) {
+         positionKey += (isCross ? 1 : 2) * POW3[idx];
+      }
+      zobristKey ^= zobristTable[idx * 2 + (isCross ? 0 : 1)];
       cells[selectedRow][selectedCol].content = player;
 
-      // Menghitung dan mengembalikan state game yang baru
-      // Memeriksa kondisi kemenangan (3-in-a-row, 3-in-a-column, 3-in-a-diagonal)
-      if (cells[selectedRow][0].content == player        // 3-sejajar di baris yang sama
-              && cells[selectedRow][1].content == player
-              && cells[selectedRow][2].content == player
-              || cells[0][selectedCol].content == player // 3-sejajar di kolom yang sama
-              && cells[1][selectedCol].content == player
-              && cells[2][selectedCol].content == player
-              || selectedRow == selectedCol              // 3-sejajar di diagonal utama
-              && cells[0][0].content == player
-              && cells[1][1].content == player
-              && cells[2][2].content == player
-              || selectedRow + selectedCol == 2          // 3-sejajar di diagonal berlawanan
-              && cells[0][2].content == player
-              && cells[1][1].content == player
-              && cells[2][0].content == player) {
-         // Jika ada pemenang, mengembalikan state kemenangan yang sesuai
-         return (player == Seed.CROSS) ? State.CROSS_WON : State.NOUGHT_WON;
-      } else {
-         // Tidak ada pemenang. Memeriksa apakah game DRAW (semua sel terisi) atau PLAYING.
-         for (int row = 0; row < ROWS; ++row) {
-            for (int col = 0; col < COLS; ++col) {
-               if (cells[row][col].content == Seed.NO_SEED) {
-                  return State.PLAYING; // Masih ada sel kosong, game masih berlanjut
-               }
+      // Memperbarui hanya jendela yang melewati sel terakhir
+      boolean won = false;
+      for (int dir = 0; dir < DIRECTIONS; ++dir) {
+         for (int step = 0; step < winLength; ++step) {
+            int window = windowAt(dir, selectedRow - step * DIR_ROW[dir], selectedCol - step * DIR_COL[dir]);
+            if (window < 0) continue;
+            int[] own = isCross ? windowCross : windowNought;
+            int[] other = isCross ? windowNought : windowCross;
+            evaluation -= windowValue(windowCross[window], windowNought[window]);
+            if (own[window]++ == 0 && other[window] > 0) {
+               liveWindows--; // Jendela sekarang berisi bidak kedua pemain: tidak bisa dimenangkan lagi
+            }
+            evaluation += windowValue(windowCross[window], windowNought[window]);
+            if (own[window] == winLength) {
+               won = true;
+            }
+         }
+      }
+
+      if (won) {
+         return isCross ? State.CROSS_WON : State.NOUGHT_WON;
+      }
+      // Tidak ada pemenang: seri jika papan penuh atau tidak ada jendela yang masih bisa dimenangkan
+      return (moveCount == cellCount || liveWindows == 0) ? State.DRAW : State.PLAYING;
+   }
+
+   /**
+    * Membatalkan langkah pada sel (row, col), mengembalikan sel menjadi kosong.
+    * Digunakan oleh AI dan replay untuk mencoba langkah tanpa menyalin papan.
+    */
+   public void undoMove(int row, int col) {
+      int idx = row * cols + col;
+      byte value = grid[idx];
+      if (value == EMPTY) return;
+      boolean isCross = value == CROSS;
+
+      grid[idx] = EMPTY;
+      moveCount--;
+      if (cellCount <= MAX_KEYED_CELLS) {
+         positionKey -= (isCross ? 1 : 2) * POW3[idx];
+      }
+      zobristKey ^= zobristTable[idx * 2 + (isCross ? 0 : 1)];
+      cells[row][col].content = Seed.NO_SEED;
+
+      for (int dir = 0; dir < DIRECTIONS; ++dir) {
+         for (int step = 0; step < winLength; ++step) {
+            int window = windowAt(dir, row - step * DIR_ROW[dir], col - step * DIR_COL[dir]);
+            if (window < 0) continue;
+            int[] own = isCross ? windowCross : windowNought;
+            int[] other = isCross ? windowNought : windowCross;
+            evaluation -= windowValue(windowCross[window], windowNought[window]);
+            if (--own[window] == 0 && other[window] > 0) {
+               liveWindows++; // Jendela kembali hanya berisi bidak satu pemain
             }
+            evaluation += windowValue(windowCross[window], windowNought[window]);
          }
-         return State.DRAW; // Tidak ada sel kosong, ini adalah hasil seri
       }
    }
 
+   /**
+    * Mengembalikan true jika pemain yang diberikan akan menang dengan menempatkan bidak di sel idx.
+    * Hanya memeriksa jendela yang melewati sel tersebut (O(k)), tanpa mengubah papan.
+    */
+   public boolean wouldWin(Seed player, int idx) {
+      int row = idx / cols;
+      int col = idx % cols;
+      int[] own = player == Seed.CROSS ? windowCross : windowNought;
+      int[] other = player == Seed.CROSS ? windowNought : windowCross;
+      for (int dir = 0; dir < DIRECTIONS; ++dir) {
+         for (int step = 0; step < winLength; ++step) {
+            int window = windowAt(dir, row - step * DIR_ROW[dir], col - step * DIR_COL[dir]);
+            if (window >= 0 && own[window] == winLength - 1 && other[window] == 0) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Nilai heuristik satu jendela dari sudut pandang X: jendela yang hanya berisi bidak X bernilai positif,
+    * yang hanya berisi bidak O bernilai negatif, dan jendela campuran atau kosong bernilai 0.
+    */
+   private static int windowValue(int crossCount, int noughtCount) {
+      if (crossCount > 0 && noughtCount > 0) return 0;
+      if (crossCount > 0) return WINDOW_WEIGHTS[Math.min(crossCount, MAX_WEIGHTED_STONES)];
+      if (noughtCount > 0) return -WINDOW_WEIGHTS[Math.min(noughtCount, MAX_WEIGHTED_STONES)];
+      return 0;
+   }
+
+   /**
+    * Mengembalikan indeks jendela dengan arah dan sel awal yang diberikan,
+    * atau -1 jika sel awal di luar papan atau jendela tidak muat.
+    */
+   private int windowAt(int dir, int startRow, int startCol) {
+      if (startRow < 0 || startRow >= rows || startCol < 0 || startCol >= cols) return -1;
+      int window = dir * cellCount + startRow * cols + startCol;
+      return windowValid[window] ? window : -1;
+   }
+
+   /**
+    * Mengembalikan true jika sel (row, col) masih kosong.
+    */
+   public boolean isEmpty(int row, int col) {
+      return grid[row * cols + col] == EMPTY;
+   }
+
+   /**
+    * Mengembalikan true jika sel dengan indeks idx (row * cols + col) masih kosong.
+    */
+   public boolean isEmptyAt(int idx) {
+      return grid[idx] == EMPTY;
+   }
+
+   /**
+    * Mengembalikan isi sel (row, col).
+    */
+   public Seed getContent(int row, int col) {
+      byte value = grid[row * cols + col];
+      return value == CROSS ? Seed.CROSS : value == NOUGHT ? Seed.NOUGHT : Seed.NO_SEED;
+   }
+
+   /**
+    * Mengembalikan true jika sel (row, col) berada di dalam papan.
+    */
+   public boolean isInside(int row, int col) {
+      return row >= 0 && row < rows && col >= 0 && col < cols;
+   }
+
+   /**
+    * Mengembalikan kunci posisi basis-3 dari papan saat ini (unik untuk setiap isi papan).
+    * Hanya bermakna jika hasPositionKey() bernilai true.
+    */
+   public int getPositionKey() {
+      return positionKey;
+   }
+
+   /**
+    * Mengembalikan true jika papan cukup kecil untuk memiliki kunci posisi basis-3.
+    */
+   public boolean hasPositionKey() {
+      return cellCount <= MAX_KEYED_CELLS;
+   }
+
+   /**
+    * Mengembalikan kunci Zobrist 64-bit dari isi papan saat ini.
+    * Untuk membedakan giliran, pemanggil meng-XOR-kan SIDE_TO_MOVE_KEY ketika O yang jalan.
+    */
+   public long getZobristKey() {
+      return zobristKey;
+   }
+
+   /**
+    * Mengembalikan skor heuristik posisi dari sudut pandang pemain yang diberikan.
+    */
+   public int getEvaluation(Seed player) {
+      return player == Seed.CROSS ? evaluation : -evaluation;
+   }
+
+   // --- Getters untuk konfigurasi dan ukuran papan ---
+   public int getRows() { return rows; }
+   public int getCols() { return cols; }
+   public int getWinLength() { return winLength; }
+   public int getCellCount() { return cellCount; }
+   public int getMoveCount() { return moveCount; }
+   public int getCellSize() { return cellSize; }
+   public int getCanvasWidth() { return cellSize * cols; }   // Lebar kanvas gambar
+   public int getCanvasHeight() { return cellSize * rows; }  // Tinggi kanvas gambar
+
    /**
     * Menggambar papan itu sendiri pada kanvas grafis yang diberikan.
     * Ini menggambar garis grid dan kemudian meminta setiap sel untuk menggambar isinya.
     */
    public void paint(Graphics g) {
+      // Garis grid menipis untuk papan besar agar sel tetap terlihat
+      int gridWidth = Math.max(2, Math.min(GRID_WIDTH, cellSize / 15));
+      int gridWidthHalf = gridWidth / 2;
+      int canvasWidth = getCanvasWidth();
+      int canvasHeight = getCanvasHeight();
+
       // Menggambar garis grid
       g.setColor(COLOR_GRID); // Mengatur warna garis grid
-      for (int row = 1; row < ROWS; ++row) {
+      for (int row = 1; row < rows; ++row) {
          // Menggambar garis horizontal
-         g.fillRoundRect(0, Cell.SIZE * row - GRID_WIDTH_HALF,
-                 CANVAS_WIDTH - 1, GRID_WIDTH,
-                 GRID_WIDTH, GRID_WIDTH);
+         g.fillRoundRect(0, cellSize * row - gridWidthHalf,
+                 canvasWidth - 1, gridWidth,
+                 gridWidth, gridWidth);
       }
-      for (int col = 1; col < COLS; ++col) {
+      for (int col = 1; col < cols; ++col) {
          // Menggambar garis vertikal
-         g.fillRoundRect(Cell.SIZE * col - GRID_WIDTH_HALF, 0 + Y_OFFSET,
-                 GRID_WIDTH, CANVAS_HEIGHT - 1,
-                 GRID_WIDTH, GRID_WIDTH);
+         g.fillRoundRect(cellSize * col - gridWidthHalf, 0 + Y_OFFSET,
+                 gridWidth, canvasHeight - 1,
+                 gridWidth, gridWidth);
       }
 
       // Menggambar semua sel di papan
-      for (int row = 0; row < ROWS; ++row) {
-         for (int col = 0; col < COLS; ++col) {
+      for (int row = 0; row < rows; ++row) {
+         for (int col = 0; col < cols; ++col) {
             cells[row][col].paint(g); // Meminta setiap sel untuk menggambar isinya sendiri
          }
       }
    }
-}
\ No newline at end of file
+}
@@ -8,22 +8,31 @@ import java.awt.*;
  */
 public class Cell {
 
-   public static final int SIZE = 120; // Ukuran (lebar/tinggi) sel dalam piksel
+   public static final int SIZE = 120; // Ukuran default (lebar/tinggi) sel dalam piksel
    public static final int PADDING = SIZE / 5; // Padding simbol di dalam sel
    public static final int SEED_SIZE = SIZE - PADDING * 2; // Ukuran simbol (X atau O)
 
    // Atribut: konten sel dan posisinya
    Seed content; // Isi sel: CROSS, NOUGHT, atau NO_SEED
    int row, col; // Koordinat baris dan kolom sel
+   int size;     // Ukuran sel dalam piksel (lebih kecil untuk papan besar)
 
    /**
-    * Konstruktor untuk Cell.
+    * Konstruktor untuk Cell dengan ukuran default.
     * Menginisialisasi sel dengan baris dan kolom yang ditentukan
     * dan mengatur konten awalnya ke NO_SEED (kosong).
     */
    public Cell(int row, int col) {
+      this(row, col, SIZE);
+   }
+
+   /**
+    * Konstruktor untuk Cell dengan ukuran sel yang ditentukan.
+    */
+   public Cell(int row, int col, int size) {
       this.row = row;
       this.col = col;
+      this.size = size;
       content = Seed.NO_SEED; // Sel awalnya kosong
    }
 
@@ -39,13 +48,15 @@ public class Cell {
     */
    public void paint(Graphics g) {
       // Menghitung koordinat X dan Y untuk menggambar simbol di dalam sel
-      int x1 = col * SIZE + PADDING;
-      int y1 = row * SIZE + PADDING;
+      int padding = size / 5;
+      int x1 = col * size + padding;
+      int y1 = row * size + padding;
       // Hanya menggambar jika sel tidak kosong
       if (content == Seed.CROSS || content == Seed.NOUGHT) {
          // Menggambar gambar simbol (CROSS atau NOUGHT) di dalam sel
-         // Ukuran gambar disesuaikan dengan SYMBOL_SIZE
-         g.drawImage(content.getImage(), x1, y1, SEED_SIZE, SEED_SIZE, null);
+         // Ukuran gambar disesuaikan dengan ukuran sel
+         int seedSize = size - padding * 2;
+         g.drawImage(content.getImage(), x1, y1, seedSize, seedSize, null);
       }
    }
 }
\ No newline at end of file
@@ -0,0 +1,332 @@
+// package ConnectionPool; // Asumsi paket jika tidak ada di file.
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kelas ConnectionPool menyimpan koneksi JDBC yang sudah terbuka untuk dipakai ulang,
+ * sehingga setiap query tidak perlu membuka koneksi TCP/TLS baru ke server MySQL.
+ * - Jumlah koneksi dibatasi (Semaphore); peminjam menunggu paling lama borrowTimeoutMillis.
+ * - Koneksi menganggur divalidasi (isValid) sebelum dipinjamkan jika sudah lama tidak dipakai.
+ * - Koneksi yang menganggur lebih lama dari idleTimeoutMillis, atau lebih tua dari maxLifetimeMillis,
+ *   ditutup (oleh peminjam berikutnya dan oleh thread pembersih di latar belakang).
+ * - Koneksi yang dipinjamkan adalah proxy: close() mengembalikannya ke pool, bukan menutupnya.
+ * - Metrik waktu tunggu dan jumlah koneksi tersedia lewat getter dan getStats().
+ */
+public class ConnectionPool {
+    // Konfigurasi default
+    public static final int DEFAULT_MAX_SIZE = 8;
+    public static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 10_000;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    public static final long DEFAULT_MAX_LIFETIME_MILLIS = 30 * 60_000;
+    public static final long DEFAULT_VALIDATION_INTERVAL_MILLIS = 5_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long EVICTION_INTERVAL_MILLIS = 30_000;
+
+    /**
+     * Satu koneksi fisik beserta waktu pembuatan dan waktu terakhir dikembalikan.
+     */
+    private static final class PooledConnection {
+        final Connection raw;
+        final long createdAt;
+        long lastReturnedAt;
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturnedAt = createdAt;
+        }
+    }
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final Semaphore permits;                         // Membatasi jumlah koneksi yang dipinjam
+    private final Deque<PooledConnection> idle = new ArrayDeque<>(); // Koneksi menganggur (LIFO)
+    private volatile boolean closed;
+
+    private long borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MILLIS;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private long maxLifetimeMillis = DEFAULT_MAX_LIFETIME_MILLIS;
+    private long validationIntervalMillis = DEFAULT_VALIDATION_INTERVAL_MILLIS;
+
+    // Metrik
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+
+    /**
+     * Konstruktor untuk ConnectionPool ke URL JDBC yang diberikan dengan paling banyak maxSize koneksi.
+     * Driver JDBC harus sudah dimuat oleh pemanggil. Thread pembersih daemon dijalankan otomatis.
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        Thread evictor = new Thread(this::evictLoop, "connection-pool-evictor");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    /**
+     * Meminjam koneksi dari pool. Koneksi harus ditutup (close()) untuk mengembalikannya,
+     * sebaiknya dengan try-with-resources. Melempar SQLException jika tidak ada koneksi
+     * yang tersedia dalam borrowTimeoutMillis atau koneksi baru gagal dibuat.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                createdCount.incrementAndGet();
+            }
+            recordWait(System.nanoTime() - start);
+            return wrap(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Mengambil koneksi menganggur yang masih layak pakai, menutup yang sudah kedaluwarsa atau rusak.
+     * Mengembalikan null jika tidak ada (pemanggil membuat koneksi baru).
+     */
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long now = System.currentTimeMillis();
+            if (isExpired(pooled, now)) {
+                destroy(pooled);
+                continue;
+            }
+            // Koneksi yang lama menganggur diperiksa dulu (server mungkin sudah memutusnya)
+            if (now - pooled.lastReturnedAt >= validationIntervalMillis && !isValid(pooled)) {
+                destroy(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    /**
+     * Mengembalikan koneksi ke pool (dipanggil oleh close() pada proxy).
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || pooled.raw.isClosed()
+                    || System.currentTimeMillis() - pooled.createdAt >= maxLifetimeMillis) {
+                destroy(pooled);
+                return;
+            }
+            // Koneksi dikembalikan dalam keadaan bersih untuk peminjam berikutnya
+            if (!pooled.raw.getAutoCommit()) {
+                pooled.raw.rollback();
+                pooled.raw.setAutoCommit(true);
+            }
+            pooled.lastReturnedAt = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            System.err.println("ConnectionPool: Discarding broken connection: " + e.getMessage());
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt >= maxLifetimeMillis || now - pooled.lastReturnedAt >= idleTimeoutMillis;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.raw.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        destroyedCount.incrementAndGet();
+        try {
+            pooled.raw.close();
+        } catch (SQLException e) {
+            System.err.println("ConnectionPool: Error closing connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loop thread pembersih: secara berkala menutup koneksi menganggur yang sudah kedaluwarsa.
+     */
+    private void evictLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(EVICTION_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            evictExpired();
+        }
+    }
+
+    /**
+     * Menutup semua koneksi menganggur yang melewati idleTimeoutMillis atau maxLifetimeMillis.
+     */
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        Deque<PooledConnection> expired = new ArrayDeque<>();
+        synchronized (idle) {
+            Iterator<PooledConnection> it = idle.iterator();
+            while (it.hasNext()) {
+                PooledConnection pooled = it.next();
+                if (isExpired(pooled, now)) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            destroy(pooled); // Ditutup di luar kunci agar peminjam tidak menunggu I/O
+        }
+    }
+
+    /**
+     * Menutup pool dan semua koneksi menganggur. Koneksi yang sedang dipinjam ditutup saat dikembalikan.
+     */
+    public void close() {
+        closed = true;
+        Deque<PooledConnection> remaining;
+        synchronized (idle) {
+            remaining = new ArrayDeque<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : remaining) {
+            destroy(pooled);
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        borrowCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Membungkus koneksi fisik dengan proxy yang mengembalikan koneksi ke pool saat close().
+     */
+    private Connection wrap(PooledConnection pooled) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned; // close() hanya mengembalikan koneksi sekali
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            release(pooled);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || pooled.raw.isClosed();
+                    case "unwrap":
+                    case "isWrapperFor":
+                        break; // Diteruskan ke koneksi fisik
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "PooledConnection[" + pooled.raw + "]";
+                    default:
+                        if (returned) {
+                            throw new SQLException("Connection has already been returned to the pool");
+                        }
+                }
+                try {
+                    return method.invoke(pooled.raw, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause(); // Meneruskan SQLException asli ke pemanggil
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * Mengembalikan ringkasan metrik pool untuk logging.
+     */
+    public String getStats() {
+        return "ConnectionPool[borrowed=" + getBorrowedCount() + ", idle=" + getIdleCount()
+                + ", max=" + maxSize + ", borrows=" + borrowCount.get()
+                + ", avgWait=" + String.format(Locale.ROOT, "%.2f", getAverageWaitMillis())
+                + " ms, maxWait=" + getMaxWaitMillis() + " ms, created=" + createdCount.get()
+                + ", destroyed=" + destroyedCount.get() + ", timeouts=" + timeoutCount.get() + "]";
+    }
+
+    public int getIdleCount() { synchronized (idle) { return idle.size(); } } // Jumlah koneksi menganggur
+    public int getBorrowedCount() { return maxSize - permits.availablePermits(); } // Jumlah koneksi yang dipinjam
+    public int getMaxSize() { return maxSize; } // Jumlah koneksi maksimum
+    public long getBorrowCount() { return borrowCount.get(); } // Jumlah peminjaman yang berhasil
+    public long getCreatedCount() { return createdCount.get(); } // Jumlah koneksi fisik yang dibuat
+    public long getDestroyedCount() { return destroyedCount.get(); } // Jumlah koneksi fisik yang ditutup
+    public long getTimeoutCount() { return timeoutCount.get(); } // Jumlah peminjaman yang gagal karena timeout
+    public long getMaxWaitMillis() { return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()); } // Waktu tunggu terlama
+
+    /**
+     * Mengembalikan rata-rata waktu tunggu peminjaman (milidetik), termasuk waktu membuat koneksi baru.
+     */
+    public double getAverageWaitMillis() {
+        long count = borrowCount.get();
+        return count == 0 ? 0.0 : totalWaitNanos.get() / 1e6 / count;
+    }
+
+    public void setBorrowTimeoutMillis(long millis) { this.borrowTimeoutMillis = millis; } // Batas tunggu peminjaman
+    public void setIdleTimeoutMillis(long millis) { this.idleTimeoutMillis = millis; } // Batas waktu menganggur
+    public void setMaxLifetimeMillis(long millis) { this.maxLifetimeMillis = millis; } // Umur maksimum koneksi
+    public void setValidationIntervalMillis(long millis) { this.validationIntervalMillis = millis; } // Jeda sebelum validasi ulang
+}
@@ -1,18 +1,38 @@
 // package DatabaseManager; // Asumsi paket jika tidak ada di file.
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Locale;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Kelas ini mengelola semua interaksi dengan database MySQL.
  * Ini bertanggung jawab untuk otentikasi pengguna dan untuk
  * menyimpan/mengambil riwayat langkah game dalam mode multiplayer berbasis database.
+ * Koneksi dipinjam dari ConnectionPool (satu pool per URL/user database) dan dikembalikan
+ * setelah setiap query, sehingga handshake TCP/TLS tidak diulang untuk setiap langkah atau polling.
+ * Driver JDBC hanya dimuat sekali, saat pool pertama dibuat.
+ * Metode langkah, arsip, dan leaderboard juga tersedia dalam bentuk yang menerima ConnectionPool,
+ * sehingga MySqlMoveStore dan MySqlLeaderboardStore dapat memakai server lain
+ * (satu shard di ShardedMoveStore, atau read replica di ReplicatedMoveStore/ReplicatedLeaderboardStore).
+ * Langkah multiplayer dapat dikirim lewat MoveWriteBehindQueue (MySqlMoveStore.submitMove), yang
+ * mengumpulkan langkah dari semua game dan menukarnya dalam batch idempoten (exchangeMoves).
+ * Game yang sudah selesai dipindahkan dari tabel moves ke tabel games_archive, satu baris per game
+ * dengan semua langkah dikemas dalam satu record biner (ArchivedGame):
+ *   CREATE TABLE games_archive (game_id VARCHAR(64) PRIMARY KEY, x_username VARCHAR(64),
+ *     o_username VARCHAR(64), record VARBINARY(1024) NOT NULL, archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)
+ * Hasil game per pengguna disimpan sebagai agregat yang diperbarui inkremental di tabel leaderboard:
+ *   CREATE TABLE leaderboard (username VARCHAR(64) PRIMARY KEY, wins INT NOT NULL DEFAULT 0,
+ *     losses INT NOT NULL DEFAULT 0, draws INT NOT NULL DEFAULT 0, rating DOUBLE NOT NULL DEFAULT 1200,
+ *     INDEX (rating))
  */
 public class DatabaseManager {
 
@@ -22,6 +42,12 @@ public class DatabaseManager {
     private static final String DB_NAME = "defaultdb";
     private static final String DB_USER = "avnadmin";
     private static final String DB_PASS = "AVNS_bgOBYQNuctKG0ErN3KQ";
+    private static final String JDBC_DRIVER = "com.mysql.cj.jdbc.Driver";
+    private static final int MAX_GAMES_PER_QUERY = 500; // Batas game per query fetchMovesForGames
+
+    // Pool koneksi per URL dan user database
+    private static final Map<String, ConnectionPool> POOLS = new ConcurrentHashMap<>();
+    private static volatile boolean driverLoaded;
 
     /**
      * Kelas inner statis yang merepresentasikan satu langkah (move) dalam game.
@@ -64,6 +90,66 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Meminjam koneksi dari pool database default. Koneksi harus ditutup untuk mengembalikannya ke pool.
+     */
+    static Connection getConnection() throws SQLException, ClassNotFoundException {
+        return getDefaultPool().getConnection();
+    }
+
+    /**
+     * Mengembalikan pool database default.
+     */
+    static ConnectionPool getDefaultPool() throws ClassNotFoundException {
+        return getPool(DB_HOST, DB_PORT, DB_NAME, DB_USER, DB_PASS);
+    }
+
+    /**
+     * Mengembalikan pool untuk server lain (misalnya shard) dengan nama database dan kredensial default.
+     */
+    static ConnectionPool getPool(String host, String port) throws ClassNotFoundException {
+        return getPool(host, port, DB_NAME, DB_USER, DB_PASS);
+    }
+
+    /**
+     * Mengembalikan pool untuk database yang diberikan, membuatnya (dan memuat driver JDBC) jika belum ada.
+     */
+    static ConnectionPool getPool(String host, String port, String databaseName, String userName, String dbPassword)
+            throws ClassNotFoundException {
+        loadDriver();
+        // allowMultiQueries: exchangeMove() mengirim INSERT dan SELECT dalam satu round trip
+        // useAffectedRows: INSERT ... ON DUPLICATE KEY UPDATE yang tidak mengubah baris melaporkan 0 baris
+        // (default Connector/J melaporkan baris yang ditemukan), sehingga insertMoveIfAbsent() dapat
+        // membedakan langkah baru dari duplikat dan memeriksa bentrok dengan checkSameMove()
+        String url = "jdbc:mysql://" + host + ":" + port + "/" + databaseName
+                + "?sslmode=require&allowMultiQueries=true&useAffectedRows=true";
+        return POOLS.computeIfAbsent(url + "|" + userName, key -> {
+            System.out.println("DatabaseManager: Creating connection pool for " + host + ":" + port + "/" + databaseName);
+            return new ConnectionPool(url, userName, dbPassword, ConnectionPool.DEFAULT_MAX_SIZE);
+        });
+    }
+
+    /**
+     * Memuat driver JDBC MySQL (sekali saja).
+     */
+    private static void loadDriver() throws ClassNotFoundException {
+        if (!driverLoaded) {
+            synchronized (DatabaseManager.class) {
+                if (!driverLoaded) {
+                    Class.forName(JDBC_DRIVER);
+                    driverLoaded = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Mengembalikan metrik pool database default (untuk logging).
+     */
+    public static String getPoolStats() throws ClassNotFoundException {
+        return getDefaultPool().getStats();
+    }
+
     /**
      * Mengambil password dari database untuk username yang diberikan.
      * Detail koneksi database bisa di-override melalui argumen baris perintah.
@@ -95,14 +181,11 @@ public class DatabaseManager {
             return "";
         }
 
-        // Memuat driver JDBC MySQL
-        Class.forName("com.mysql.cj.jdbc.Driver");
         // Query SQL untuk mengambil password berdasarkan username
         String sqlQuery = "SELECT password FROM gameuser WHERE username = ?";
 
-        // Menggunakan try-with-resources untuk memastikan koneksi dan statement ditutup
-        try (Connection connection =
-                     DriverManager.getConnection("jdbc:mysql://" + host + ":" + port + "/" + databaseName + "?sslmode=require", userName, dbPassword);
+        // Menggunakan try-with-resources untuk memastikan koneksi dikembalikan ke pool dan statement ditutup
+        try (Connection connection = getPool(host, port, databaseName, userName, dbPassword).getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sqlQuery)) {
 
             preparedStatement.setString(1, uName); // Mengatur parameter username di query
@@ -130,24 +213,29 @@ public class DatabaseManager {
      * Digunakan dalam mode multiplayer untuk mencatat pergerakan.
      */
     public static void insertMove(String gameId, int moveNumber, String playerUsername, String playerSeed, int row, int col) throws SQLException, ClassNotFoundException {
-        Class.forName("com.mysql.cj.jdbc.Driver");
+        insertMove(getDefaultPool(), new Move(gameId, moveNumber, playerUsername, playerSeed, row, col));
+    }
+
+    /**
+     * Memasukkan satu langkah ke database milik pool (misalnya satu shard).
+     */
+    static void insertMove(ConnectionPool pool, Move move) throws SQLException {
         // Query SQL untuk menyisipkan langkah baru
         String sqlInsert = "INSERT INTO moves (game_id, move_number, player_username, player_seed, row_coord, col_coord) VALUES (?, ?, ?, ?, ?, ?)";
 
-        try (Connection connection =
-                     DriverManager.getConnection("jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME + "?sslmode=require", DB_USER, DB_PASS);
+        try (Connection connection = pool.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sqlInsert)) {
 
             // Mengatur parameter untuk query insert
-            preparedStatement.setString(1, gameId);
-            preparedStatement.setInt(2, moveNumber);
-            preparedStatement.setString(3, playerUsername);
-            preparedStatement.setString(4, playerSeed);
-            preparedStatement.setInt(5, row);
-            preparedStatement.setInt(6, col);
+            preparedStatement.setString(1, move.gameId);
+            preparedStatement.setInt(2, move.moveNumber);
+            preparedStatement.setString(3, move.playerUsername);
+            preparedStatement.setString(4, move.playerSeed);
+            preparedStatement.setInt(5, move.row);
+            preparedStatement.setInt(6, move.col);
 
             preparedStatement.executeUpdate(); // Mengeksekusi query
-            System.out.println("DatabaseManager: Inserted move: " + gameId + " - " + moveNumber);
+            System.out.println("DatabaseManager: Inserted move: " + move.gameId + " - " + move.moveNumber);
 
         } catch (SQLException e) {
             System.err.println("DatabaseManager: Error inserting move: " + e.getMessage());
@@ -155,19 +243,218 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Memasukkan langkah secara idempoten menurut (game_id, move_number); membutuhkan indeks unik
+     * ALTER TABLE moves ADD UNIQUE KEY uq_game_move (game_id, move_number).
+     * Mengembalikan true jika langkah baru disimpan, false jika langkah yang sama sudah tersimpan.
+     * Melempar SQLIntegrityConstraintViolationException jika nomor langkah itu dipakai langkah lain.
+     */
+    public static boolean insertMoveIfAbsent(Move move) throws SQLException, ClassNotFoundException {
+        return insertMoveIfAbsent(getDefaultPool(), move);
+    }
+
+    /**
+     * Seperti insertMoveIfAbsent(Move), untuk database milik pool.
+     */
+    static boolean insertMoveIfAbsent(ConnectionPool pool, Move move) throws SQLException {
+        // Duplikat tidak mengubah baris (0 baris terpengaruh, lihat useAffectedRows di getPool) dan tidak melempar error
+        String sqlInsert = "INSERT INTO moves (game_id, move_number, player_username, player_seed, row_coord, col_coord) "
+                + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE move_number = move_number";
+        String sqlSelect = "SELECT game_id, move_number, player_username, player_seed, row_coord, col_coord FROM moves "
+                + "WHERE game_id = ? AND move_number = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement insertStatement = connection.prepareStatement(sqlInsert)) {
+            insertStatement.setString(1, move.gameId);
+            insertStatement.setInt(2, move.moveNumber);
+            insertStatement.setString(3, move.playerUsername);
+            insertStatement.setString(4, move.playerSeed);
+            insertStatement.setInt(5, move.row);
+            insertStatement.setInt(6, move.col);
+            if (insertStatement.executeUpdate() > 0) {
+                System.out.println("DatabaseManager: Inserted move: " + move.gameId + " - " + move.moveNumber);
+                return true;
+            }
+            try (PreparedStatement selectStatement = connection.prepareStatement(sqlSelect)) {
+                selectStatement.setString(1, move.gameId);
+                selectStatement.setInt(2, move.moveNumber);
+                try (ResultSet resultSet = selectStatement.executeQuery()) {
+                    if (resultSet.next()) {
+                        MoveStore.checkSameMove(new Move(
+                                resultSet.getString("game_id"),
+                                resultSet.getInt("move_number"),
+                                resultSet.getString("player_username"),
+                                resultSet.getString("player_seed"),
+                                resultSet.getInt("row_coord"),
+                                resultSet.getInt("col_coord")), move);
+                    }
+                }
+            }
+            System.out.println("DatabaseManager: Move already stored: " + move.gameId + " - " + move.moveNumber);
+            return false;
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error inserting move: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Menukar langkah dalam satu round trip: INSERT yang dijaga indeks unik (game_id, move_number)
+     * dan SELECT langkah setelah lastKnownMoveNumber dikirim sebagai satu multi-statement.
+     * Langkah bernomor sama yang dikembalikan SELECT menentukan status ACCEPTED atau CONFLICT.
+     */
+    public static MoveExchangeResult exchangeMove(Move move, int lastKnownMoveNumber) throws SQLException, ClassNotFoundException {
+        return exchangeMove(getDefaultPool(), move, lastKnownMoveNumber);
+    }
+
+    /**
+     * Seperti exchangeMove(Move, int), untuk database milik pool.
+     */
+    static MoveExchangeResult exchangeMove(ConnectionPool pool, Move move, int lastKnownMoveNumber) throws SQLException {
+        String sqlExchange = "INSERT INTO moves (game_id, move_number, player_username, player_seed, row_coord, col_coord) "
+                + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE move_number = move_number; "
+                + "SELECT game_id, move_number, player_username, player_seed, row_coord, col_coord FROM moves "
+                + "WHERE game_id = ? AND move_number > ? ORDER BY move_number ASC";
+        List<Move> stored = new ArrayList<>();
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlExchange)) {
+            preparedStatement.setString(1, move.gameId);
+            preparedStatement.setInt(2, move.moveNumber);
+            preparedStatement.setString(3, move.playerUsername);
+            preparedStatement.setString(4, move.playerSeed);
+            preparedStatement.setInt(5, move.row);
+            preparedStatement.setInt(6, move.col);
+            preparedStatement.setString(7, move.gameId);
+            preparedStatement.setInt(8, lastKnownMoveNumber);
+
+            // Hasil pertama adalah jumlah baris INSERT, hasil kedua adalah ResultSet SELECT
+            boolean isResultSet = preparedStatement.execute();
+            while (!isResultSet && preparedStatement.getUpdateCount() != -1) {
+                isResultSet = preparedStatement.getMoreResults();
+            }
+            if (isResultSet) {
+                try (ResultSet resultSet = preparedStatement.getResultSet()) {
+                    while (resultSet.next()) {
+                        stored.add(new Move(
+                                resultSet.getString("game_id"),
+                                resultSet.getInt("move_number"),
+                                resultSet.getString("player_username"),
+                                resultSet.getString("player_seed"),
+                                resultSet.getInt("row_coord"),
+                                resultSet.getInt("col_coord")
+                        ));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error exchanging move: " + e.getMessage());
+            throw e;
+        }
+        MoveExchangeResult result = MoveExchangeResult.fromStoredMoves(move, stored);
+        System.out.println("DatabaseManager: Exchanged move " + move.gameId + " - " + move.moveNumber + ": " + result);
+        return result;
+    }
+
+    /**
+     * Menukar beberapa langkah sekaligus (dipakai MoveWriteBehindQueue): satu INSERT multi-baris yang
+     * idempoten (ON DUPLICATE KEY UPDATE, dijaga indeks unik (game_id, move_number)) untuk semua langkah,
+     * lalu satu fetchMovesForGames untuk semua game dalam batch. Baris disisipkan sesuai urutan list,
+     * sehingga urutan langkah per game_id dipertahankan. Hasil per langkah sama dengan
+     * exchangeMove(move, move.moveNumber - 1), tanpa langkah lain dari batch yang sama.
+     */
+    static List<MoveExchangeResult> exchangeMoves(ConnectionPool pool, List<Move> moves) throws SQLException {
+        StringBuilder sqlInsert = new StringBuilder(
+                "INSERT INTO moves (game_id, move_number, player_username, player_seed, row_coord, col_coord) VALUES ");
+        for (int i = 0; i < moves.size(); i++) {
+            sqlInsert.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+        }
+        sqlInsert.append(" ON DUPLICATE KEY UPDATE move_number = move_number");
+        Map<String, Integer> floors = new HashMap<>(); // Batas baca per game: langkah terkecil di batch - 1
+        Map<String, List<Move>> batchMoves = new HashMap<>();
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlInsert.toString())) {
+            int index = 1;
+            for (Move move : moves) {
+                preparedStatement.setString(index++, move.gameId);
+                preparedStatement.setInt(index++, move.moveNumber);
+                preparedStatement.setString(index++, move.playerUsername);
+                preparedStatement.setString(index++, move.playerSeed);
+                preparedStatement.setInt(index++, move.row);
+                preparedStatement.setInt(index++, move.col);
+                floors.merge(move.gameId, move.moveNumber - 1, Math::min);
+                batchMoves.computeIfAbsent(move.gameId, id -> new ArrayList<>()).add(move);
+            }
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error exchanging batch of " + moves.size() + " moves: " + e.getMessage());
+            throw e;
+        }
+        Map<String, List<Move>> storedByGame = fetchMovesForGames(pool, floors);
+        List<MoveExchangeResult> results = new ArrayList<>(moves.size());
+        for (Move move : moves) {
+            List<Move> stored = new ArrayList<>();
+            for (Move candidate : storedByGame.getOrDefault(move.gameId, Collections.emptyList())) {
+                if (candidate.moveNumber >= move.moveNumber
+                        && (candidate.moveNumber == move.moveNumber || !isBatchMove(candidate, batchMoves.get(move.gameId)))) {
+                    stored.add(candidate);
+                }
+            }
+            results.add(MoveExchangeResult.fromStoredMoves(move, stored));
+        }
+        System.out.println("DatabaseManager: Exchanged batch of " + moves.size() + " moves in " + floors.size() + " games");
+        return results;
+    }
+
+    /**
+     * Mengembalikan true jika stored adalah salah satu langkah batch (nomor, posisi, dan simbol sama).
+     */
+    private static boolean isBatchMove(Move stored, List<Move> batch) {
+        for (Move move : batch) {
+            if (move.moveNumber == stored.moveNumber && move.row == stored.row && move.col == stored.col
+                    && move.playerSeed.equals(stored.playerSeed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Menunggu semua langkah dalam antrian write-behind queue tertulis (tidak melakukan apa pun jika queue null).
+     */
+    static void flushPendingMoves(MoveWriteBehindQueue queue) throws SQLException {
+        if (queue == null) {
+            return;
+        }
+        try {
+            queue.flush().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while flushing pending moves", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Error flushing pending moves: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
     /**
      * Mengambil daftar langkah baru dari database untuk game tertentu.
      * Ini mencari langkah dengan moveNumber yang lebih besar dari lastMoveNumber yang diberikan.
      * Digunakan untuk menyinkronkan state game di mode multiplayer.
      */
     public static List<Move> fetchMoves(String gameId, int lastMoveNumber) throws SQLException, ClassNotFoundException {
+        return fetchMoves(getDefaultPool(), gameId, lastMoveNumber);
+    }
+
+    /**
+     * Seperti fetchMoves(String, int), untuk database milik pool.
+     */
+    static List<Move> fetchMoves(ConnectionPool pool, String gameId, int lastMoveNumber) throws SQLException {
         List<Move> newMoves = new ArrayList<>(); // List untuk menyimpan langkah-langkah baru
-        Class.forName("com.mysql.cj.jdbc.Driver");
         // Query SQL untuk mengambil langkah-langkah berdasarkan gameId dan moveNumber
         String sqlSelect = "SELECT game_id, move_number, player_username, player_seed, row_coord, col_coord FROM moves WHERE game_id = ? AND move_number > ? ORDER BY move_number ASC";
 
-        try (Connection connection =
-                     DriverManager.getConnection("jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME + "?sslmode=require", DB_USER, DB_PASS);
+        try (Connection connection = pool.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect)) {
 
             preparedStatement.setString(1, gameId);
@@ -193,17 +480,76 @@ public class DatabaseManager {
         return newMoves; // Mengembalikan list langkah baru
     }
 
+    /**
+     * Mengambil langkah baru untuk banyak game sekaligus: untuk setiap game ID di lastMoveNumbers,
+     * langkah dengan nomor lebih besar dari batas game tersebut. Satu query melayani sampai
+     * MAX_GAMES_PER_QUERY game:
+     *   ... WHERE game_id IN (?, ...) AND ((game_id = ? AND move_number > ?) OR ...)
+     * sehingga setiap game dibaca sebagai satu rentang pada indeks (game_id, move_number).
+     * Hasil dikelompokkan per game (urut naik); game tanpa langkah baru tidak ada di map.
+     */
+    static Map<String, List<Move>> fetchMovesForGames(ConnectionPool pool, Map<String, Integer> lastMoveNumbers) throws SQLException {
+        Map<String, List<Move>> movesByGame = new HashMap<>();
+        List<Map.Entry<String, Integer>> floors = new ArrayList<>(lastMoveNumbers.entrySet());
+        for (int start = 0; start < floors.size(); start += MAX_GAMES_PER_QUERY) {
+            List<Map.Entry<String, Integer>> chunk = floors.subList(start, Math.min(start + MAX_GAMES_PER_QUERY, floors.size()));
+            StringBuilder sqlSelect = new StringBuilder("SELECT game_id, move_number, player_username, player_seed, row_coord, col_coord "
+                    + "FROM moves WHERE game_id IN (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sqlSelect.append(i == 0 ? "?" : ", ?");
+            }
+            sqlSelect.append(") AND (");
+            for (int i = 0; i < chunk.size(); i++) {
+                sqlSelect.append(i == 0 ? "" : " OR ").append("(game_id = ? AND move_number > ?)");
+            }
+            sqlSelect.append(") ORDER BY game_id, move_number ASC");
+
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect.toString())) {
+                int index = 1;
+                for (Map.Entry<String, Integer> floor : chunk) {
+                    preparedStatement.setString(index++, floor.getKey());
+                }
+                for (Map.Entry<String, Integer> floor : chunk) {
+                    preparedStatement.setString(index++, floor.getKey());
+                    preparedStatement.setInt(index++, floor.getValue());
+                }
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Move move = new Move(
+                                resultSet.getString("game_id"),
+                                resultSet.getInt("move_number"),
+                                resultSet.getString("player_username"),
+                                resultSet.getString("player_seed"),
+                                resultSet.getInt("row_coord"),
+                                resultSet.getInt("col_coord"));
+                        movesByGame.computeIfAbsent(move.gameId, id -> new ArrayList<>()).add(move);
+                    }
+                }
+            } catch (SQLException e) {
+                System.err.println("DatabaseManager: Error fetching moves for " + chunk.size() + " games: " + e.getMessage());
+                throw e;
+            }
+        }
+        return movesByGame;
+    }
+
     /**
      * Menghapus semua langkah game dari database untuk game ID tertentu.
      * Ini digunakan saat game baru dibuat untuk memastikan papan bersih.
      */
     public static void clearGameMoves(String gameId) throws SQLException, ClassNotFoundException {
-        Class.forName("com.mysql.cj.jdbc.Driver");
+        clearGameMoves(getDefaultPool(), gameId);
+    }
+
+    /**
+     * Menghapus langkah game dari database milik pool.
+     */
+    static void clearGameMoves(ConnectionPool pool, String gameId) throws SQLException {
         // Query SQL untuk menghapus langkah-langkah
         String sqlDelete = "DELETE FROM moves WHERE game_id = ?";
 
-        try (Connection connection =
-                     DriverManager.getConnection("jdbc:mysql://" + DB_HOST + ":" + DB_PORT + "/" + DB_NAME + "?sslmode=require", DB_USER, DB_PASS);
+        try (Connection connection = pool.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sqlDelete)) {
 
             preparedStatement.setString(1, gameId); // Mengatur parameter gameId
@@ -215,4 +561,255 @@ public class DatabaseManager {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Mengarsipkan game yang sudah selesai: menyimpan record ringkasnya di tabel games_archive dan
+     * menghapus langkah-langkahnya dari tabel moves dalam satu transaksi.
+     * Arsip lama dengan game ID yang sama diganti.
+     */
+    public static void archiveGame(ArchivedGame game) throws SQLException, ClassNotFoundException {
+        archiveGame(getDefaultPool(), game);
+    }
+
+    /**
+     * Mengarsipkan game di database milik pool.
+     */
+    static void archiveGame(ConnectionPool pool, ArchivedGame game) throws SQLException {
+        String sqlArchive = "INSERT INTO games_archive (game_id, x_username, o_username, record) VALUES (?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE x_username = VALUES(x_username), o_username = VALUES(o_username), "
+                + "record = VALUES(record), archived_at = CURRENT_TIMESTAMP";
+        String sqlDelete = "DELETE FROM moves WHERE game_id = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement archiveStatement = connection.prepareStatement(sqlArchive);
+             PreparedStatement deleteStatement = connection.prepareStatement(sqlDelete)) {
+            connection.setAutoCommit(false); // Arsip dan penghapusan berhasil atau gagal bersama
+            archiveStatement.setString(1, game.getGameId());
+            archiveStatement.setString(2, game.getCrossUsername());
+            archiveStatement.setString(3, game.getNoughtUsername());
+            archiveStatement.setBytes(4, game.encode());
+            archiveStatement.executeUpdate();
+            deleteStatement.setString(1, game.getGameId());
+            int deleted = deleteStatement.executeUpdate();
+            connection.commit();
+            connection.setAutoCommit(true);
+            System.out.println("DatabaseManager: Archived game " + game.getGameId() + " (" + game.getMoveCount()
+                    + " moves, " + deleted + " live rows removed)");
+        } catch (SQLException e) {
+            // Koneksi yang dikembalikan ke pool di-rollback otomatis oleh ConnectionPool
+            System.err.println("DatabaseManager: Error archiving game: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Mengambil arsip game gameId dari tabel games_archive, atau null jika tidak ada.
+     */
+    public static ArchivedGame fetchArchivedGame(String gameId) throws SQLException, ClassNotFoundException {
+        return fetchArchivedGame(getDefaultPool(), gameId);
+    }
+
+    /**
+     * Seperti fetchArchivedGame(String), untuk database milik pool.
+     */
+    static ArchivedGame fetchArchivedGame(ConnectionPool pool, String gameId) throws SQLException {
+        String sqlSelect = "SELECT x_username, o_username, record FROM games_archive WHERE game_id = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect)) {
+
+            preparedStatement.setString(1, gameId);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                return ArchivedGame.decode(gameId, resultSet.getString("x_username"),
+                        resultSet.getString("o_username"), resultSet.getBytes("record"));
+            }
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error fetching archived game: " + e.getMessage());
+            throw e;
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Corrupt archive record for game " + gameId + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Mengambil ID semua game di database milik pool, baik yang masih live (tabel moves)
+     * maupun yang sudah diarsipkan (tabel games_archive). Dipakai saat memindahkan game antar shard.
+     */
+    static List<String> listGameIds(ConnectionPool pool) throws SQLException {
+        List<String> gameIds = new ArrayList<>();
+        String sqlSelect = "SELECT game_id FROM moves UNION SELECT game_id FROM games_archive";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect);
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            while (resultSet.next()) {
+                gameIds.add(resultSet.getString("game_id"));
+            }
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error listing games: " + e.getMessage());
+            throw e;
+        }
+        return gameIds;
+    }
+
+    /**
+     * Menghapus langkah live dan arsip game gameId dari database milik pool dalam satu transaksi.
+     */
+    static void deleteGame(ConnectionPool pool, String gameId) throws SQLException {
+        String sqlDeleteMoves = "DELETE FROM moves WHERE game_id = ?";
+        String sqlDeleteArchive = "DELETE FROM games_archive WHERE game_id = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement movesStatement = connection.prepareStatement(sqlDeleteMoves);
+             PreparedStatement archiveStatement = connection.prepareStatement(sqlDeleteArchive)) {
+            connection.setAutoCommit(false);
+            movesStatement.setString(1, gameId);
+            movesStatement.executeUpdate();
+            archiveStatement.setString(1, gameId);
+            archiveStatement.executeUpdate();
+            connection.commit();
+            connection.setAutoCommit(true);
+            System.out.println("DatabaseManager: Deleted game " + gameId);
+        } catch (SQLException e) {
+            // Koneksi yang dikembalikan ke pool di-rollback otomatis oleh ConnectionPool
+            System.err.println("DatabaseManager: Error deleting game: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * Mencatat hasil satu game di tabel leaderboard dalam satu transaksi: baris kedua pengguna dikunci
+     * (SELECT ... FOR UPDATE), rating Elo baru dihitung dari rating saat ini, lalu penghitung
+     * menang/kalah/seri ditambah di tempat. Tidak ada GROUP BY atas riwayat game.
+     */
+    public static void recordGameResult(String crossUsername, String noughtUsername, State result)
+            throws SQLException, ClassNotFoundException {
+        recordGameResult(getDefaultPool(), crossUsername, noughtUsername, result);
+    }
+
+    /**
+     * Seperti recordGameResult(String, String, State), untuk database milik pool.
+     */
+    static void recordGameResult(ConnectionPool pool, String crossUsername, String noughtUsername, State result)
+            throws SQLException {
+        String sqlEnsure = "INSERT IGNORE INTO leaderboard (username) VALUES (?), (?)";
+        String sqlLock = "SELECT username, wins, losses, draws, rating FROM leaderboard WHERE username IN (?, ?) FOR UPDATE";
+        String sqlUpdate = "UPDATE leaderboard SET wins = wins + ?, losses = losses + ?, draws = draws + ?, rating = ? WHERE username = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement ensureStatement = connection.prepareStatement(sqlEnsure);
+             PreparedStatement lockStatement = connection.prepareStatement(sqlLock);
+             PreparedStatement updateStatement = connection.prepareStatement(sqlUpdate)) {
+            connection.setAutoCommit(false);
+            ensureStatement.setString(1, crossUsername);
+            ensureStatement.setString(2, noughtUsername);
+            ensureStatement.executeUpdate();
+
+            Map<String, PlayerRating> current = new HashMap<>();
+            lockStatement.setString(1, crossUsername);
+            lockStatement.setString(2, noughtUsername);
+            try (ResultSet resultSet = lockStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    PlayerRating rating = readPlayerRating(resultSet);
+                    current.put(rating.getUsername(), rating);
+                }
+            }
+            PlayerRating cross = current.getOrDefault(crossUsername, PlayerRating.newPlayer(crossUsername));
+            PlayerRating nought = current.getOrDefault(noughtUsername, PlayerRating.newPlayer(noughtUsername));
+            double crossScore = Leaderboard.crossScore(result);
+            addResultUpdate(updateStatement, crossUsername, crossScore,
+                    PlayerRating.newRating(cross.getRating(), nought.getRating(), crossScore));
+            addResultUpdate(updateStatement, noughtUsername, 1.0 - crossScore,
+                    PlayerRating.newRating(nought.getRating(), cross.getRating(), 1.0 - crossScore));
+            updateStatement.executeBatch();
+            connection.commit();
+            connection.setAutoCommit(true);
+            System.out.println("DatabaseManager: Recorded result " + result + " for " + crossUsername + " vs " + noughtUsername);
+        } catch (SQLException e) {
+            // Koneksi yang dikembalikan ke pool di-rollback otomatis oleh ConnectionPool
+            System.err.println("DatabaseManager: Error recording game result: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static void addResultUpdate(PreparedStatement updateStatement, String username, double score, double rating)
+            throws SQLException {
+        updateStatement.setInt(1, score == 1.0 ? 1 : 0);
+        updateStatement.setInt(2, score == 0.0 ? 1 : 0);
+        updateStatement.setInt(3, score == 0.5 ? 1 : 0);
+        updateStatement.setDouble(4, rating);
+        updateStatement.setString(5, username);
+        updateStatement.addBatch();
+    }
+
+    /**
+     * Mengambil limit pengguna dengan rating tertinggi dari tabel leaderboard.
+     */
+    public static List<PlayerRating> fetchTopPlayers(int limit) throws SQLException, ClassNotFoundException {
+        return fetchTopPlayers(getDefaultPool(), limit);
+    }
+
+    /**
+     * Seperti fetchTopPlayers(int), untuk database milik pool (misalnya read replica).
+     */
+    static List<PlayerRating> fetchTopPlayers(ConnectionPool pool, int limit) throws SQLException {
+        List<PlayerRating> players = new ArrayList<>();
+        String sqlSelect = "SELECT username, wins, losses, draws, rating FROM leaderboard ORDER BY rating DESC LIMIT ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect)) {
+
+            preparedStatement.setInt(1, limit);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    players.add(readPlayerRating(resultSet));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error fetching leaderboard: " + e.getMessage());
+            throw e;
+        }
+        return players;
+    }
+
+    /**
+     * Mengambil baris leaderboard satu pengguna, atau null jika belum ada.
+     */
+    public static PlayerRating fetchPlayerRating(String username) throws SQLException, ClassNotFoundException {
+        return fetchPlayerRating(getDefaultPool(), username);
+    }
+
+    /**
+     * Seperti fetchPlayerRating(String), untuk database milik pool (misalnya read replica).
+     */
+    static PlayerRating fetchPlayerRating(ConnectionPool pool, String username) throws SQLException {
+        String sqlSelect = "SELECT username, wins, losses, draws, rating FROM leaderboard WHERE username = ?";
+
+        try (Connection connection = pool.getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sqlSelect)) {
+
+            preparedStatement.setString(1, username);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? readPlayerRating(resultSet) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("DatabaseManager: Error fetching player rating: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static PlayerRating readPlayerRating(ResultSet resultSet) throws SQLException {
+        return new PlayerRating(
+                resultSet.getString("username"),
+                resultSet.getInt("wins"),
+                resultSet.getInt("losses"),
+                resultSet.getInt("draws"),
+                resultSet.getDouble("rating"));
+    }
+}
@@ -0,0 +1,385 @@
+// package FileMoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Kelas FileMoveStore menyimpan langkah di file log lokal yang hanya ditambah (append-only)
+ * dan dipetakan ke memori (memory-mapped), untuk game LAN/offline tanpa server database.
+ * Format file: header "TTTLOG02", lalu record berurutan:
+ *   int panjang isi (0 = akhir log), int CRC32 isi, isi = byte jenis (1 = langkah, 2 = hapus langkah, 3 = arsip game, 4 = hapus game dan arsipnya),
+ *   string gameId, lalu untuk langkah: int moveNumber, string username, string seed, int row, int col;
+ *   untuk arsip: string username X, string username O, short panjang + record ArchivedGame
+ *   (string = short panjang + byte UTF-8; username kosong berarti tidak diketahui).
+ * Panjang record ditulis paling akhir, dan saat dibuka log diputar ulang sampai record pertama yang
+ * terpotong atau CRC-nya tidak cocok (misalnya halaman yang tidak sempat ditulis saat crash); sisa log
+ * setelahnya dibuang. Record dengan CRC yang cocok tetapi isinya tidak terbaca dilaporkan sebagai SQLException.
+ * Saat dibuka, log diputar ulang ke InMemoryMoveStore yang melayani semua pembacaan tanpa kunci;
+ * penulisan ke log diserialkan oleh satu kunci. compact() menulis ulang log tanpa langkah
+ * dari game yang sudah diarsipkan atau dihapus.
+ */
+public class FileMoveStore implements MoveStore {
+    private static final byte[] MAGIC = "TTTLOG02".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_SIZE = 8; // int panjang + int CRC32 per record
+    private static final byte RECORD_MOVE = 1;
+    private static final byte RECORD_CLEAR = 2;
+    private static final byte RECORD_ARCHIVE = 3;
+    private static final byte RECORD_DELETE = 4;
+    private static final int INITIAL_MAP_SIZE = 1 << 20; // 1 MB, digandakan saat penuh
+
+    private final Path path;
+    private FileChannel channel;       // File log (diganti oleh compact())
+    private final InMemoryMoveStore index = new InMemoryMoveStore(); // Indeks untuk pembacaan
+    private MappedByteBuffer buffer; // Wilayah file yang dipetakan
+    private int writePosition;       // Posisi record berikutnya
+
+    /**
+     * Membuka (atau membuat) file log pada path dan memutar ulang isinya ke indeks memori.
+     */
+    public FileMoveStore(Path path) throws SQLException {
+        this.path = path;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_MAP_SIZE, size));
+            if (size == 0) {
+                buffer.put(0, MAGIC);
+            } else {
+                byte[] magic = new byte[MAGIC.length];
+                buffer.get(0, magic);
+                if (!Arrays.equals(magic, MAGIC)) {
+                    throw new SQLException("Not a move log file (or an older format without checksums): " + path);
+                }
+            }
+            writePosition = replay();
+        } catch (IOException e) {
+            throw new SQLException("Cannot open move log " + path + ": " + e.getMessage(), e);
+        } catch (SQLException e) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Kesalahan format log yang dilaporkan
+            }
+            throw e;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::force, "move-log-force"));
+        System.out.println("FileMoveStore: Opened " + path + " (" + writePosition + " bytes)");
+    }
+
+    /**
+     * Memutar ulang record ke indeks sampai akhir log atau record pertama yang terpotong atau rusak.
+     * Mengembalikan posisi akhir bagian log yang sah.
+     */
+    private int replay() throws SQLException {
+        int pos = MAGIC.length;
+        while (pos + HEADER_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(pos);
+            if (length == 0) {
+                break; // Akhir log
+            }
+            if (length < 0 || (long) pos + HEADER_SIZE + length > buffer.capacity()
+                    || crc(buffer.slice(pos + HEADER_SIZE, length)) != buffer.getInt(pos + 4)) {
+                discardFrom(pos); // Record terpotong atau rusak
+                break;
+            }
+            ByteBuffer record = buffer.slice(pos + HEADER_SIZE, length);
+            try {
+                replayRecord(record);
+            } catch (RuntimeException e) { // BufferUnderflowException atau IllegalArgumentException dari isi record
+                throw new SQLException("Unreadable record at offset " + pos + " of move log " + path + ": " + e, e);
+            }
+            pos += HEADER_SIZE + length;
+        }
+        return pos;
+    }
+
+    /**
+     * Mengosongkan log mulai dari pos, sehingga sisa record lama setelah record yang rusak tidak
+     * terbaca lagi setelah record baru ditulis di pos.
+     */
+    private void discardFrom(int pos) {
+        System.err.println("FileMoveStore: Discarding damaged records from offset " + pos + " of " + path);
+        byte[] zeros = new byte[4096];
+        for (int offset = pos; offset < buffer.capacity(); offset += zeros.length) {
+            buffer.put(offset, zeros, 0, Math.min(zeros.length, buffer.capacity() - offset));
+        }
+        buffer.force();
+    }
+
+    /**
+     * Menerapkan satu record dengan CRC yang cocok ke indeks.
+     */
+    private void replayRecord(ByteBuffer record) {
+        byte type = record.get();
+        String gameId = readString(record);
+        if (type == RECORD_MOVE) {
+            int moveNumber = record.getInt();
+            String username = readString(record);
+            String seed = readString(record);
+            int row = record.getInt();
+            int col = record.getInt();
+            index.insertMove(new DatabaseManager.Move(gameId, moveNumber, username, seed, row, col));
+        } else if (type == RECORD_CLEAR) {
+            index.clearGameMoves(gameId);
+        } else if (type == RECORD_ARCHIVE) {
+            String crossUsername = readString(record);
+            String noughtUsername = readString(record);
+            byte[] encoded = new byte[record.getShort() & 0xFFFF];
+            record.get(encoded);
+            index.archiveGame(ArchivedGame.decode(gameId, emptyToNull(crossUsername),
+                    emptyToNull(noughtUsername), encoded));
+        } else if (type == RECORD_DELETE) {
+            index.deleteGame(gameId);
+        }
+    }
+
+    @Override
+    public void insertMove(DatabaseManager.Move move) throws SQLException {
+        synchronized (this) {
+            appendMove(move);
+            index.insertMove(move); // Di dalam kunci agar compact() selalu melihat indeks yang lengkap
+        }
+    }
+
+    @Override
+    public boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLException {
+        synchronized (this) {
+            List<DatabaseManager.Move> existing = index.fetchMoves(move.gameId, move.moveNumber - 1);
+            if (!existing.isEmpty() && existing.get(0).moveNumber == move.moveNumber) {
+                MoveStore.checkSameMove(existing.get(0), move);
+                return false;
+            }
+            appendMove(move);
+            index.insertMove(move);
+            return true;
+        }
+    }
+
+    @Override
+    public List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) {
+        return index.fetchMoves(gameId, lastMoveNumber);
+    }
+
+    @Override
+    public void clearGameMoves(String gameId) throws SQLException {
+        synchronized (this) {
+            appendGameRecord(RECORD_CLEAR, gameId);
+            index.clearGameMoves(gameId);
+        }
+    }
+
+    @Override
+    public void archiveGame(ArchivedGame game) throws SQLException {
+        synchronized (this) {
+            appendArchive(game);
+            index.archiveGame(game);
+        }
+    }
+
+    @Override
+    public ArchivedGame fetchArchivedGame(String gameId) {
+        return index.fetchArchivedGame(gameId);
+    }
+
+    @Override
+    public List<String> listGameIds() {
+        return index.listGameIds();
+    }
+
+    @Override
+    public void deleteGame(String gameId) throws SQLException {
+        synchronized (this) {
+            appendGameRecord(RECORD_DELETE, gameId);
+            index.deleteGame(gameId);
+        }
+    }
+
+    /**
+     * Menulis ulang log sehingga hanya berisi langkah game yang masih live dan satu record per
+     * game yang diarsipkan; langkah lama dari game yang sudah diarsipkan atau dihapus dibuang.
+     * Log baru ditulis ke file sementara lalu menggantikan log lama secara atomik.
+     * Mengembalikan jumlah byte yang dibebaskan.
+     */
+    public synchronized int compact() throws SQLException {
+        FileChannel oldChannel = channel;
+        MappedByteBuffer oldBuffer = buffer;
+        int oldPosition = writePosition;
+        Path temp = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            Files.deleteIfExists(temp);
+            channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_MAP_SIZE);
+            buffer.put(0, MAGIC);
+            writePosition = MAGIC.length;
+            for (String gameId : index.getArchivedGameIds()) {
+                appendArchive(index.fetchArchivedGame(gameId));
+            }
+            for (String gameId : index.getGameIds()) {
+                for (DatabaseManager.Move move : index.fetchMoves(gameId, 0)) {
+                    appendMove(move);
+                }
+            }
+            buffer.force();
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | SQLException e) {
+            try {
+                if (channel != oldChannel) {
+                    channel.close();
+                }
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Log lama tetap utuh dan tetap dipakai
+            }
+            channel = oldChannel;
+            buffer = oldBuffer;
+            writePosition = oldPosition;
+            throw new SQLException("Cannot compact move log " + path + ": " + e.getMessage(), e);
+        }
+        try {
+            oldChannel.close();
+        } catch (IOException e) {
+            System.err.println("FileMoveStore: Error closing old log: " + e.getMessage());
+        }
+        System.out.println("FileMoveStore: Compacted " + path + " from " + oldPosition + " to " + writePosition + " bytes");
+        return oldPosition - writePosition;
+    }
+
+    /**
+     * Menulis record langkah ke log (pemanggil memegang kunci).
+     */
+    private void appendMove(DatabaseManager.Move move) throws SQLException {
+        byte[] gameId = move.gameId.getBytes(StandardCharsets.UTF_8);
+        byte[] username = move.playerUsername.getBytes(StandardCharsets.UTF_8);
+        byte[] seed = move.playerSeed.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + gameId.length + 4 + 2 + username.length + 2 + seed.length + 4 + 4;
+        ByteBuffer record = reserve(length);
+        record.put(RECORD_MOVE);
+        writeString(record, gameId);
+        record.putInt(move.moveNumber);
+        writeString(record, username);
+        writeString(record, seed);
+        record.putInt(move.row);
+        record.putInt(move.col);
+        commit(length);
+    }
+
+    /**
+     * Menulis record yang hanya berisi jenis dan gameId ke log (pemanggil memegang kunci).
+     */
+    private void appendGameRecord(byte type, String gameId) throws SQLException {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + id.length;
+        ByteBuffer record = reserve(length);
+        record.put(type);
+        writeString(record, id);
+        commit(length);
+    }
+
+    /**
+     * Menulis record arsip game ke log (pemanggil memegang kunci).
+     */
+    private void appendArchive(ArchivedGame game) throws SQLException {
+        byte[] id = game.getGameId().getBytes(StandardCharsets.UTF_8);
+        byte[] crossUsername = nullToEmpty(game.getCrossUsername()).getBytes(StandardCharsets.UTF_8);
+        byte[] noughtUsername = nullToEmpty(game.getNoughtUsername()).getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = game.encode();
+        int length = 1 + 2 + id.length + 2 + crossUsername.length + 2 + noughtUsername.length + 2 + encoded.length;
+        ByteBuffer record = reserve(length);
+        record.put(RECORD_ARCHIVE);
+        writeString(record, id);
+        writeString(record, crossUsername);
+        writeString(record, noughtUsername);
+        writeString(record, encoded);
+        commit(length);
+    }
+
+    /**
+     * Menyiapkan tempat untuk record dengan panjang length (memperbesar pemetaan jika perlu).
+     * Mengembalikan buffer untuk isi record, tepat setelah kolom panjang.
+     */
+    private ByteBuffer reserve(int length) throws SQLException {
+        long needed = (long) writePosition + HEADER_SIZE + length + 4; // + penanda akhir log
+        if (needed > buffer.capacity()) {
+            long newSize = buffer.capacity();
+            while (newSize < needed) {
+                newSize *= 2;
+            }
+            if (newSize > Integer.MAX_VALUE) {
+                throw new SQLException("Move log is full: " + path);
+            }
+            try {
+                buffer.force();
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newSize);
+            } catch (IOException e) {
+                throw new SQLException("Cannot grow move log " + path + ": " + e.getMessage(), e);
+            }
+        }
+        return buffer.slice(writePosition + HEADER_SIZE, length);
+    }
+
+    /**
+     * Menandai record sebagai lengkap: menulis CRC32 isinya, lalu panjangnya (ditulis terakhir).
+     */
+    private void commit(int length) {
+        buffer.putInt(writePosition + 4, crc(buffer.slice(writePosition + HEADER_SIZE, length)));
+        buffer.putInt(writePosition, length);
+        writePosition += HEADER_SIZE + length;
+    }
+
+    /**
+     * Memaksa isi log yang dipetakan ditulis ke disk.
+     */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    /**
+     * Menulis isi log ke disk dan menutup file.
+     */
+    public synchronized void close() throws SQLException {
+        buffer.force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new SQLException("Error closing move log " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeString(ByteBuffer record, byte[] bytes) {
+        record.putShort((short) bytes.length);
+        record.put(bytes);
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort() & 0xFFFF];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    public int getLogSize() { return writePosition; } // Mengembalikan ukuran log yang terpakai (byte)
+}
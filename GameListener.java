@@ -0,0 +1,23 @@
+// package GameListener; // Asumsi paket jika tidak ada di file.
+
+/**
+ * Interface GameListener menerima kejadian dari GameLogic.
+ * GameLogic tidak bergantung pada Swing; tampilan (GamePanel) maupun simulasi tanpa layar
+ * berlangganan lewat interface ini dan hanya mengimplementasikan kejadian yang dibutuhkan.
+ */
+public interface GameListener {
+    /**
+     * Dipanggil setelah papan dikosongkan dan game baru dimulai dalam mode yang diberikan.
+     */
+    default void onNewGame(GameLogic.GameMode mode) {}
+
+    /**
+     * Dipanggil setelah sebuah langkah diterapkan lewat GameLogic.playMove().
+     */
+    default void onMovePlayed(Seed player, int row, int col, State newState) {}
+
+    /**
+     * Dipanggil setiap kali skor berubah (game dimenangkan atau skor direset).
+     */
+    default void onScoreChanged(int xScore, int oScore) {}
+}
@@ -1,9 +1,15 @@
 // package GameLogic; // Asumsi paket jika tidak ada di file.
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Kelas GameLogic adalah inti dari permainan Tic-Tac-Toe.
  * Ini mengelola state papan, pemain saat ini, state game (bermain, seri, menang),
  * skor, dan mode permainan (vs AI atau multiplayer).
+ * GameLogic tidak bergantung pada Swing: perubahan diumumkan lewat GameListener, sehingga
+ * aturan, state, dan penerapan langkah juga dapat dipakai tanpa layar (java.awt.headless=true),
+ * misalnya oleh GameSimulator.
  */
 public class GameLogic {
     /**
@@ -29,20 +35,20 @@ public class GameLogic {
     private String opponentUsername; // Username lawan dalam multiplayer
     private Seed playerSeed;        // Simbol (Seed) yang dipilih oleh pemain lokal (dalam VS AI)
     private Seed aiSeed;            // Simbol (Seed) yang dipilih oleh AI (dalam VS AI)
+    private int boardRows = Board.DEFAULT_ROWS;           // Jumlah baris papan
+    private int boardCols = Board.DEFAULT_COLS;           // Jumlah kolom papan
+    private int winLength = Board.DEFAULT_WIN_LENGTH;     // Jumlah bidak berurutan untuk menang
 
-    // Referensi ke objek UI dan Panel untuk pembaruan tampilan
-    private final GameUI gameUI;
-    private final GamePanel gamePanel;
+    // Pendengar kejadian game (misalnya GamePanel untuk pembaruan tampilan)
+    private final List<GameListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Konstruktor untuk GameLogic.
-     * Menginisialisasi objek GameLogic dengan username pemain yang login
-     * dan referensi ke objek GameUI dan GamePanel.
+     * Menginisialisasi objek GameLogic dengan username pemain yang login.
+     * Tampilan berlangganan kejadian game lewat addGameListener().
      */
-    public GameLogic(String username, GameUI gameUI, GamePanel gamePanel) {
+    public GameLogic(String username) {
         this.loggedInUsername = username;
-        this.gameUI = gameUI;
-        this.gamePanel = gamePanel;
         this.xScore = 0; // Inisialisasi skor X
         this.oScore = 0; // Inisialisasi skor O
         this.isMyTurn = false; // Awalnya bukan giliran pemain
@@ -53,7 +59,31 @@ public class GameLogic {
      * Metode ini dipanggil sekali saat setup game awal.
      */
     public void initGame() {
-        board = new Board(); // Membuat instance baru dari papan permainan
+        board = new Board(boardRows, boardCols, winLength); // Membuat instance baru dari papan permainan
+    }
+
+    /**
+     * Mengatur ukuran papan (rows x cols) dan jumlah bidak berurutan untuk menang.
+     * Berlaku saat initGame() berikutnya dipanggil.
+     */
+    public void setBoardSize(int rows, int cols, int winLength) {
+        this.boardRows = rows;
+        this.boardCols = cols;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Mendaftarkan pendengar kejadian game.
+     */
+    public void addGameListener(GameListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Menghapus pendengar kejadian game.
+     */
+    public void removeGameListener(GameListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -65,22 +95,28 @@ public class GameLogic {
         currentState = State.PLAYING; // Mengatur state game ke BERMAIN
         currentPlayer = Seed.CROSS; // Pemain CROSS (X) memulai duluan
         isMyTurn = false; // Awalnya bukan giliran pemain (akan diatur oleh AIManager/MultiplayerManager)
-        gameUI.updateScoreLabel(); // Memperbarui tampilan skor di UI
-        gameUI.updatePlayerNameLabels(); // Memperbarui tampilan nama pemain di UI
-        gameUI.updateActionButtonsVisibility(false); // Menyembunyikan tombol aksi ("Play Again", "Reset Score")
-        gamePanel.revalidate(); // Memvalidasi ulang layout panel
-        gamePanel.repaint(); // Menggambar ulang panel
-        System.out.println("New game started, action buttons hidden"); // Log ke konsol
-
-        // Menampilkan panel yang relevan berdasarkan mode game
-        if (gameMode == GameMode.VS_AI) {
-            gameUI.showFirstTurnPanelForVsAI(); // Menampilkan panel pilihan giliran pertama untuk VS AI
-        } else if (gameMode == GameMode.MULTIPLAYER) {
-            // Untuk multiplayer, status bar akan diatur oleh MultiplayerManager
-            gameUI.setStatusText("Welcome, " + loggedInUsername + "! Please select a game mode.");
+        for (GameListener listener : listeners) {
+            listener.onNewGame(gameMode); // Tampilan memperbarui label, tombol, dan panel
         }
     }
 
+    /**
+     * Menerapkan langkah player pada sel (row, col), memperbarui state game dan pemain berikutnya,
+     * lalu mengumumkannya ke pendengar. Mengembalikan state game yang baru.
+     * Melempar IllegalArgumentException jika sel di luar papan atau sudah terisi.
+     */
+    public State playMove(Seed player, int row, int col) {
+        if (!board.isInside(row, col) || !board.isEmpty(row, col)) {
+            throw new IllegalArgumentException("Invalid move: row=" + row + ", col=" + col);
+        }
+        currentState = board.stepGame(player, row, col);
+        currentPlayer = (player == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        for (GameListener listener : listeners) {
+            listener.onMovePlayed(player, row, col, currentState);
+        }
+        return currentState;
+    }
+
     /**
      * Memperbarui skor berdasarkan pemenang game.
      * Dipanggil saat game berakhir dengan kemenangan.
@@ -91,7 +127,7 @@ public class GameLogic {
         } else if (currentState == State.NOUGHT_WON) {
             oScore++; // Menambahkan skor untuk O jika O menang
         }
-        gameUI.updateScoreLabel(); // Memperbarui tampilan skor di UI
+        fireScoreChanged(); // Memperbarui tampilan skor
         System.out.println("Score updated: X=" + xScore + ", O=" + oScore); // Log skor
     }
 
@@ -102,10 +138,16 @@ public class GameLogic {
         xScore = 0; // Reset skor X
         oScore = 0; // Reset skor O
         newGame(); // Memulai game baru setelah skor direset
-        gameUI.updateScoreLabel(); // Memperbarui tampilan skor di UI
+        fireScoreChanged(); // Memperbarui tampilan skor
         System.out.println("Scores reset and new game started"); // Log
     }
 
+    private void fireScoreChanged() {
+        for (GameListener listener : listeners) {
+            listener.onScoreChanged(xScore, oScore);
+        }
+    }
+
     // --- Getters dan Setters untuk atribut-atribut GameLogic ---
 
     public Board getBoard() { return board; } // Mengembalikan objek papan
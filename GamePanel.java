@@ -9,9 +9,10 @@ import java.net.URL;
  * Kelas GamePanel adalah panel GUI utama untuk game Tic-Tac-Toe.
  * Ini berfungsi sebagai kontainer untuk semua komponen UI lainnya (GameUI)
  * dan juga menangani interaksi pengguna langsung dengan papan permainan (klik mouse).
- * Ini adalah jembatan antara tampilan grafis (GUI) dan logika game.
+ * Ini adalah jembatan antara tampilan grafis (GUI) dan logika game:
+ * GamePanel berlangganan kejadian GameLogic sebagai GameListener dan memperbarui tampilan di EDT.
  */
-public class GamePanel extends JPanel {
+public class GamePanel extends JPanel implements GameListener {
     private static final long serialVersionUID = 1L; // Untuk menghindari peringatan serializable
 
     // Konstanta untuk judul jendela dan warna status bar
@@ -30,9 +31,20 @@ public class GamePanel extends JPanel {
      * Menginisialisasi semua objek manajer game dan menyiapkan tampilan panel.
      */
     public GamePanel(String username) {
+        this(username, Board.DEFAULT_ROWS, Board.DEFAULT_COLS, Board.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Konstruktor untuk GamePanel dengan ukuran papan yang ditentukan
+     * (rows x cols, menang dengan winLength bidak berurutan).
+     */
+    public GamePanel(String username, int rows, int cols, int winLength) {
         // Inisialisasi objek-objek manajer game
         gameUI = new GameUI();
-        gameLogic = new GameLogic(username, gameUI, this); // Meneruskan gameUI dan GamePanel ke GameLogic
+        gameLogic = new GameLogic(username); // Inti game tanpa Swing
+        gameLogic.addGameListener(this); // Panel ini memperbarui tampilan saat ada kejadian game
+        gameLogic.setBoardSize(rows, cols, winLength); // Mengatur ukuran papan sebelum papan dibuat
+        gameLogic.initGame(); // Membuat papan sekarang agar ukuran panel bisa dihitung dari papan
         gameUI.setGameLogic(gameLogic); // Mengatur GameLogic di GameUI
         multiplayerManager = new MultiplayerManager(gameLogic, gameUI, this); // Meneruskan objek yang diperlukan
         aiManager = new AIManager(gameLogic, gameUI, this); // Meneruskan objek yang diperlukan
@@ -53,7 +65,8 @@ public class GamePanel extends JPanel {
 
         // Mengatur tata letak dan properti panel utama
         super.setLayout(new BorderLayout()); // Menggunakan BorderLayout
-        super.setPreferredSize(new Dimension(Board.CANVAS_WIDTH + 300, Board.CANVAS_HEIGHT + 300)); // Ukuran preferensi
+        Board board = gameLogic.getBoard();
+        super.setPreferredSize(new Dimension(board.getCanvasWidth() + 300, board.getCanvasHeight() + 300)); // Ukuran preferensi
         super.setBorder(BorderFactory.createLineBorder(COLOR_BG_STATUS, 2, false)); // Border di sekitar panel
         super.setOpaque(false); // Mengatur panel tidak opak agar gambar latar belakang terlihat
 
@@ -67,11 +80,98 @@ public class GamePanel extends JPanel {
         // Menambahkan action listeners untuk semua tombol UI
         addListeners();
 
-        // Menginisialisasi dan memulai game baru melalui GameLogic
-        gameLogic.initGame();
+        // Memulai game baru melalui GameLogic
         gameLogic.newGame();
     }
 
+    /**
+     * Dipanggil oleh GameLogic saat game baru dimulai: membatalkan pencarian AI yang masih berjalan
+     * dan mengatur ulang tampilan sesuai mode game.
+     */
+    @Override
+    public void onNewGame(GameLogic.GameMode mode) {
+        aiManager.cancelPendingMove(); // Hasil pencarian AI dari game sebelumnya tidak boleh diterapkan
+        gameUI.updateScoreLabel(); // Memperbarui tampilan skor di UI
+        gameUI.updatePlayerNameLabels(); // Memperbarui tampilan nama pemain di UI
+        gameUI.updateActionButtonsVisibility(false); // Menyembunyikan tombol aksi ("Play Again", "Reset Score")
+        revalidate(); // Memvalidasi ulang layout panel
+        repaint(); // Menggambar ulang panel
+        System.out.println("New game started, action buttons hidden"); // Log ke konsol
+
+        // Menampilkan panel yang relevan berdasarkan mode game
+        if (mode == GameLogic.GameMode.VS_AI) {
+            gameUI.showFirstTurnPanelForVsAI(); // Menampilkan panel pilihan giliran pertama untuk VS AI
+        } else if (mode == GameLogic.GameMode.MULTIPLAYER) {
+            // Untuk multiplayer, status bar akan diatur oleh MultiplayerManager
+            gameUI.setStatusText("Welcome, " + gameLogic.getLoggedInUsername() + "! Please select a game mode.");
+        }
+    }
+
+    /**
+     * Dipanggil oleh GameLogic saat skor berubah.
+     */
+    @Override
+    public void onScoreChanged(int xScore, int oScore) {
+        gameUI.updateScoreLabel();
+    }
+
+    /**
+     * Mengatur batas waktu berpikir AI per langkah (milidetik) untuk mode VS AI.
+     */
+    public void setAiTimeBudgetMillis(long millis) {
+        aiManager.setAiTimeBudgetMillis(millis);
+    }
+
+    /**
+     * Mengatur strategi AI (mesin) untuk mode VS AI, berlaku mulai game berikutnya.
+     */
+    public void setAiStrategy(TicTacToeAI.Strategy strategy) {
+        aiManager.setAiStrategy(strategy);
+    }
+
+    /**
+     * Mengaktifkan atau menonaktifkan pondering AI selama giliran pemain untuk mode VS AI.
+     */
+    public void setAiPondering(boolean enabled) {
+        aiManager.setAiPondering(enabled);
+    }
+
+    /**
+     * Mengatur tempat penyimpanan langkah untuk mode multiplayer.
+     */
+    public void setMoveStore(MoveStore moveStore) {
+        multiplayerManager.setMoveStore(moveStore);
+    }
+
+    /**
+     * Mengatur journal lokal untuk langkah multiplayer yang dikirim (null untuk menonaktifkan).
+     */
+    public void setMoveJournal(MoveJournal moveJournal) {
+        multiplayerManager.setMoveJournal(moveJournal);
+    }
+
+    /**
+     * Mengatur relay untuk menerima langkah multiplayer tanpa polling cepat (null untuk polling database).
+     */
+    public void setRelayClient(RelayClient relayClient) {
+        multiplayerManager.setRelayClient(relayClient);
+    }
+
+    /**
+     * Mengatur leaderboard: hasil game multiplayer dicatat di sana dan ditampilkan di bawah skor.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        multiplayerManager.setLeaderboard(leaderboard);
+        gameUI.setLeaderboard(leaderboard);
+    }
+
+    /**
+     * Mengatur jumlah thread pencarian AI untuk mode VS AI.
+     */
+    public void setAiSearchThreads(int threads) {
+        aiManager.setAiSearchThreads(threads);
+    }
+
     /**
      * Menambahkan action listeners ke semua tombol UI yang dikelola oleh GameUI.
      * Listener ini memicu aksi yang sesuai di GameLogic, AIManager, atau MultiplayerManager.
@@ -144,24 +244,24 @@ public class GamePanel extends JPanel {
         int mouseY = e.getY(); // Koordinat Y klik mouse
 
         // Menghitung area papan game di dalam panel
-        int boardStartX = (getWidth() - Board.CANVAS_WIDTH) / 2;
-        int boardStartY = (getHeight() - Board.CANVAS_HEIGHT) / 2;
-        int boardEndX = boardStartX + Board.CANVAS_WIDTH;
-        int boardEndY = boardStartY + Board.CANVAS_HEIGHT;
+        Board board = gameLogic.getBoard();
+        int boardStartX = (getWidth() - board.getCanvasWidth()) / 2;
+        int boardStartY = (getHeight() - board.getCanvasHeight()) / 2;
+        int boardEndX = boardStartX + board.getCanvasWidth();
+        int boardEndY = boardStartY + board.getCanvasHeight();
 
         // Memeriksa apakah klik mouse berada di dalam area papan game
         if (mouseX >= boardStartX && mouseX < boardEndX &&
                 mouseY >= boardStartY && mouseY < boardEndY) {
 
             // Menghitung baris dan kolom sel yang diklik
-            int row = (mouseY - boardStartY) / Cell.SIZE;
-            int col = (mouseX - boardStartX) / Cell.SIZE;
+            int row = (mouseY - boardStartY) / board.getCellSize();
+            int col = (mouseX - boardStartX) / board.getCellSize();
 
             // Memproses klik berdasarkan state game dan giliran pemain
             if (gameLogic.getCurrentState() == State.PLAYING && gameLogic.isMyTurn()) {
                 // Memeriksa apakah sel yang diklik valid (di dalam batas dan kosong)
-                if (row >= 0 && row < Board.ROWS && col >= 0 && col < Board.COLS
-                        && gameLogic.getBoard().cells[row][col].content == Seed.NO_SEED) {
+                if (board.isInside(row, col) && board.isEmpty(row, col)) {
                     // Memanggil manajer yang sesuai berdasarkan mode game
                     if (gameLogic.getGameMode() == GameLogic.GameMode.VS_AI) {
                         aiManager.makeMove(row, col); // Memicu langkah pemain di mode VS AI
@@ -201,10 +301,11 @@ public class GamePanel extends JPanel {
         // Menggambar papan game jika mode game sudah dipilih
         if (gameLogic.getGameMode() != null) {
             // Menghitung posisi awal papan agar terpusat
-            int boardStartX = (getWidth() - Board.CANVAS_WIDTH) / 2;
-            int boardStartY = (getHeight() - Board.CANVAS_HEIGHT) / 2;
+            Board board = gameLogic.getBoard();
+            int boardStartX = (getWidth() - board.getCanvasWidth()) / 2;
+            int boardStartY = (getHeight() - board.getCanvasHeight()) / 2;
             g.translate(boardStartX, boardStartY); // Menggeser koordinat untuk menggambar papan
-            gameLogic.getBoard().paint(g); // Meminta papan game untuk menggambar dirinya
+            board.paint(g); // Meminta papan game untuk menggambar dirinya
             g.translate(-boardStartX, -boardStartY); // Mengembalikan translasi koordinat
         }
 
@@ -0,0 +1,160 @@
+// package GameSimulator; // Asumsi paket jika tidak ada di file.
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kelas GameSimulator menjalankan banyak game AI melawan AI tanpa layar (java.awt.headless=true),
+ * memakai inti game yang sama dengan aplikasi (GameLogic, Board, TicTacToeAI) tanpa Swing.
+ * Cocok untuk CI atau server: membandingkan mesin AI per ukuran papan dan mengukur throughput.
+ *
+ * Contoh: java -Djava.awt.headless=true GameSimulator -games 100000 -x heuristic -o perfect
+ * Argumen: -games N, -rows R, -cols C, -win K, -x STRATEGI, -o STRATEGI,
+ *          -aitime MS (batas waktu per langkah untuk SEARCH/MCTS), -threads T (game paralel).
+ */
+public class GameSimulator {
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final TicTacToeAI.Strategy crossStrategy;
+    private final TicTacToeAI.Strategy noughtStrategy;
+    private final long aiTimeMillis;
+
+    // Hasil simulasi (dijumlahkan dari semua thread)
+    private final AtomicLong crossWins = new AtomicLong();
+    private final AtomicLong noughtWins = new AtomicLong();
+    private final AtomicLong draws = new AtomicLong();
+    private final AtomicLong totalMoves = new AtomicLong();
+
+    /**
+     * Konstruktor untuk GameSimulator dengan ukuran papan dan strategi AI untuk X dan O.
+     */
+    public GameSimulator(int rows, int cols, int winLength, TicTacToeAI.Strategy crossStrategy,
+                         TicTacToeAI.Strategy noughtStrategy, long aiTimeMillis) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+        this.crossStrategy = crossStrategy;
+        this.noughtStrategy = noughtStrategy;
+        this.aiTimeMillis = aiTimeMillis;
+    }
+
+    /**
+     * Menjalankan sejumlah game dan menjumlahkan hasilnya. Setiap worker memakai GameLogic dan AI sendiri.
+     */
+    public void run(long games, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long share = games / threads + (t < games % threads ? 1 : 0); // Jumlah game untuk worker ini
+            futures.add(executor.submit(() -> playGames(share)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Memainkan sejumlah game berturut-turut pada satu GameLogic.
+     */
+    private void playGames(long games) {
+        GameLogic gameLogic = new GameLogic("simulator");
+        gameLogic.setBoardSize(rows, cols, winLength);
+        gameLogic.initGame();
+        TicTacToeAI crossAi = newAi(crossStrategy);
+        TicTacToeAI noughtAi = newAi(noughtStrategy);
+
+        for (long g = 0; g < games; g++) {
+            gameLogic.newGame();
+            State state = State.PLAYING;
+            int moves = 0;
+            while (state == State.PLAYING) {
+                Seed player = gameLogic.getCurrentPlayer();
+                TicTacToeAI ai = (player == Seed.CROSS) ? crossAi : noughtAi;
+                int idx = ai.findBestMoveIndex(gameLogic.getBoard(), player);
+                state = gameLogic.playMove(player, idx / cols, idx % cols);
+                moves++;
+            }
+            totalMoves.addAndGet(moves);
+            if (state == State.CROSS_WON) {
+                crossWins.incrementAndGet();
+            } else if (state == State.NOUGHT_WON) {
+                noughtWins.incrementAndGet();
+            } else {
+                draws.incrementAndGet();
+            }
+        }
+    }
+
+    private TicTacToeAI newAi(TicTacToeAI.Strategy strategy) {
+        TicTacToeAI ai = new TicTacToeAI(strategy);
+        ai.setTimeBudgetMillis(aiTimeMillis);
+        ai.setSearchThreads(1); // Paralelisme ada di tingkat game, bukan di dalam pencarian
+        ai.setVerbose(false);
+        return ai;
+    }
+
+    public long getCrossWins() { return crossWins.get(); } // Mengembalikan jumlah kemenangan X
+    public long getNoughtWins() { return noughtWins.get(); } // Mengembalikan jumlah kemenangan O
+    public long getDraws() { return draws.get(); } // Mengembalikan jumlah seri
+    public long getTotalMoves() { return totalMoves.get(); } // Mengembalikan jumlah langkah semua game
+
+    /**
+     * Titik masuk simulasi dari baris perintah.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long games = 10_000;
+        int rows = Board.DEFAULT_ROWS;
+        int cols = Board.DEFAULT_COLS;
+        int winLength = Board.DEFAULT_WIN_LENGTH;
+        TicTacToeAI.Strategy cross = TicTacToeAI.Strategy.HEURISTIC;
+        TicTacToeAI.Strategy nought = TicTacToeAI.Strategy.HEURISTIC;
+        long aiTimeMillis = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i + 1 < args.length; i++) {
+            try {
+                switch (args[i].toLowerCase(Locale.ROOT)) {
+                    case "-games": games = Long.parseLong(args[++i]); break;
+                    case "-rows": rows = Integer.parseInt(args[++i]); break;
+                    case "-cols": cols = Integer.parseInt(args[++i]); break;
+                    case "-win": winLength = Integer.parseInt(args[++i]); break;
+                    case "-x": cross = TicTacToeAI.Strategy.valueOf(args[++i].toUpperCase(Locale.ROOT)); break;
+                    case "-o": nought = TicTacToeAI.Strategy.valueOf(args[++i].toUpperCase(Locale.ROOT)); break;
+                    case "-aitime": aiTimeMillis = Long.parseLong(args[++i]); break;
+                    case "-threads": threads = Math.max(1, Integer.parseInt(args[++i])); break;
+                }
+            } catch (IllegalArgumentException e) { // Termasuk NumberFormatException
+                System.out.println("Invalid command line argument: " + args[i]);
+            }
+        }
+
+        GameSimulator simulator = new GameSimulator(rows, cols, winLength, cross, nought, aiTimeMillis);
+        long start = System.nanoTime();
+        simulator.run(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("GameSimulator: " + games + " games on " + rows + "x" + cols + " (k=" + winLength
+                + "), X=" + cross + " vs O=" + nought + ", " + threads + " threads");
+        System.out.println("  X wins: " + simulator.getCrossWins() + ", O wins: " + simulator.getNoughtWins()
+                + ", draws: " + simulator.getDraws());
+        System.out.printf(Locale.ROOT, "  Average game length: %.2f moves%n",
+                games > 0 ? (double) simulator.getTotalMoves() / games : 0.0);
+        System.out.printf(Locale.ROOT, "  %.1f s, %.0f games/minute%n", seconds, games / seconds * 60.0);
+    }
+}
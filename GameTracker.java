@@ -0,0 +1,270 @@
+// package GameTracker; // Asumsi paket jika tidak ada di file.
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kelas GameTracker mengikuti banyak game multiplayer sekaligus (misalnya game yang ditonton),
+ * masing-masing dengan Board, nomor langkah terakhir yang diketahui, dan state sendiri.
+ * MultiplayerManager mengambil langkah baru untuk semua game dengan satu panggilan
+ * MoveStore.fetchMovesForGames(getLastMoveNumbers()), lalu hasilnya dibagi ke papan masing-masing
+ * lewat apply(). Game yang sudah selesai dan diarsipkan tidak lagi punya langkah live, sehingga game
+ * yang tidak mendapat langkah baru diperiksa di arsip (paling sering sekali per ARCHIVE_CHECK_INTERVAL_MILLIS)
+ * lewat takeArchiveChecks() dan applyArchive(). Snapshot dari relay (setelah berlangganan atau setelah
+ * celah nomor langkah) diterapkan lewat applySnapshot(). Hanya diakses dari EDT.
+ */
+public class GameTracker {
+    public static final long ARCHIVE_CHECK_INTERVAL_MILLIS = 5_000; // Jeda minimum pemeriksaan arsip per game
+
+    /**
+     * State satu game yang diikuti.
+     */
+    public static final class TrackedGame {
+        private final String gameId;
+        private final Board board;
+        private int lastMoveNumber; // Nomor langkah terakhir yang sudah diterapkan ke papan
+        private State state = State.PLAYING;
+        private long lastArchiveCheckMillis; // 0 = belum pernah diperiksa, sehingga pemeriksaan pertama langsung
+
+        TrackedGame(String gameId, Board board) {
+            this.gameId = gameId;
+            this.board = board;
+        }
+
+        public String getGameId() { return gameId; } // Mengembalikan ID game
+        public Board getBoard() { return board; } // Mengembalikan papan game
+        public int getLastMoveNumber() { return lastMoveNumber; } // Mengembalikan nomor langkah terakhir yang diterapkan
+        public State getState() { return state; } // Mengembalikan state game
+    }
+
+    private final int rows;
+    private final int cols;
+    private final int winLength;
+    private final Map<String, TrackedGame> games = new LinkedHashMap<>(); // Urut menurut penambahan
+    private Runnable changeListener = () -> { };
+
+    /**
+     * Konstruktor untuk GameTracker; setiap game diikuti dengan papan rows x cols dan k = winLength.
+     */
+    public GameTracker(int rows, int cols, int winLength) {
+        this.rows = rows;
+        this.cols = cols;
+        this.winLength = winLength;
+    }
+
+    /**
+     * Mengatur pendengar yang dipanggil setiap kali daftar game atau papannya berubah.
+     */
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Mulai mengikuti game gameId dengan papan kosong. Mengembalikan false jika game sudah diikuti.
+     */
+    public boolean track(String gameId) {
+        if (gameId == null || gameId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Game ID cannot be empty");
+        }
+        if (games.containsKey(gameId)) {
+            return false;
+        }
+        games.put(gameId, new TrackedGame(gameId, new Board(rows, cols, winLength)));
+        changeListener.run();
+        return true;
+    }
+
+    /**
+     * Berhenti mengikuti game gameId.
+     */
+    public void untrack(String gameId) {
+        if (games.remove(gameId) != null) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Berhenti mengikuti semua game.
+     */
+    public void clear() {
+        if (!games.isEmpty()) {
+            games.clear();
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Mengembalikan nomor langkah terakhir setiap game yang masih berjalan (batas untuk fetchMovesForGames).
+     */
+    public Map<String, Integer> getLastMoveNumbers() {
+        Map<String, Integer> lastMoveNumbers = new LinkedHashMap<>();
+        for (TrackedGame game : games.values()) {
+            if (game.state == State.PLAYING) {
+                lastMoveNumbers.put(game.gameId, game.lastMoveNumber);
+            }
+        }
+        return lastMoveNumbers;
+    }
+
+    /**
+     * Menerapkan langkah baru hasil fetchMovesForGames ke papan game masing-masing. Game yang tidak
+     * diikuti diabaikan; langkah yang sudah diketahui dilewati, dan penerapan berhenti di celah nomor
+     * langkah (sisanya terbaca lagi pada pengambilan berikutnya). Mengembalikan true jika ada papan yang berubah.
+     */
+    public boolean apply(Map<String, List<DatabaseManager.Move>> movesByGame) {
+        boolean changed = false;
+        for (Map.Entry<String, List<DatabaseManager.Move>> entry : movesByGame.entrySet()) {
+            TrackedGame game = games.get(entry.getKey());
+            if (game != null) {
+                changed |= apply(game, entry.getValue());
+            }
+        }
+        if (changed) {
+            changeListener.run();
+        }
+        return changed;
+    }
+
+    private static boolean apply(TrackedGame game, List<DatabaseManager.Move> moves) {
+        boolean changed = false;
+        for (DatabaseManager.Move move : moves) {
+            if (game.state != State.PLAYING) {
+                break; // Game berakhir, langkah sisanya diabaikan
+            }
+            if (move.moveNumber <= game.lastMoveNumber) {
+                continue; // Sudah diterapkan
+            }
+            if (move.moveNumber != game.lastMoveNumber + 1) {
+                break; // Ada langkah yang terlewat
+            }
+            game.lastMoveNumber = move.moveNumber;
+            if (!game.board.isInside(move.row, move.col) || !game.board.isEmpty(move.row, move.col)) {
+                System.err.println("GameTracker: Move cannot be applied to the tracked board: " + move);
+                continue;
+            }
+            Seed seed = move.playerSeed.equals("X") ? Seed.CROSS : Seed.NOUGHT;
+            game.state = game.board.stepGame(seed, move.row, move.col);
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Mengembalikan ID game yang masih berjalan, tidak ada di gamesWithMoves (tidak mendapat langkah baru),
+     * dan sudah ARCHIVE_CHECK_INTERVAL_MILLIS tidak diperiksa di arsip; game tersebut ditandai sudah diperiksa.
+     */
+    public List<String> takeArchiveChecks(Set<String> gamesWithMoves, long nowMillis) {
+        List<String> gameIds = new ArrayList<>();
+        for (TrackedGame game : games.values()) {
+            if (game.state == State.PLAYING && !gamesWithMoves.contains(game.gameId)
+                    && nowMillis - game.lastArchiveCheckMillis >= ARCHIVE_CHECK_INTERVAL_MILLIS) {
+                game.lastArchiveCheckMillis = nowMillis;
+                gameIds.add(game.gameId);
+            }
+        }
+        return gameIds;
+    }
+
+    /**
+     * Menerapkan arsip game yang diikuti: langkah yang belum terlihat diputar ulang ke papannya, lalu game
+     * ditandai selesai dengan hasil arsip, sehingga tidak lagi ikut polling. Mengembalikan true jika game berubah.
+     */
+    public boolean applyArchive(ArchivedGame archived) {
+        TrackedGame game = games.get(archived.getGameId());
+        if (game == null || game.state != State.PLAYING) {
+            return false;
+        }
+        apply(game, archived.toMoves());
+        game.lastMoveNumber = Math.max(game.lastMoveNumber, archived.getMoveCount());
+        game.state = archived.getResult();
+        changeListener.run();
+        return true;
+    }
+
+    /**
+     * Menerapkan snapshot game yang diikuti: sel yang belum ada di papan diputar ulang sebagai langkah
+     * lastMoveNumber+1..moveNumber (lihat snapshotMoves). Snapshot yang tidak lebih baru atau tidak sesuai
+     * dengan papan diabaikan. Mengembalikan true jika papan berubah.
+     */
+    public boolean applySnapshot(String gameId, int moveNumber, Board snapshot) {
+        TrackedGame game = games.get(gameId);
+        if (game == null || game.state != State.PLAYING) {
+            return false;
+        }
+        List<DatabaseManager.Move> moves = snapshotMoves(gameId, game.board, game.lastMoveNumber, moveNumber, snapshot);
+        if (moves == null || !apply(game, moves)) {
+            return false;
+        }
+        changeListener.run();
+        return true;
+    }
+
+    /**
+     * Menyusun langkah lastMoveNumber+1..moveNumber dari snapshot: sel snapshot yang masih kosong di board,
+     * dinomori menurut simbolnya (X ganjil, O genap). Urutan langkah dengan simbol yang sama tidak terbaca
+     * dari snapshot, tetapi posisi akhirnya sama. Mengembalikan null jika snapshot tidak lebih baru,
+     * board berisi sel yang berbeda dari snapshot, atau jumlah sel baru tidak cocok dengan nomor langkah.
+     */
+    public static List<DatabaseManager.Move> snapshotMoves(String gameId, Board board, int lastMoveNumber,
+                                                           int moveNumber, Board snapshot) {
+        if (moveNumber <= lastMoveNumber || snapshot.getRows() != board.getRows() || snapshot.getCols() != board.getCols()) {
+            return null;
+        }
+        List<int[]> crosses = new ArrayList<>();
+        List<int[]> noughts = new ArrayList<>();
+        for (int row = 0; row < board.getRows(); row++) {
+            for (int col = 0; col < board.getCols(); col++) {
+                Seed local = board.getContent(row, col);
+                Seed remote = snapshot.getContent(row, col);
+                if (local == remote) {
+                    continue;
+                }
+                if (local != Seed.NO_SEED) {
+                    return null; // Snapshot game lain atau yang lebih lama dari papan ini
+                }
+                (remote == Seed.CROSS ? crosses : noughts).add(new int[] {row, col});
+            }
+        }
+        List<DatabaseManager.Move> moves = new ArrayList<>(moveNumber - lastMoveNumber);
+        int nextCross = 0;
+        int nextNought = 0;
+        for (int number = lastMoveNumber + 1; number <= moveNumber; number++) {
+            int[] cell;
+            if (number % 2 == 1) {
+                if (nextCross == crosses.size()) {
+                    return null;
+                }
+                cell = crosses.get(nextCross++);
+            } else {
+                if (nextNought == noughts.size()) {
+                    return null;
+                }
+                cell = noughts.get(nextNought++);
+            }
+            moves.add(new DatabaseManager.Move(gameId, number, "", GameWireCodec.seedForMoveNumber(number), cell[0], cell[1]));
+        }
+        return (nextCross == crosses.size() && nextNought == noughts.size()) ? moves : null;
+    }
+
+    /**
+     * Mengembalikan true jika ada game yang diikuti dan masih berjalan.
+     */
+    public boolean hasActiveGames() {
+        for (TrackedGame game : games.values()) {
+            if (game.state == State.PLAYING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getRows() { return rows; } // Mengembalikan jumlah baris papan game yang diikuti
+    public int getCols() { return cols; } // Mengembalikan jumlah kolom papan game yang diikuti
+    public int getWinLength() { return winLength; } // Mengembalikan k papan game yang diikuti
+    public boolean isTracked(String gameId) { return games.containsKey(gameId); } // Mengembalikan true jika game diikuti
+    public List<TrackedGame> getGames() { return new ArrayList<>(games.values()); } // Mengembalikan game yang diikuti, urut penambahan
+    public int size() { return games.size(); } // Mengembalikan jumlah game yang diikuti
+}
@@ -1,5 +1,6 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 /**
  * Kelas GameUI bertanggung jawab untuk mengatur dan mengelola semua elemen
@@ -14,6 +15,7 @@ public class GameUI {
     public static final Color COLOR_NOUGHT = new Color(50,205,50); // Hijau untuk O
     public static final Color COLOR_BG_STATUS = new Color(0, 0, 0, 255); // Hitam penuh untuk status bar
     public static final Font FONT_STATUS = new Font("OCR A Extended", Font.PLAIN, 14); // Font untuk status bar
+    private static final int LEADERBOARD_SIZE = 3; // Jumlah pengguna teratas yang ditampilkan
 
     // Referensi ke objek GameLogic untuk mendapatkan data game
     private GameLogic gameLogic;
@@ -24,6 +26,8 @@ public class GameUI {
     private JLabel playerXNameLabel;        // Label untuk nama pemain X
     private JLabel playerONameLabel;        // Label untuk nama pemain O
     private JLabel scoreLabel;              // Label untuk menampilkan skor
+    private JLabel leaderboardLabel;        // Label untuk menampilkan leaderboard (pengguna teratas dan rating sendiri)
+    private Leaderboard leaderboard;        // Sumber data leaderboard (boleh null)
     private JButton playVsComputerButton;   // Tombol untuk mode vs komputer
     private JButton playVsFriendButton;     // Tombol untuk mode vs teman (multiplayer)
     private JPanel modeButtonsPanel;        // Panel yang berisi tombol-tombol pilihan mode game
@@ -90,6 +94,12 @@ public class GameUI {
         playerNamesPanel.add(scoreLabel);
         playerNamesPanel.add(playerONameLabel);
 
+        // Label Leaderboard (diisi oleh updateScoreLabel jika Leaderboard diatur)
+        leaderboardLabel = new JLabel(" ");
+        leaderboardLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        leaderboardLabel.setForeground(Color.WHITE);
+        leaderboardLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
         // Panel Tombol Pilihan Mode Game
         modeButtonsPanel = new JPanel();
         modeButtonsPanel.setOpaque(false); // Transparan
@@ -111,6 +121,7 @@ public class GameUI {
         topPanel.add(titleLabel);
         topPanel.add(Box.createVerticalStrut(10)); // Jarak vertikal
         topPanel.add(playerNamesPanel);
+        topPanel.add(leaderboardLabel);
         topPanel.add(Box.createVerticalStrut(10)); // Jarak vertikal
         topPanel.add(modeButtonsPanel);
 
@@ -214,15 +225,52 @@ public class GameUI {
     }
 
     /**
-     * Memperbarui label skor di UI dengan nilai terbaru dari GameLogic.
-     * Pembaruan dilakukan di EDT untuk keamanan thread.
+     * Memperbarui label skor di UI dengan nilai terbaru dari GameLogic, beserta leaderboard jika ada.
+     * Leaderboard dibaca dari cache (tanpa query database); pembaruan dilakukan di EDT untuk keamanan thread.
      */
     public void updateScoreLabel() {
         if (gameLogic == null) {
             System.err.println("GameLogic is null in updateScoreLabel");
             return;
         }
-        SwingUtilities.invokeLater(() -> scoreLabel.setText(gameLogic.getXScore() + " | " + gameLogic.getOScore()));
+        String leaderboardText = (leaderboard != null) ? formatLeaderboard() : " ";
+        SwingUtilities.invokeLater(() -> {
+            scoreLabel.setText(gameLogic.getXScore() + " | " + gameLogic.getOScore());
+            leaderboardLabel.setText(leaderboardText);
+        });
+    }
+
+    /**
+     * Menyusun teks leaderboard: tiga pengguna teratas dan rating pengguna yang login.
+     */
+    private String formatLeaderboard() {
+        StringBuilder text = new StringBuilder("Top: ");
+        List<PlayerRating> top = leaderboard.getTopPlayers(LEADERBOARD_SIZE);
+        if (top.isEmpty()) {
+            text.append("-");
+        }
+        for (int i = 0; i < top.size(); i++) {
+            PlayerRating player = top.get(i);
+            text.append(i > 0 ? ", " : "").append(i + 1).append(". ").append(player.getUsername())
+                    .append(" ").append(Math.round(player.getRating()));
+        }
+        PlayerRating me = leaderboard.getPlayer(gameLogic.getLoggedInUsername());
+        if (me != null) {
+            text.append("   You: ").append(me);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Mengatur leaderboard yang ditampilkan di bawah skor. Label diperbarui otomatis setiap kali
+     * data leaderboard selesai dimuat ulang.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
+        if (leaderboard != null) {
+            leaderboard.addUpdateListener(this::updateScoreLabel);
+        }
+        updateScoreLabel();
     }
 
     /**
@@ -0,0 +1,260 @@
+// package GameWireCodec; // Asumsi paket jika tidak ada di file.
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Kelas GameWireCodec adalah codec biner ringkas untuk trafik game di jaringan (misalnya relay).
+ * Game tidak dikirim dengan ID string, tetapi dengan handle integer yang disepakati lebih dulu
+ * (varint, 1 byte untuk 128 game pertama). Langkah pada papan sampai 16x16 dikodekan dalam 1 byte
+ * (row << 4 | col), dan simbol pemain tidak dikirim karena ditentukan nomor langkah
+ * (langkah ganjil milik X, yang selalu memulai game).
+ * - Delta: handle, nomor langkah pertama, jumlah langkah, lalu 1 byte per langkah.
+ *   Satu langkah hanya butuh 3-4 byte (dibandingkan sekitar 25 byte dengan ID, username, dan simbol).
+ * - Snapshot: handle, jumlah langkah, rows, cols, lalu isi papan 2 bit per sel
+ *   (3 byte untuk 3x3, 64 byte untuk 16x16). RelayServer mengirimnya saat klien berlangganan dan
+ *   saat klien yang tertinggal meminta RESYNC, sehingga celah langkah tidak perlu dibaca dari MoveStore.
+ * Semua metode menulis dan membaca langsung di ByteBuffer milik pemanggil (tanpa array atau objek
+ * perantara), mulai dari posisinya dan memajukan posisinya. Data yang rusak dilaporkan sebagai
+ * IllegalArgumentException, buffer yang terlalu pendek sebagai BufferUnderflowException/BufferOverflowException.
+ */
+public final class GameWireCodec {
+    public static final int MAX_BOARD_SIZE = 16; // Baris dan kolom maksimum untuk langkah 1 byte
+    public static final int CELL_EMPTY = 0;      // Kode sel kosong di snapshot
+    public static final int CELL_CROSS = 1;      // Kode sel X di snapshot
+    public static final int CELL_NOUGHT = 2;     // Kode sel O di snapshot
+    private static final int MAX_VARINT_SIZE = 5; // Byte maksimum untuk int 32-bit
+
+    /**
+     * Penerima langkah hasil readDelta (dipanggil sekali per langkah, tanpa objek perantara).
+     */
+    public interface MoveSink {
+        void accept(int handle, int moveNumber, int row, int col);
+    }
+
+    /**
+     * Penerima snapshot hasil readSnapshot: diberi header, mengembalikan papan kosong berukuran rows x cols
+     * yang akan diisi.
+     */
+    public interface SnapshotSink {
+        Board begin(int handle, int moveNumber, int rows, int cols);
+    }
+
+    private GameWireCodec() {
+    }
+
+    /**
+     * Menulis value (tidak negatif) sebagai varint: 7 bit per byte, bit tertinggi menandai byte lanjutan.
+     */
+    public static void putVarint(ByteBuffer out, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Varint value must not be negative: " + value);
+        }
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * Membaca varint yang ditulis putVarint.
+     */
+    public static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 7 * MAX_VARINT_SIZE; shift += 7) {
+            byte b = in.get();
+            if (shift == 28 && (b & 0x7F) > 0x07) {
+                throw new IllegalArgumentException("Varint overflows int"); // Hanya 3 bit tersisa untuk int tidak negatif
+            }
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint longer than " + MAX_VARINT_SIZE + " bytes");
+    }
+
+    /**
+     * Mengembalikan jumlah byte varint untuk value (tidak negatif).
+     */
+    public static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Mengemas langkah (row, col) menjadi 1 byte: row di 4 bit atas, col di 4 bit bawah.
+     */
+    public static byte packMove(int row, int col) {
+        if (row < 0 || row >= MAX_BOARD_SIZE || col < 0 || col >= MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Move (" + row + ", " + col + ") does not fit in one byte");
+        }
+        return (byte) (row << 4 | col);
+    }
+
+    public static int moveRow(byte move) { return (move >> 4) & 0x0F; } // Mengembalikan baris dari langkah 1 byte
+    public static int moveCol(byte move) { return move & 0x0F; } // Mengembalikan kolom dari langkah 1 byte
+
+    /**
+     * Mengembalikan simbol pemain untuk nomor langkah: X untuk langkah ganjil, O untuk langkah genap.
+     */
+    public static String seedForMoveNumber(int moveNumber) {
+        return (moveNumber % 2 == 1) ? Seed.CROSS.getDisplayName() : Seed.NOUGHT.getDisplayName();
+    }
+
+    /**
+     * Mengembalikan ukuran delta untuk count langkah mulai dari firstMoveNumber.
+     */
+    public static int deltaSize(int handle, int firstMoveNumber, int count) {
+        return varintSize(handle) + varintSize(firstMoveNumber) + varintSize(count) + count;
+    }
+
+    /**
+     * Menulis delta berisi langkah-langkah moves, yang harus berurutan tanpa celah (misalnya hasil fetchMoves).
+     */
+    public static void putDelta(ByteBuffer out, int handle, List<DatabaseManager.Move> moves) {
+        if (moves.isEmpty()) {
+            throw new IllegalArgumentException("Delta must contain at least one move");
+        }
+        int firstMoveNumber = moves.get(0).moveNumber;
+        if (out.remaining() < deltaSize(handle, firstMoveNumber, moves.size())) {
+            throw new BufferOverflowException(); // Sebelum menulis apa pun, agar posisi tidak berubah
+        }
+        int start = out.position();
+        putVarint(out, handle);
+        putVarint(out, firstMoveNumber);
+        putVarint(out, moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            DatabaseManager.Move move = moves.get(i);
+            if (move.moveNumber != firstMoveNumber + i) {
+                out.position(start);
+                throw new IllegalArgumentException("Delta moves must be consecutive, got " + move.moveNumber
+                        + " after " + (firstMoveNumber + i - 1));
+            }
+            out.put(packMove(move.row, move.col));
+        }
+    }
+
+    /**
+     * Membaca satu delta dan memberikan setiap langkahnya ke sink. Mengembalikan jumlah langkah.
+     */
+    public static int readDelta(ByteBuffer in, MoveSink sink) {
+        int handle = getVarint(in);
+        int firstMoveNumber = getVarint(in);
+        int count = getVarint(in);
+        if (count > in.remaining()) {
+            throw new IllegalArgumentException("Delta declares " + count + " moves but only " + in.remaining() + " bytes remain");
+        }
+        for (int i = 0; i < count; i++) {
+            byte move = in.get();
+            sink.accept(handle, firstMoveNumber + i, moveRow(move), moveCol(move));
+        }
+        return count;
+    }
+
+    /**
+     * Mengembalikan ukuran snapshot papan rows x cols.
+     */
+    public static int snapshotSize(int handle, int moveNumber, int rows, int cols) {
+        return varintSize(handle) + varintSize(moveNumber) + 2 + (rows * cols + 3) / 4;
+    }
+
+    /**
+     * Menulis snapshot isi board setelah moveNumber langkah.
+     */
+    public static void putSnapshot(ByteBuffer out, int handle, int moveNumber, Board board) {
+        putSnapshot(out, handle, moveNumber, board.getRows(), board.getCols(), index -> {
+            Seed content = board.getContent(index / board.getCols(), index % board.getCols());
+            return (content == Seed.CROSS) ? CELL_CROSS : (content == Seed.NOUGHT) ? CELL_NOUGHT : CELL_EMPTY;
+        });
+    }
+
+    /**
+     * Menulis snapshot papan rows x cols yang isinya disimpan sebagai kode sel (CELL_*) per indeks
+     * row * cols + col, misalnya state game di RelayServer yang tidak memakai Board.
+     */
+    public static void putSnapshot(ByteBuffer out, int handle, int moveNumber, int rows, int cols, byte[] cells) {
+        if (cells.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + (rows * cols) + " cells, got " + cells.length);
+        }
+        putSnapshot(out, handle, moveNumber, rows, cols, index -> cells[index]);
+    }
+
+    private static void putSnapshot(ByteBuffer out, int handle, int moveNumber, int rows, int cols, IntUnaryOperator cellCode) {
+        if (rows < 1 || rows > MAX_BOARD_SIZE || cols < 1 || cols > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board " + rows + "x" + cols + " is too large for a snapshot");
+        }
+        if (out.remaining() < snapshotSize(handle, moveNumber, rows, cols)) {
+            throw new BufferOverflowException();
+        }
+        putVarint(out, handle);
+        putVarint(out, moveNumber);
+        out.put((byte) rows);
+        out.put((byte) cols);
+        int packed = 0;
+        int cellCount = rows * cols;
+        for (int cell = 0; cell < cellCount; cell++) {
+            packed |= cellCode.applyAsInt(cell) << ((cell & 3) * 2);
+            if ((cell & 3) == 3) {
+                out.put((byte) packed);
+                packed = 0;
+            }
+        }
+        if ((cellCount & 3) != 0) {
+            out.put((byte) packed); // Sisa sel di byte terakhir
+        }
+    }
+
+    /**
+     * Membaca snapshot ke papan dari sink (papan harus kosong dan berukuran sesuai header).
+     * Mengembalikan state papan hasil snapshot.
+     */
+    public static State readSnapshot(ByteBuffer in, SnapshotSink sink) {
+        int handle = getVarint(in);
+        int moveNumber = getVarint(in);
+        int rows = in.get() & 0xFF;
+        int cols = in.get() & 0xFF;
+        if (rows < 1 || rows > MAX_BOARD_SIZE || cols < 1 || cols > MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Invalid snapshot board size " + rows + "x" + cols);
+        }
+        if (in.remaining() < (rows * cols + 3) / 4) {
+            throw new IllegalArgumentException("Snapshot of " + rows + "x" + cols + " board is truncated");
+        }
+        Board board = sink.begin(handle, moveNumber, rows, cols);
+        if (board.getRows() != rows || board.getCols() != cols) {
+            throw new IllegalArgumentException("Snapshot is " + rows + "x" + cols + " but board is "
+                    + board.getRows() + "x" + board.getCols());
+        }
+        State state = State.PLAYING;
+        int packed = 0;
+        int cell = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if ((cell & 3) == 0) {
+                    packed = in.get() & 0xFF;
+                }
+                int code = (packed >> ((cell & 3) * 2)) & 3;
+                cell++;
+                if (code == CELL_EMPTY) {
+                    continue;
+                }
+                if (code != CELL_CROSS && code != CELL_NOUGHT) {
+                    throw new IllegalArgumentException("Invalid snapshot cell code " + code);
+                }
+                // Urutan pengisian bukan urutan permainan: kemenangan pertama yang terlihat tetap dipakai
+                State stepState = board.stepGame(code == CELL_CROSS ? Seed.CROSS : Seed.NOUGHT, row, col);
+                if (state == State.PLAYING || state == State.DRAW) {
+                    state = stepState;
+                }
+            }
+        }
+        return state;
+    }
+}
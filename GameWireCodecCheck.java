@@ -0,0 +1,222 @@
+// package GameWireCodecCheck; // Asumsi paket jika tidak ada di file.
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Kelas GameWireCodecCheck memeriksa round trip GameWireCodec tanpa layar dan tanpa database:
+ * varint di batas-batas ukurannya (termasuk penolakan overflow), semua 256 langkah 1 byte,
+ * delta acak dengan ukuran tepat deltaSize(), penolakan delta bercelah atau buffer yang terlalu kecil,
+ * dan snapshot papan acak (3x3 sampai 16x16) dengan ukuran tepat snapshotSize().
+ * Keluar dengan AssertionError pada pemeriksaan pertama yang gagal.
+ *
+ * Contoh: java -Djava.awt.headless=true GameWireCodecCheck [-deltas N] [-snapshots N] [-seed S]
+ */
+public class GameWireCodecCheck {
+    private static final int[][] SNAPSHOT_BOARDS = {{3, 3, 3}, {4, 7, 4}, {15, 15, 5}, {16, 16, 5}}; // rows, cols, k
+    private static final int[] VARINT_EDGES = {0, 1, 127, 128, 16383, 16384, (1 << 21) - 1, 1 << 21,
+            (1 << 28) - 1, 1 << 28, Integer.MAX_VALUE};
+
+    private GameWireCodecCheck() {
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Memeriksa varint di batas-batas ukurannya, lalu varint 5 byte yang melebihi int dan varint 6 byte.
+     */
+    static void checkVarints() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        for (int value : VARINT_EDGES) {
+            buffer.clear();
+            GameWireCodec.putVarint(buffer, value);
+            check(buffer.position() == GameWireCodec.varintSize(value), "Wrong varint size for " + value);
+            buffer.flip();
+            check(GameWireCodec.getVarint(buffer) == value, "Varint round trip failed for " + value);
+            check(!buffer.hasRemaining(), "Varint " + value + " left unread bytes");
+        }
+        expectRejected(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x08}); // 2^31
+        expectRejected(new byte[] {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x00});
+        try {
+            GameWireCodec.putVarint(ByteBuffer.allocate(8), -1);
+            check(false, "Negative varint was accepted");
+        } catch (IllegalArgumentException e) {
+            // Diharapkan
+        }
+    }
+
+    private static void expectRejected(byte[] encoded) {
+        try {
+            GameWireCodec.getVarint(ByteBuffer.wrap(encoded));
+            check(false, "Varint of " + encoded.length + " bytes was accepted");
+        } catch (IllegalArgumentException e) {
+            // Diharapkan
+        }
+    }
+
+    /**
+     * Memeriksa semua 256 langkah 1 byte dan penolakan baris/kolom di luar papan 16x16.
+     */
+    static void checkMoves() {
+        boolean[] seen = new boolean[256];
+        for (int row = 0; row < GameWireCodec.MAX_BOARD_SIZE; row++) {
+            for (int col = 0; col < GameWireCodec.MAX_BOARD_SIZE; col++) {
+                byte move = GameWireCodec.packMove(row, col);
+                check(GameWireCodec.moveRow(move) == row && GameWireCodec.moveCol(move) == col,
+                        "Move round trip failed for (" + row + ", " + col + ")");
+                check(!seen[move & 0xFF], "Move byte " + (move & 0xFF) + " is used twice");
+                seen[move & 0xFF] = true;
+            }
+        }
+        int[][] outside = {{16, 0}, {0, 16}, {-1, 0}, {0, -1}};
+        for (int[] cell : outside) {
+            try {
+                GameWireCodec.packMove(cell[0], cell[1]);
+                check(false, "Move (" + cell[0] + ", " + cell[1] + ") was accepted");
+            } catch (IllegalArgumentException e) {
+                // Diharapkan
+            }
+        }
+    }
+
+    /**
+     * Memeriksa count delta acak: buffer seukuran deltaSize() harus terisi tepat, dan readDelta
+     * harus mengembalikan handle, nomor, dan posisi setiap langkah.
+     */
+    static void checkDeltas(int count, Random random) {
+        for (int t = 0; t < count; t++) {
+            int handle = random.nextInt(1 << 20);
+            int firstMoveNumber = 1 + random.nextInt(500);
+            int size = 1 + random.nextInt(40);
+            List<DatabaseManager.Move> moves = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int moveNumber = firstMoveNumber + i;
+                moves.add(new DatabaseManager.Move("game", moveNumber, "user", GameWireCodec.seedForMoveNumber(moveNumber),
+                        random.nextInt(GameWireCodec.MAX_BOARD_SIZE), random.nextInt(GameWireCodec.MAX_BOARD_SIZE)));
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(GameWireCodec.deltaSize(handle, firstMoveNumber, size));
+            GameWireCodec.putDelta(buffer, handle, moves);
+            check(!buffer.hasRemaining(), "Delta did not fill deltaSize() exactly");
+            buffer.flip();
+            List<int[]> decoded = new ArrayList<>();
+            int read = GameWireCodec.readDelta(buffer, (h, moveNumber, row, col) -> decoded.add(new int[] {h, moveNumber, row, col}));
+            check(read == size && decoded.size() == size && !buffer.hasRemaining(), "Delta move count mismatch");
+            for (int i = 0; i < size; i++) {
+                int[] got = decoded.get(i);
+                DatabaseManager.Move move = moves.get(i);
+                check(got[0] == handle && got[1] == move.moveNumber && got[2] == move.row && got[3] == move.col,
+                        "Delta round trip failed for " + move);
+            }
+        }
+    }
+
+    /**
+     * Memeriksa bahwa delta bercelah ditolak tanpa memajukan posisi buffer, dan buffer yang terlalu kecil
+     * ditolak dengan BufferOverflowException.
+     */
+    static void checkRejectedDeltas() {
+        List<DatabaseManager.Move> gap = List.of(new DatabaseManager.Move("game", 1, "user", "X", 0, 0),
+                new DatabaseManager.Move("game", 3, "user", "X", 1, 0));
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        try {
+            GameWireCodec.putDelta(buffer, 1, gap);
+            check(false, "Delta with a gap was accepted");
+        } catch (IllegalArgumentException e) {
+            check(buffer.position() == 0, "Rejected delta moved the buffer position");
+        }
+        try {
+            GameWireCodec.putDelta(ByteBuffer.allocate(2), 1, gap.subList(0, 1));
+            check(false, "Delta was written to a buffer that is too small");
+        } catch (BufferOverflowException e) {
+            // Diharapkan
+        }
+    }
+
+    /**
+     * Memeriksa count snapshot per ukuran papan dari game acak (sampai berakhir atau berhenti di tengah):
+     * buffer seukuran snapshotSize() harus terisi tepat, readSnapshot harus mengembalikan header, isi setiap
+     * sel, dan state game, dan snapshot dari kode sel (seperti di RelayServer) harus sama persis byte-nya.
+     */
+    static void checkSnapshots(int count, Random random) {
+        for (int[] size : SNAPSHOT_BOARDS) {
+            int rows = size[0];
+            int cols = size[1];
+            for (int t = 0; t < count; t++) {
+                Board board = new Board(rows, cols, size[2]);
+                byte[] cells = new byte[rows * cols];
+                List<Integer> order = new ArrayList<>();
+                for (int cell = 0; cell < cells.length; cell++) {
+                    order.add(cell);
+                }
+                Collections.shuffle(order, random);
+                State state = State.PLAYING;
+                int moveNumber = 0;
+                for (int cell : order) {
+                    if (state != State.PLAYING || random.nextInt(30) == 0) {
+                        break;
+                    }
+                    moveNumber++;
+                    boolean cross = moveNumber % 2 == 1;
+                    state = board.stepGame(cross ? Seed.CROSS : Seed.NOUGHT, cell / cols, cell % cols);
+                    cells[cell] = (byte) (cross ? GameWireCodec.CELL_CROSS : GameWireCodec.CELL_NOUGHT);
+                }
+                int handle = random.nextInt(1 << 20);
+                ByteBuffer buffer = ByteBuffer.allocate(GameWireCodec.snapshotSize(handle, moveNumber, rows, cols));
+                GameWireCodec.putSnapshot(buffer, handle, moveNumber, board);
+                check(!buffer.hasRemaining(), "Snapshot did not fill snapshotSize() exactly");
+                ByteBuffer fromCells = ByteBuffer.allocate(buffer.capacity());
+                GameWireCodec.putSnapshot(fromCells, handle, moveNumber, rows, cols, cells);
+                check(fromCells.flip().equals(buffer.flip()), "Snapshots from Board and from cell codes differ");
+                int[] header = new int[2];
+                Board[] decoded = new Board[1];
+                State decodedState = GameWireCodec.readSnapshot(buffer, (h, number, r, c) -> {
+                    header[0] = h;
+                    header[1] = number;
+                    decoded[0] = new Board(r, c, size[2]);
+                    return decoded[0];
+                });
+                check(header[0] == handle && header[1] == moveNumber && !buffer.hasRemaining(), "Snapshot header mismatch");
+                for (int row = 0; row < rows; row++) {
+                    for (int col = 0; col < cols; col++) {
+                        check(decoded[0].getContent(row, col) == board.getContent(row, col),
+                                "Snapshot round trip failed at (" + row + ", " + col + ") on " + rows + "x" + cols);
+                    }
+                }
+                check(decodedState == state, "Snapshot state " + decodedState + " instead of " + state + " on " + rows + "x" + cols);
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int deltas = 1000;
+        int snapshots = 300;
+        long seed = 1;
+        for (int i = 0; i + 1 < args.length; i++) {
+            try {
+                switch (args[i]) {
+                    case "-deltas": deltas = Integer.parseInt(args[++i]); break;
+                    case "-snapshots": snapshots = Integer.parseInt(args[++i]); break;
+                    case "-seed": seed = Long.parseLong(args[++i]); break;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid command line argument: " + args[i]);
+            }
+        }
+        checkVarints();
+        checkMoves();
+        Random random = new Random(seed);
+        checkDeltas(deltas, random);
+        checkRejectedDeltas();
+        checkSnapshots(snapshots, random);
+        System.out.println("GameWireCodecCheck: OK (" + VARINT_EDGES.length + " varints, 256 moves, "
+                + deltas + " deltas, " + (snapshots * SNAPSHOT_BOARDS.length) + " snapshots, seed " + seed + ")");
+    }
+}
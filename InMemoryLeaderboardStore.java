@@ -0,0 +1,36 @@
+// package InMemoryLeaderboardStore; // Asumsi paket jika tidak ada di file.
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kelas InMemoryLeaderboardStore menyimpan leaderboard di memori, untuk game lokal/offline dan uji.
+ * Semua operasi diserialkan oleh satu kunci; satu game selalu memperbarui kedua pengguna bersama.
+ */
+public class InMemoryLeaderboardStore implements LeaderboardStore {
+    private final Map<String, PlayerRating> players = new HashMap<>();
+
+    @Override
+    public synchronized void recordGame(String crossUsername, String noughtUsername, State result) {
+        PlayerRating cross = players.getOrDefault(crossUsername, PlayerRating.newPlayer(crossUsername));
+        PlayerRating nought = players.getOrDefault(noughtUsername, PlayerRating.newPlayer(noughtUsername));
+        double crossScore = Leaderboard.crossScore(result);
+        players.put(crossUsername, cross.afterGame(nought.getRating(), crossScore));
+        players.put(noughtUsername, nought.afterGame(cross.getRating(), 1.0 - crossScore));
+    }
+
+    @Override
+    public synchronized List<PlayerRating> fetchTopPlayers(int limit) {
+        List<PlayerRating> all = new ArrayList<>(players.values());
+        all.sort(Comparator.comparingDouble(PlayerRating::getRating).reversed());
+        return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+    }
+
+    @Override
+    public synchronized PlayerRating fetchPlayer(String username) {
+        return players.get(username);
+    }
+}
@@ -0,0 +1,141 @@
+// package InMemoryMoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Kelas InMemoryMoveStore menyimpan langkah di memori tanpa kunci (lock-free).
+ * Setiap game memiliki array langkah yang tidak pernah diubah (copy-on-write), diurutkan menurut
+ * moveNumber; penulis mengganti array lewat compare-and-set, sedangkan pembaca hanya membaca
+ * referensi array terbaru sehingga tidak pernah menunggu penulis.
+ * Game yang diarsipkan hanya disimpan sebagai ArchivedGame; array langkah live-nya dilepas.
+ * Cocok untuk uji beban, game lokal dalam satu proses, dan sebagai indeks FileMoveStore.
+ */
+public class InMemoryMoveStore implements MoveStore {
+    private static final DatabaseManager.Move[] NO_MOVES = new DatabaseManager.Move[0];
+
+    private final ConcurrentMap<String, AtomicReference<DatabaseManager.Move[]>> games = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ArchivedGame> archive = new ConcurrentHashMap<>();
+
+    @Override
+    public void insertMove(DatabaseManager.Move move) {
+        insert(move, false);
+    }
+
+    @Override
+    public boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLIntegrityConstraintViolationException {
+        DatabaseManager.Move stored = insert(move, true);
+        if (stored != null) {
+            MoveStore.checkSameMove(stored, move);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Menyisipkan langkah dengan compare-and-set. Jika ifAbsent aktif dan nomor langkah sudah ada,
+     * langkah tidak disisipkan dan langkah yang sudah tersimpan dikembalikan; selain itu mengembalikan null.
+     */
+    private DatabaseManager.Move insert(DatabaseManager.Move move, boolean ifAbsent) {
+        AtomicReference<DatabaseManager.Move[]> ref = games.get(move.gameId);
+        if (ref == null) {
+            AtomicReference<DatabaseManager.Move[]> created = new AtomicReference<>(NO_MOVES);
+            ref = games.putIfAbsent(move.gameId, created);
+            if (ref == null) {
+                ref = created;
+            }
+        }
+        while (true) {
+            DatabaseManager.Move[] current = ref.get();
+            // Posisi sisip: setelah semua langkah dengan moveNumber <= move.moveNumber (biasanya di akhir)
+            int pos = current.length;
+            while (pos > 0 && current[pos - 1].moveNumber > move.moveNumber) {
+                pos--;
+            }
+            if (ifAbsent && pos > 0 && current[pos - 1].moveNumber == move.moveNumber) {
+                return current[pos - 1];
+            }
+            DatabaseManager.Move[] updated = new DatabaseManager.Move[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, pos);
+            updated[pos] = move;
+            System.arraycopy(current, pos, updated, pos + 1, current.length - pos);
+            if (ref.compareAndSet(current, updated)) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) {
+        AtomicReference<DatabaseManager.Move[]> ref = games.get(gameId);
+        if (ref == null) {
+            return new ArrayList<>();
+        }
+        DatabaseManager.Move[] snapshot = ref.get();
+        // Pencarian biner untuk langkah pertama dengan moveNumber > lastMoveNumber
+        int low = 0;
+        int high = snapshot.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (snapshot[mid].moveNumber <= lastMoveNumber) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(snapshot).subList(low, snapshot.length));
+    }
+
+    @Override
+    public void clearGameMoves(String gameId) {
+        AtomicReference<DatabaseManager.Move[]> ref = games.get(gameId);
+        if (ref != null) {
+            ref.set(NO_MOVES); // Referensi tetap dipakai agar penulis yang sedang CAS tidak kehilangan game
+        }
+    }
+
+    @Override
+    public void archiveGame(ArchivedGame game) {
+        archive.put(game.getGameId(), game);
+        games.remove(game.getGameId()); // Game sudah selesai, tidak ada lagi penulis langkah
+    }
+
+    @Override
+    public ArchivedGame fetchArchivedGame(String gameId) {
+        return archive.get(gameId);
+    }
+
+    @Override
+    public List<String> listGameIds() {
+        Set<String> gameIds = new LinkedHashSet<>(games.keySet());
+        gameIds.addAll(archive.keySet());
+        return new ArrayList<>(gameIds);
+    }
+
+    @Override
+    public void deleteGame(String gameId) {
+        games.remove(gameId);
+        archive.remove(gameId);
+    }
+
+    /**
+     * Mengembalikan ID semua game yang memiliki langkah live.
+     */
+    public List<String> getGameIds() {
+        return new ArrayList<>(games.keySet());
+    }
+
+    /**
+     * Mengembalikan ID semua game yang diarsipkan.
+     */
+    public List<String> getArchivedGameIds() {
+        return new ArrayList<>(archive.keySet());
+    }
+}
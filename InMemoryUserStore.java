@@ -0,0 +1,47 @@
+// package InMemoryUserStore; // Asumsi paket jika tidak ada di file.
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kelas InMemoryUserStore menyimpan akun di memori untuk game lokal/offline dan uji beban.
+ * Jika registerOnFirstLogin aktif, username yang belum dikenal didaftarkan dengan password
+ * yang pertama kali dipakai untuk login (lihat register()).
+ */
+public class InMemoryUserStore implements UserStore {
+    private final Map<String, String> passwords = new ConcurrentHashMap<>(); // username -> password
+    private final boolean registerOnFirstLogin;
+
+    /**
+     * Konstruktor untuk InMemoryUserStore.
+     */
+    public InMemoryUserStore(boolean registerOnFirstLogin) {
+        this.registerOnFirstLogin = registerOnFirstLogin;
+    }
+
+    /**
+     * Menambahkan atau mengganti akun.
+     */
+    public void addUser(String username, String password) {
+        passwords.put(username, password);
+    }
+
+    /**
+     * Mendaftarkan username dengan password jika belum ada dan pendaftaran otomatis aktif.
+     * Mengembalikan password yang tersimpan untuk username tersebut (atau string kosong).
+     */
+    public String register(String username, String password) {
+        if (registerOnFirstLogin) {
+            String existing = passwords.putIfAbsent(username, password);
+            return existing != null ? existing : password;
+        }
+        return passwords.getOrDefault(username, "");
+    }
+
+    @Override
+    public String getPassword(String username) {
+        return passwords.getOrDefault(username, "");
+    }
+
+    public boolean isRegisterOnFirstLogin() { return registerOnFirstLogin; } // Apakah akun baru didaftarkan otomatis
+}
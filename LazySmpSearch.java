@@ -0,0 +1,104 @@
+// package LazySmpSearch; // Asumsi paket jika tidak ada di file.
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kelas LazySmpSearch menjalankan pencarian NegamaxSearch secara paralel dengan metode Lazy SMP.
+ * Semua worker mencari posisi yang sama pada salinan papan masing-masing dan berbagi satu
+ * TranspositionTable tanpa kunci; hasil yang ditemukan satu worker langsung memangkas pencarian
+ * worker lain. Worker utama berjalan di thread pemanggil (sehingga interupsi dan batas waktu
+ * tetap berlaku seperti biasa) dan langkahnya yang dikembalikan; worker pembantu dihentikan
+ * begitu worker utama selesai.
+ * Dengan satu thread, kelas ini sama persis dengan NegamaxSearch biasa.
+ */
+public class LazySmpSearch {
+    // Thread pembantu dipakai bersama oleh semua instance (daemon, dibuang setelah menganggur)
+    private static final AtomicInteger HELPER_COUNTER = new AtomicInteger();
+    private static final ExecutorService HELPER_POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "ai-helper-" + HELPER_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final TranspositionTable table;   // Tabel transposisi bersama
+    private final NegamaxSearch[] workers;    // workers[0] adalah pencarian utama
+    private final Future<?>[] pending;        // Tugas worker pembantu yang sedang berjalan
+    private final AtomicBoolean stopSignal = new AtomicBoolean(); // Dinyalakan saat worker utama selesai
+    private long nodes;                       // Jumlah node semua worker pada pencarian terakhir
+
+    /**
+     * Konstruktor untuk LazySmpSearch dengan tabel bersama dan jumlah thread yang ditentukan.
+     */
+    public LazySmpSearch(TranspositionTable table, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.table = table;
+        this.workers = new NegamaxSearch[threads];
+        this.pending = new Future<?>[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new NegamaxSearch(table, i);
+            workers[i].setStopSignal(stopSignal);
+        }
+    }
+
+    /**
+     * Mencari langkah terbaik dengan semua worker sampai maxDepth atau sampai timeBudgetMillis habis.
+     * Mengembalikan indeks sel dari worker utama, atau -1 jika tidak ada langkah.
+     * Papan yang diberikan dipakai oleh worker utama dan dikembalikan ke state semula.
+     */
+    public int search(Board board, Seed toMove, int maxDepth, long timeBudgetMillis) {
+        table.newSearch();
+        stopSignal.set(false);
+        for (int i = 1; i < workers.length; i++) {
+            NegamaxSearch worker = workers[i];
+            Board copy = board.copy(); // Setiap worker pembantu memakai salinan papannya sendiri
+            pending[i] = HELPER_POOL.submit(() -> worker.search(copy, toMove, maxDepth, timeBudgetMillis));
+        }
+        try {
+            return workers[0].search(board, toMove, maxDepth, timeBudgetMillis);
+        } finally {
+            stopSignal.set(true);
+            awaitHelpers();
+            nodes = 0;
+            for (NegamaxSearch worker : workers) {
+                nodes += worker.getNodes();
+            }
+        }
+    }
+
+    /**
+     * Menunggu semua worker pembantu berhenti agar pencarian berikutnya tidak tumpang tindih.
+     * Worker berhenti dalam beberapa ribu node setelah sinyal stop, sehingga penantian ini singkat;
+     * interupsi selama menunggu ditunda dan dipasang kembali setelahnya.
+     */
+    private void awaitHelpers() {
+        boolean interrupted = false;
+        for (int i = 1; i < workers.length; i++) {
+            while (pending[i] != null) {
+                try {
+                    pending[i].get();
+                    pending[i] = null;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    System.err.println("LazySmpSearch: Helper search failed: " + e.getCause());
+                    pending[i] = null;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() { return workers.length; } // Mengembalikan jumlah thread pencarian
+    public long getNodes() { return nodes; } // Mengembalikan jumlah node semua worker pada pencarian terakhir
+    public int getCompletedDepth() { return workers[0].getCompletedDepth(); } // Kedalaman selesai worker utama
+}
@@ -0,0 +1,241 @@
+// package Leaderboard; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kelas Leaderboard mencatat hasil game per pengguna di LeaderboardStore dan menyajikan
+ * top-N serta rating pengguna dari cache di dalam proses.
+ * - Setiap entri cache berlaku selama ttlMillis; cache dibatasi maxEntries entri dan entri yang
+ *   paling lama tidak dibaca dibuang lebih dulu (LRU).
+ * - getTopPlayers() dan getPlayer() tidak pernah menunggu database: keduanya mengembalikan nilai
+ *   di cache (mungkin sudah kedaluwarsa, atau kosong) dan memuat ulang di thread latar belakang.
+ *   Setelah pemuatan selesai, pendengar pembaruan dipanggil (misalnya GameUI.updateScoreLabel),
+ *   sehingga tampilan bisa digambar ulang tanpa query database per repaint.
+ * - recordGame() menandai semua entri kedaluwarsa, sehingga pembacaan berikutnya memuat data baru.
+ */
+public class Leaderboard {
+    public static final long DEFAULT_TTL_MILLIS = 30_000; // Umur entri cache
+    public static final int DEFAULT_MAX_ENTRIES = 256;    // Jumlah entri cache maksimum
+
+    /**
+     * Satu entri cache: nilai (List<PlayerRating> atau PlayerRating, boleh null) dan waktu pemuatan.
+     */
+    private static final class CacheEntry {
+        final Object value;
+        final long loadedAt;
+
+        CacheEntry(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * Pemuat nilai cache dari LeaderboardStore.
+     */
+    private interface Loader {
+        Object load() throws SQLException;
+    }
+
+    private final LeaderboardStore store;
+    private final long ttlMillis;
+    private final Map<String, CacheEntry> cache; // Dijaga oleh kunci cache
+    private final Set<String> refreshing = new HashSet<>(); // Kunci yang sedang dimuat (dijaga oleh kunci cache)
+    private final ExecutorService refresher;
+    private final List<Runnable> updateListeners = new CopyOnWriteArrayList<>();
+
+    // Metrik cache
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * Konstruktor untuk Leaderboard dengan TTL dan ukuran cache default.
+     */
+    public Leaderboard(LeaderboardStore store) {
+        this(store, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Konstruktor untuk Leaderboard dengan TTL dan ukuran cache yang ditentukan.
+     */
+    public Leaderboard(LeaderboardStore store, long ttlMillis, int maxEntries) {
+        if (ttlMillis < 0 || maxEntries < 1) {
+            throw new IllegalArgumentException("ttlMillis must be >= 0 and maxEntries >= 1");
+        }
+        this.store = store;
+        this.ttlMillis = ttlMillis;
+        this.cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) { // Urutan akses untuk LRU
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.refresher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "leaderboard-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Mengembalikan skor X untuk hasil game: 1 jika X menang, 0 jika O menang, 0.5 jika seri.
+     */
+    static double crossScore(State result) {
+        if (result == State.CROSS_WON) {
+            return 1.0;
+        }
+        return result == State.NOUGHT_WON ? 0.0 : 0.5;
+    }
+
+    /**
+     * Mencatat hasil game yang sudah selesai dan menandai cache kedaluwarsa.
+     * Game melawan diri sendiri atau dengan pengguna yang tidak diketahui diabaikan.
+     */
+    public void recordGame(String crossUsername, String noughtUsername, State result) throws SQLException {
+        if (result == null || result == State.PLAYING) {
+            throw new IllegalArgumentException("Game is not finished: " + result);
+        }
+        if (crossUsername == null || noughtUsername == null || crossUsername.equals(noughtUsername)) {
+            System.out.println("Leaderboard: Not rating game between " + crossUsername + " and " + noughtUsername);
+            return;
+        }
+        store.recordGame(crossUsername, noughtUsername, result);
+        invalidate();
+        fireUpdated();
+    }
+
+    /**
+     * Mengembalikan limit pengguna teratas dari cache tanpa menunggu database
+     * (list kosong jika belum pernah dimuat). Memuat ulang di latar belakang jika kedaluwarsa.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PlayerRating> getTopPlayers(int limit) {
+        Object value = getCached("top:" + limit, () -> store.fetchTopPlayers(limit));
+        return value == null ? new ArrayList<>() : (List<PlayerRating>) value;
+    }
+
+    /**
+     * Mengembalikan rating pengguna dari cache tanpa menunggu database (null jika belum dimuat
+     * atau pengguna belum pernah tercatat). Memuat ulang di latar belakang jika kedaluwarsa.
+     */
+    public PlayerRating getPlayer(String username) {
+        return (PlayerRating) getCached("user:" + username, () -> store.fetchPlayer(username));
+    }
+
+    /**
+     * Mengembalikan limit pengguna teratas, memuat dari database sekarang jika cache kedaluwarsa.
+     * Untuk pemanggil di luar EDT yang membutuhkan data terbaru.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PlayerRating> fetchTopPlayers(int limit) throws SQLException {
+        String key = "top:" + limit;
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && isFresh(entry)) {
+                hits.incrementAndGet();
+                return (List<PlayerRating>) entry.value;
+            }
+        }
+        misses.incrementAndGet();
+        loads.incrementAndGet();
+        List<PlayerRating> players = store.fetchTopPlayers(limit);
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(players, System.currentTimeMillis()));
+        }
+        return players;
+    }
+
+    /**
+     * Mengembalikan nilai di cache untuk key dan menjadwalkan pemuatan ulang jika kedaluwarsa atau tidak ada.
+     */
+    private Object getCached(String key, Loader loader) {
+        synchronized (cache) {
+            CacheEntry entry = cache.get(key);
+            if (entry != null && isFresh(entry)) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            misses.incrementAndGet();
+            if (refreshing.add(key)) {
+                refresher.execute(() -> refresh(key, loader, entry));
+            }
+            return entry == null ? null : entry.value;
+        }
+    }
+
+    /**
+     * Memuat satu entri di thread latar belakang, lalu memanggil pendengar pembaruan.
+     * Jika gagal, nilai lama tetap dipakai sampai TTL berikutnya habis.
+     */
+    private void refresh(String key, Loader loader, CacheEntry previous) {
+        Object value;
+        try {
+            value = loader.load();
+            loads.incrementAndGet();
+        } catch (SQLException e) {
+            System.err.println("Leaderboard: Error loading " + key + ": " + e.getMessage());
+            value = previous == null ? null : previous.value;
+        }
+        synchronized (cache) {
+            cache.put(key, new CacheEntry(value, System.currentTimeMillis()));
+            refreshing.remove(key);
+        }
+        fireUpdated();
+    }
+
+    private boolean isFresh(CacheEntry entry) {
+        return System.currentTimeMillis() - entry.loadedAt < ttlMillis;
+    }
+
+    /**
+     * Menandai semua entri cache kedaluwarsa (nilainya tetap ditampilkan sampai pemuatan ulang selesai).
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            for (Map.Entry<String, CacheEntry> entry : cache.entrySet()) {
+                entry.setValue(new CacheEntry(entry.getValue().value, Long.MIN_VALUE / 2));
+            }
+        }
+    }
+
+    /**
+     * Mendaftarkan pendengar yang dipanggil (dari thread latar belakang) setiap kali data leaderboard berubah.
+     */
+    public void addUpdateListener(Runnable listener) {
+        updateListeners.add(listener);
+    }
+
+    private void fireUpdated() {
+        for (Runnable listener : updateListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Mengembalikan metrik cache (untuk logging).
+     */
+    public String getStats() {
+        synchronized (cache) {
+            return String.format(Locale.ROOT, "entries=%d, hits=%d, misses=%d, loads=%d",
+                    cache.size(), hits.get(), misses.get(), loads.get());
+        }
+    }
+
+    public long getHits() { return hits.get(); } // Mengembalikan jumlah pembacaan dari cache yang masih berlaku
+    public long getMisses() { return misses.get(); } // Mengembalikan jumlah pembacaan yang kedaluwarsa atau tidak ada
+    public long getLoads() { return loads.get(); } // Mengembalikan jumlah pemuatan dari LeaderboardStore
+}
@@ -0,0 +1,27 @@
+// package LeaderboardStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Interface LeaderboardStore menyimpan hasil game per pengguna sebagai agregat yang diperbarui
+ * secara inkremental (menang/kalah/seri dan rating Elo), bukan dihitung ulang dari riwayat game.
+ * Dipakai lewat Leaderboard, yang menambahkan cache di dalam proses.
+ */
+public interface LeaderboardStore {
+    /**
+     * Mencatat hasil satu game antara crossUsername (X) dan noughtUsername (O), memperbarui
+     * agregat dan rating kedua pengguna secara atomik.
+     */
+    void recordGame(String crossUsername, String noughtUsername, State result) throws SQLException;
+
+    /**
+     * Mengambil limit pengguna dengan rating tertinggi, urut turun.
+     */
+    List<PlayerRating> fetchTopPlayers(int limit) throws SQLException;
+
+    /**
+     * Mengambil agregat satu pengguna, atau null jika pengguna belum pernah tercatat.
+     */
+    PlayerRating fetchPlayer(String username) throws SQLException;
+}
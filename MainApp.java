@@ -1,6 +1,12 @@
 // package MainApp; // Asumsi paket jika tidak ada di file.
 
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 import java.awt.event.ActionEvent;
 
@@ -16,6 +22,93 @@ public class MainApp {
      * Mengelola proses login pengguna dan memulai GUI game.
      */
     public static void main(String[] args) {
+        // Memilih tempat penyimpanan dari argumen baris perintah:
+        // -store mysql (default) | memory | file, dengan -storefile untuk lokasi file log,
+        // -shards untuk membagi game ke beberapa shard (mysql: daftar host:port dipisah koma;
+        // memory/file: jumlah shard lokal), -replicas untuk read replica mysql (daftar host:port dipisah koma),
+        // -journal untuk lokasi journal langkah keluar (default moves.journal untuk mysql, "none" untuk menonaktifkan),
+        // dan -relay host:port untuk menerima langkah lawan dari RelayServer tanpa polling cepat
+        String storeType = "mysql";
+        String storeFile = "moves.log";
+        String shardSpec = null;
+        String replicaSpec = null;
+        String journalFile = null;
+        String relayAddress = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            switch (args[i].toLowerCase(Locale.ROOT)) {
+                case "-store": storeType = args[++i].toLowerCase(Locale.ROOT); break;
+                case "-storefile": storeFile = args[++i]; break;
+                case "-shards": shardSpec = args[++i]; break;
+                case "-replicas": replicaSpec = args[++i]; break;
+                case "-journal": journalFile = args[++i]; break;
+                case "-relay": relayAddress = args[++i]; break;
+            }
+        }
+        UserStore userStore;
+        MoveStore moveStore;
+        LeaderboardStore leaderboardStore;
+        try {
+            switch (storeType) {
+                case "memory":
+                    userStore = new InMemoryUserStore(true); // Akun lokal didaftarkan saat login pertama
+                    moveStore = (shardSpec == null) ? new InMemoryMoveStore() : createShardedStore(storeType, shardSpec, storeFile);
+                    leaderboardStore = new InMemoryLeaderboardStore();
+                    break;
+                case "file":
+                    userStore = new InMemoryUserStore(true);
+                    moveStore = (shardSpec == null) ? new FileMoveStore(Paths.get(storeFile)) : createShardedStore(storeType, shardSpec, storeFile);
+                    leaderboardStore = new InMemoryLeaderboardStore();
+                    break;
+                default:
+                    userStore = new MySqlUserStore(args);
+                    moveStore = (shardSpec == null) ? new MySqlMoveStore() : createShardedStore(storeType, shardSpec, storeFile);
+                    leaderboardStore = new MySqlLeaderboardStore();
+                    if (replicaSpec != null) {
+                        if (shardSpec != null) {
+                            throw new IllegalArgumentException("-replicas cannot be combined with -shards");
+                        }
+                        List<MoveStore> moveReplicas = new ArrayList<>();
+                        List<LeaderboardStore> leaderboardReplicas = new ArrayList<>();
+                        for (ConnectionPool pool : createReplicaPools(replicaSpec)) {
+                            moveReplicas.add(new MySqlMoveStore(pool));
+                            leaderboardReplicas.add(new MySqlLeaderboardStore(pool));
+                        }
+                        moveStore = new ReplicatedMoveStore(moveStore, moveReplicas);
+                        leaderboardStore = new ReplicatedLeaderboardStore(leaderboardStore, leaderboardReplicas);
+                    }
+                    break;
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            System.out.println("Cannot open move store: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println("Using " + storeType + " store");
+
+        // Journal hanya berguna untuk penyimpanan jarak jauh; file log lokal sudah tahan crash
+        if (journalFile == null) {
+            journalFile = (userStore instanceof MySqlUserStore) ? "moves.journal" : "none";
+        }
+        MoveJournal moveJournal = null;
+        if (!journalFile.equalsIgnoreCase("none")) {
+            try {
+                moveJournal = new MoveJournal(Paths.get(journalFile), moveStore);
+            } catch (SQLException e) {
+                System.out.println("Cannot open move journal, moves are sent without it: " + e.getMessage());
+            }
+        }
+
+        // Relay bersifat opsional: tanpa relay, langkah lawan dibaca dengan polling database
+        RelayClient relayClient = null;
+        if (relayAddress != null) {
+            String[] parts = relayAddress.split(":");
+            try {
+                relayClient = new RelayClient(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : RelayServer.DEFAULT_PORT);
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Cannot connect to relay " + relayAddress + ", using database polling: " + e.getMessage());
+            }
+        }
+
         // Variabel untuk melacak keberhasilan login
         boolean loginSuccessful = false;
         // Variabel untuk menyimpan username yang berhasil login
@@ -33,13 +126,17 @@ public class MainApp {
             String truePass = ""; // Password yang sebenarnya dari database
 
             try {
-                // Memanggil DatabaseManager untuk mendapatkan password yang benar berdasarkan username
-                truePass = DatabaseManager.getPassword(loggedInUsername, args);
-            } catch (ClassNotFoundException e1) {
-                // Menangani jika driver database tidak ditemukan
-                System.out.println("Database driver not found: " + e1.getMessage());
+                // Memanggil UserStore untuk mendapatkan password yang benar berdasarkan username
+                if (userStore instanceof InMemoryUserStore) {
+                    truePass = ((InMemoryUserStore) userStore).register(loggedInUsername, pass);
+                } else {
+                    truePass = userStore.getPassword(loggedInUsername);
+                }
+            } catch (SQLException e1) {
+                // Menangani jika driver database tidak ditemukan atau penyimpanan tidak bisa dibaca
+                System.out.println("User store error: " + e1.getMessage());
                 e1.printStackTrace();
-                System.out.println("Exiting game due to driver error.");
+                System.out.println("Exiting game due to user store error.");
                 System.exit(1); // Keluar dari aplikasi dengan kode error
             }
 
@@ -58,6 +155,43 @@ public class MainApp {
         // Menyimpan username final untuk digunakan dalam Runnable (perlu final/effectively final)
         final String finalLoggedInUsername = loggedInUsername;
 
+        // Memparsing ukuran papan dari argumen baris perintah (-rows, -cols, -win), default 3x3 dengan k=3,
+        // batas waktu berpikir AI per langkah (-aitime, milidetik), jumlah thread pencarian AI (-aithreads)
+        // mesin AI (-ai heuristic|perfect|search|mcts) dan pondering selama giliran pemain (-ponder true|false)
+        int rows = Board.DEFAULT_ROWS;
+        int cols = Board.DEFAULT_COLS;
+        int winLength = Board.DEFAULT_WIN_LENGTH;
+        long aiTimeMillis = TicTacToeAI.DEFAULT_TIME_BUDGET_MILLIS;
+        int aiThreads = TicTacToeAI.DEFAULT_SEARCH_THREADS;
+        TicTacToeAI.Strategy aiStrategy = TicTacToeAI.Strategy.PERFECT;
+        boolean aiPonder = true;
+        for (int i = 0; i + 1 < args.length; i++) {
+            try {
+                switch (args[i].toLowerCase(Locale.ROOT)) {
+                    case "-rows": rows = Integer.parseInt(args[++i]); break;
+                    case "-cols": cols = Integer.parseInt(args[++i]); break;
+                    case "-win": winLength = Integer.parseInt(args[++i]); break;
+                    case "-aitime": aiTimeMillis = Long.parseLong(args[++i]); break;
+                    case "-aithreads": aiThreads = Math.max(1, Integer.parseInt(args[++i])); break;
+                    case "-ponder": aiPonder = Boolean.parseBoolean(args[++i]); break;
+                    case "-ai": aiStrategy = TicTacToeAI.Strategy.valueOf(args[++i].toUpperCase(Locale.ROOT)); break;
+                }
+            } catch (IllegalArgumentException e) { // Termasuk NumberFormatException
+                System.out.println("Invalid command line argument: " + args[i]);
+            }
+        }
+        final int finalRows = rows;
+        final int finalCols = cols;
+        final int finalWinLength = winLength;
+        final long finalAiTimeMillis = aiTimeMillis;
+        final int finalAiThreads = aiThreads;
+        final TicTacToeAI.Strategy finalAiStrategy = aiStrategy;
+        final boolean finalAiPonder = aiPonder;
+        final MoveStore finalMoveStore = moveStore;
+        final Leaderboard leaderboard = new Leaderboard(leaderboardStore);
+        final MoveJournal finalMoveJournal = moveJournal;
+        final RelayClient finalRelayClient = relayClient;
+
         // Menjalankan kode GUI dalam Event-Dispatching Thread (EDT) untuk keamanan thread.
         // SwingUtilities.invokeLater memastikan bahwa pembaruan GUI dilakukan di thread yang benar.
         javax.swing.SwingUtilities.invokeLater(new Runnable() {
@@ -67,7 +201,15 @@ public class MainApp {
                 JFrame frame = new JFrame(GamePanel.TITLE);
 
                 // Membuat instance GamePanel, yang akan menjadi konten utama jendela
-                GamePanel gamePanel = new GamePanel(finalLoggedInUsername);
+                GamePanel gamePanel = new GamePanel(finalLoggedInUsername, finalRows, finalCols, finalWinLength);
+                gamePanel.setAiTimeBudgetMillis(finalAiTimeMillis);
+                gamePanel.setAiSearchThreads(finalAiThreads);
+                gamePanel.setAiStrategy(finalAiStrategy);
+                gamePanel.setAiPondering(finalAiPonder);
+                gamePanel.setMoveStore(finalMoveStore);
+                gamePanel.setLeaderboard(leaderboard);
+                gamePanel.setMoveJournal(finalMoveJournal);
+                gamePanel.setRelayClient(finalRelayClient);
                 frame.setContentPane(gamePanel); // Mengatur GamePanel sebagai konten jendela
 
                 // Mengatur operasi default saat jendela ditutup (keluar dari aplikasi)
@@ -78,4 +220,57 @@ public class MainApp {
             }
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Membuat pool untuk setiap read replica dalam spec (daftar host:port dipisah koma).
+     */
+    private static List<ConnectionPool> createReplicaPools(String spec) throws SQLException {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String hostPort : spec.split(",")) {
+            String[] parts = hostPort.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Replica must be host:port: " + hostPort);
+            }
+            try {
+                pools.add(DatabaseManager.getPool(parts[0], parts[1]));
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("Database driver not found: " + e.getMessage(), e);
+            }
+        }
+        return pools;
+    }
+
+    /**
+     * Membuat ShardedMoveStore dari nilai -shards. Untuk mysql, spec adalah daftar host:port
+     * (satu pool per server); untuk memory dan file, spec adalah jumlah shard lokal
+     * (shard file memakai storeFile + ".shardN").
+     */
+    private static ShardedMoveStore createShardedStore(String storeType, String spec, String storeFile) throws SQLException {
+        ShardedMoveStore sharded = new ShardedMoveStore();
+        if (storeType.equals("memory") || storeType.equals("file")) {
+            int count = Integer.parseInt(spec.trim());
+            if (count < 1) {
+                throw new IllegalArgumentException("Shard count must be at least 1: " + spec);
+            }
+            for (int i = 0; i < count; i++) {
+                MoveStore shard = storeType.equals("memory")
+                        ? new InMemoryMoveStore()
+                        : new FileMoveStore(Paths.get(storeFile + ".shard" + i));
+                sharded.addShard("shard" + i, shard);
+            }
+            return sharded;
+        }
+        for (String hostPort : spec.split(",")) {
+            String[] parts = hostPort.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Shard must be host:port: " + hostPort);
+            }
+            try {
+                sharded.addShard(parts[0] + ":" + parts[1], new MySqlMoveStore(DatabaseManager.getPool(parts[0], parts[1])));
+            } catch (ClassNotFoundException e) {
+                throw new SQLException("Database driver not found: " + e.getMessage(), e);
+            }
+        }
+        return sharded;
+    }
+}
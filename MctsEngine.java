@@ -0,0 +1,418 @@
+// package MctsEngine; // Asumsi paket jika tidak ada di file.
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kelas MctsEngine memilih langkah AI dengan Monte Carlo Tree Search (UCT).
+ * Cocok untuk papan besar di mana alpha-beta tidak bisa melihat jauh ke depan.
+ * - Setiap pohon disimpan dalam array primitif (anak, jumlah anak, langkah, kunjungan, hadiah),
+ *   bukan objek per node, dan dialokasikan sekali lalu dipakai ulang antar pencarian.
+ * - Rollout berjalan pada salinan papan ringkas (byte[] grid dan daftar sel kosong) tanpa alokasi.
+ * - Paralelisme root: setiap thread membangun pohonnya sendiri di ForkJoinPool milik engine
+ *   (paralelisme = jumlah pohon, sehingga semua pohon berjalan bersamaan), lalu jumlah kunjungan anak root dari semua pohon dijumlahkan untuk memilih langkah.
+ * Pencarian dibatasi waktu yang sama dengan mesin lain (timeBudgetMillis); jika 0,
+ * setiap pohon menjalankan DEFAULT_PLAYOUTS_PER_TREE playout.
+ */
+public class MctsEngine {
+    public static final int DEFAULT_TREE_CAPACITY = 1 << 17;     // Jumlah node maksimum per pohon
+    public static final int DEFAULT_PLAYOUTS_PER_TREE = 20_000; // Batas playout jika tanpa batas waktu
+    private static final double EXPLORATION = 1.4;              // Konstanta eksplorasi UCT
+    private static final int TIME_CHECK_INTERVAL = 64;          // Jam hanya dibaca setiap 64 playout
+
+    // Isi sel pada papan ringkas
+    private static final byte EMPTY = 0;
+    private static final byte CROSS = 1;
+    private static final byte NOUGHT = 2;
+
+    // Arah garis untuk pemeriksaan menang: horizontal, vertikal, diagonal, anti-diagonal
+    private static final int[] DIR_ROW = {0, 1, 1, 1};
+    private static final int[] DIR_COL = {1, 0, 1, -1};
+
+    private final SearchTree[] trees;                        // Satu pohon per thread
+    private final ForkJoinPool pool;                         // Satu thread per pohon (daemon, berhenti saat menganggur)
+    private final AtomicBoolean stopSignal = new AtomicBoolean(); // Dinyalakan saat pemanggil diinterupsi
+    private long playouts;                                   // Jumlah playout pada pencarian terakhir
+    private long elapsedNanos;                               // Lama pencarian terakhir
+
+    /**
+     * Konstruktor untuk MctsEngine dengan jumlah thread (pohon) yang ditentukan.
+     */
+    public MctsEngine(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        pool = new ForkJoinPool(threads);
+        trees = new SearchTree[threads];
+        for (int i = 0; i < threads; i++) {
+            trees[i] = new SearchTree(DEFAULT_TREE_CAPACITY, 0x9E3779B97F4A7C15L * (i + 1) ^ System.nanoTime());
+        }
+    }
+
+    /**
+     * Mencari langkah terbaik untuk pemain toMove dalam batas waktu timeBudgetMillis (0 = jumlah playout tetap).
+     * Mengembalikan indeks sel (row * cols + col), atau -1 jika tidak ada langkah.
+     * Papan yang diberikan tidak diubah.
+     */
+    public int search(Board board, Seed toMove, long timeBudgetMillis) {
+        long start = System.nanoTime();
+        playouts = 0;
+        int cellCount = board.getCellCount();
+        if (board.getMoveCount() >= cellCount) {
+            return -1;
+        }
+        // Langkah yang langsung menang, atau yang wajib memblokir, tidak perlu disimulasikan
+        Seed opponent = (toMove == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (board.isEmptyAt(idx) && board.wouldWin(toMove, idx)) return idx;
+        }
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (board.isEmptyAt(idx) && board.wouldWin(opponent, idx)) return idx;
+        }
+
+        long deadline = timeBudgetMillis > 0 ? start + timeBudgetMillis * 1_000_000L : 0L;
+        stopSignal.set(false);
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[trees.length];
+        for (int i = 0; i < trees.length; i++) {
+            SearchTree tree = trees[i];
+            tree.reset(board, toMove);
+            tasks[i] = pool.submit(() -> tree.run(deadline, stopSignal));
+        }
+        awaitAll(tasks);
+
+        // Menjumlahkan kunjungan anak root dari semua pohon (urutan anak root sama di setiap pohon)
+        int bestMove = -1;
+        long bestVisits = -1;
+        SearchTree first = trees[0];
+        for (int c = 0; c < first.childCount[0]; c++) {
+            long visits = 0;
+            for (SearchTree tree : trees) {
+                visits += tree.visits[tree.firstChild[0] + c];
+            }
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                bestMove = first.move[first.firstChild[0] + c];
+            }
+        }
+        for (SearchTree tree : trees) {
+            playouts += tree.playouts;
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return bestMove;
+    }
+
+    /**
+     * Menunggu semua pohon selesai. Jika thread pemanggil diinterupsi, semua pohon diminta berhenti
+     * lalu tetap ditunggu (berhenti dalam beberapa playout) dan status interupsi dipasang kembali.
+     */
+    private void awaitAll(ForkJoinTask<?>[] tasks) {
+        boolean interrupted = false;
+        for (ForkJoinTask<?> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    stopSignal.set(true);
+                } catch (ExecutionException e) {
+                    System.err.println("MctsEngine: Tree search failed: " + e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getThreads() { return trees.length; } // Mengembalikan jumlah thread (pohon)
+    public long getPlayouts() { return playouts; } // Mengembalikan jumlah playout pada pencarian terakhir
+
+    /**
+     * Mengembalikan jumlah playout per detik pada pencarian terakhir.
+     */
+    public long getPlayoutsPerSecond() {
+        return elapsedNanos > 0 ? playouts * 1_000_000_000L / elapsedNanos : 0L;
+    }
+
+    /**
+     * Satu pohon UCT beserta papan ringkasnya. Semua state disimpan dalam array primitif
+     * yang dialokasikan sekali; satu playout tidak mengalokasikan objek.
+     */
+    private static final class SearchTree {
+        // Node pohon (indeks 0 adalah root); anak sebuah node disimpan berurutan mulai firstChild
+        final int[] firstChild;
+        final int[] childCount; // -1 berarti node belum diekspansi
+        final int[] move;       // Indeks sel dari langkah yang menuju node ini
+        final int[] visits;
+        final double[] reward;  // Jumlah hadiah dari sudut pandang pemain yang melangkah ke node ini
+        int nodeCount;
+        long playouts;
+
+        // Papan root dan papan kerja ringkas
+        int rows, cols, winLength, cellCount;
+        byte rootMover;         // Pemain yang melangkah terakhir sebelum root
+        byte[] rootGrid = new byte[0];
+        byte[] grid = new byte[0];
+        int[] rootEmpty = new int[0]; // Daftar sel kosong pada root
+        int rootEmptyCount;
+        int[] empty = new int[0];     // Daftar sel kosong pada papan kerja
+        int[] emptyPos = new int[0];  // Posisi setiap sel di daftar kosong
+        int emptyCount;
+        int[] path = new int[0];      // Node yang dilalui pada playout saat ini
+        long randomState;
+
+        SearchTree(int capacity, long seed) {
+            firstChild = new int[capacity];
+            childCount = new int[capacity];
+            move = new int[capacity];
+            visits = new int[capacity];
+            reward = new double[capacity];
+            randomState = seed != 0 ? seed : 1L;
+        }
+
+        /**
+         * Menyalin posisi dari Board ke papan ringkas dan mengosongkan pohon.
+         */
+        void reset(Board board, Seed toMove) {
+            rows = board.getRows();
+            cols = board.getCols();
+            winLength = board.getWinLength();
+            cellCount = board.getCellCount();
+            if (rootGrid.length != cellCount) {
+                rootGrid = new byte[cellCount];
+                grid = new byte[cellCount];
+                rootEmpty = new int[cellCount];
+                empty = new int[cellCount];
+                emptyPos = new int[cellCount];
+                path = new int[cellCount + 1];
+            }
+            rootEmptyCount = 0;
+            for (int idx = 0; idx < cellCount; idx++) {
+                Seed content = board.getContent(idx / cols, idx % cols);
+                rootGrid[idx] = content == Seed.CROSS ? CROSS : content == Seed.NOUGHT ? NOUGHT : EMPTY;
+                if (rootGrid[idx] == EMPTY) {
+                    rootEmpty[rootEmptyCount++] = idx;
+                }
+            }
+            rootMover = toMove == Seed.CROSS ? NOUGHT : CROSS;
+            nodeCount = 1;
+            childCount[0] = -1;
+            visits[0] = 0;
+            reward[0] = 0;
+            move[0] = -1;
+            playouts = 0;
+        }
+
+        /**
+         * Menjalankan playout sampai batas waktu, batas playout, atau sinyal stop.
+         */
+        void run(long deadline, AtomicBoolean stopSignal) {
+            long limit = deadline == 0L ? DEFAULT_PLAYOUTS_PER_TREE : Long.MAX_VALUE;
+            while (playouts < limit) {
+                if ((playouts % TIME_CHECK_INTERVAL) == 0 && playouts > 0
+                        && (stopSignal.get() || (deadline != 0L && System.nanoTime() >= deadline))) {
+                    break;
+                }
+                playout();
+                playouts++;
+            }
+        }
+
+        /**
+         * Satu iterasi MCTS: seleksi, ekspansi, simulasi, dan propagasi balik.
+         */
+        private void playout() {
+            System.arraycopy(rootGrid, 0, grid, 0, cellCount);
+            System.arraycopy(rootEmpty, 0, empty, 0, rootEmptyCount);
+            emptyCount = rootEmptyCount;
+            for (int i = 0; i < emptyCount; i++) {
+                emptyPos[empty[i]] = i;
+            }
+
+            int node = 0;
+            int depth = 0;
+            path[depth++] = node;
+            byte mover = rootMover;
+            byte winner = EMPTY;
+            boolean terminal = false;
+
+            // Seleksi: turun selama node sudah diekspansi
+            while (childCount[node] > 0) {
+                node = selectChild(node);
+                mover = opponent(mover);
+                winner = play(move[node], mover);
+                terminal = winner != EMPTY || emptyCount == 0;
+                path[depth++] = node;
+                if (terminal) {
+                    break;
+                }
+            }
+
+            // Ekspansi: node daun yang sudah pernah dikunjungi diberi anak (jika kapasitas masih cukup)
+            if (!terminal && childCount[node] < 0 && (visits[node] > 0 || node == 0)) {
+                expand(node);
+                if (childCount[node] > 0) {
+                    node = firstChild[node] + nextRandom(childCount[node]);
+                    mover = opponent(mover);
+                    winner = play(move[node], mover);
+                    terminal = winner != EMPTY || emptyCount == 0;
+                    path[depth++] = node;
+                }
+            }
+
+            // Simulasi: langkah acak sampai game selesai
+            if (!terminal) {
+                winner = rollout(mover);
+            }
+
+            // Propagasi balik: hadiah dihitung dari sudut pandang pemain yang melangkah ke setiap node
+            byte nodeMover = rootMover;
+            for (int i = 0; i < depth; i++) {
+                int n = path[i];
+                visits[n]++;
+                reward[n] += winner == EMPTY ? 0.5 : (winner == nodeMover ? 1.0 : 0.0);
+                nodeMover = opponent(nodeMover);
+            }
+        }
+
+        /**
+         * Memilih anak dengan nilai UCT terbesar; anak yang belum dikunjungi dipilih lebih dulu.
+         */
+        private int selectChild(int node) {
+            int first = firstChild[node];
+            int count = childCount[node];
+            double logParent = Math.log(Math.max(1, visits[node]));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < first + count; c++) {
+                if (visits[c] == 0) {
+                    return c;
+                }
+                double value = reward[c] / visits[c] + EXPLORATION * Math.sqrt(logParent / visits[c]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Membuat anak untuk node: sel kosong yang bersebelahan dengan bidak (atau tengah jika papan kosong).
+         */
+        private void expand(int node) {
+            int start = nodeCount;
+            int count = 0;
+            if (emptyCount == cellCount) {
+                if (start < firstChild.length) {
+                    addChild(start, (rows / 2) * cols + cols / 2);
+                    count = 1;
+                }
+            } else {
+                for (int idx = 0; idx < cellCount; idx++) {
+                    if (grid[idx] == EMPTY && isNearStone(idx)) {
+                        if (start + count >= firstChild.length) {
+                            return; // Kapasitas penuh: node tetap daun, playout lanjut dengan simulasi
+                        }
+                        addChild(start + count, idx);
+                        count++;
+                    }
+                }
+            }
+            firstChild[node] = start;
+            childCount[node] = count;
+            nodeCount = start + count;
+        }
+
+        private void addChild(int child, int idx) {
+            firstChild[child] = 0;
+            childCount[child] = -1;
+            move[child] = idx;
+            visits[child] = 0;
+            reward[child] = 0;
+        }
+
+        /**
+         * Simulasi acak dari posisi saat ini; lastMover adalah pemain yang baru saja melangkah.
+         * Mengembalikan pemenang (CROSS/NOUGHT) atau EMPTY untuk seri.
+         */
+        private byte rollout(byte lastMover) {
+            byte player = lastMover;
+            while (emptyCount > 0) {
+                player = opponent(player);
+                if (play(empty[nextRandom(emptyCount)], player) != EMPTY) {
+                    return player;
+                }
+            }
+            return EMPTY;
+        }
+
+        /**
+         * Menempatkan bidak pada sel idx. Mengembalikan player jika langkah ini menang, atau EMPTY.
+         */
+        private byte play(int idx, byte player) {
+            grid[idx] = player;
+            int pos = emptyPos[idx];
+            int last = empty[--emptyCount];
+            empty[pos] = last;
+            emptyPos[last] = pos;
+            return lastMoveWon(idx, player) ? player : EMPTY;
+        }
+
+        /**
+         * Memeriksa apakah bidak di idx membentuk winLength berurutan pada salah satu dari 4 arah.
+         */
+        private boolean lastMoveWon(int idx, byte player) {
+            int row = idx / cols;
+            int col = idx % cols;
+            for (int dir = 0; dir < 4; dir++) {
+                int run = 1;
+                for (int r = row + DIR_ROW[dir], c = col + DIR_COL[dir];
+                     r >= 0 && r < rows && c >= 0 && c < cols && grid[r * cols + c] == player;
+                     r += DIR_ROW[dir], c += DIR_COL[dir]) {
+                    run++;
+                }
+                for (int r = row - DIR_ROW[dir], c = col - DIR_COL[dir];
+                     r >= 0 && r < rows && c >= 0 && c < cols && grid[r * cols + c] == player;
+                     r -= DIR_ROW[dir], c -= DIR_COL[dir]) {
+                    run++;
+                }
+                if (run >= winLength) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isNearStone(int idx) {
+            int row = idx / cols;
+            int col = idx % cols;
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(cols - 1, col + 1); c++) {
+                    if (grid[r * cols + c] != EMPTY) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // Generator acak xorshift64 (tanpa alokasi, tidak dipakai bersama antar thread)
+        private int nextRandom(int bound) {
+            long x = randomState;
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            randomState = x;
+            return (int) ((x >>> 33) % bound);
+        }
+
+        private static byte opponent(byte player) {
+            return player == CROSS ? NOUGHT : CROSS;
+        }
+    }
+}
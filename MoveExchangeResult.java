@@ -0,0 +1,67 @@
+// package MoveExchangeResult; // Asumsi paket jika tidak ada di file.
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Kelas MoveExchangeResult adalah hasil MoveStore.exchangeMove(): apakah langkah diterima
+ * atau bentrok dengan langkah lain bernomor sama, beserta langkah-langkah baru di penyimpanan.
+ */
+public class MoveExchangeResult {
+    /**
+     * Status pertukaran langkah.
+     * ACCEPTED: langkah tersimpan (atau langkah yang sama persis sudah tersimpan sebelumnya).
+     * CONFLICT: nomor langkah sudah dipakai langkah lain (misalnya lawan jalan lebih dulu).
+     */
+    public enum Status {
+        ACCEPTED,
+        CONFLICT
+    }
+
+    private final Status status;
+    private final DatabaseManager.Move move;      // Langkah yang dikirim
+    private final List<DatabaseManager.Move> newMoves; // Langkah tersimpan setelah lastKnownMoveNumber, selain langkah yang dikirim
+
+    /**
+     * Konstruktor untuk MoveExchangeResult.
+     */
+    public MoveExchangeResult(Status status, DatabaseManager.Move move, List<DatabaseManager.Move> newMoves) {
+        this.status = status;
+        this.move = move;
+        this.newMoves = Collections.unmodifiableList(new ArrayList<>(newMoves));
+    }
+
+    /**
+     * Membuat hasil dari semua langkah tersimpan setelah lastKnownMoveNumber (urut naik), yang dibaca
+     * setelah langkah move dicoba disimpan: ACCEPTED jika langkah bernomor sama adalah move, CONFLICT jika bukan.
+     */
+    public static MoveExchangeResult fromStoredMoves(DatabaseManager.Move move, List<DatabaseManager.Move> stored) {
+        Status status = Status.ACCEPTED;
+        List<DatabaseManager.Move> newMoves = new ArrayList<>(stored.size());
+        for (DatabaseManager.Move candidate : stored) {
+            if (candidate.moveNumber == move.moveNumber) {
+                if (isSameMove(candidate, move)) {
+                    continue; // Langkah sendiri
+                }
+                status = Status.CONFLICT;
+            }
+            newMoves.add(candidate);
+        }
+        return new MoveExchangeResult(status, move, newMoves);
+    }
+
+    private static boolean isSameMove(DatabaseManager.Move a, DatabaseManager.Move b) {
+        return a.row == b.row && a.col == b.col && a.playerSeed.equals(b.playerSeed);
+    }
+
+    @Override
+    public String toString() {
+        return "MoveExchangeResult{" + status + ", move=" + move.moveNumber + ", newMoves=" + newMoves.size() + '}';
+    }
+
+    public Status getStatus() { return status; } // Mengembalikan status pertukaran
+    public boolean isAccepted() { return status == Status.ACCEPTED; } // Apakah langkah diterima
+    public DatabaseManager.Move getMove() { return move; } // Mengembalikan langkah yang dikirim
+    public List<DatabaseManager.Move> getNewMoves() { return newMoves; } // Mengembalikan langkah baru selain langkah sendiri
+}
@@ -0,0 +1,425 @@
+// package MoveHistoryAnalytics; // Asumsi paket jika tidak ada di file.
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kelas MoveHistoryAnalytics adalah job analitik yang membaca seluruh riwayat game secara streaming.
+ * Tabel games_archive dan moves dibaca dengan cursor forward-only (setFetchSize(Integer.MIN_VALUE),
+ * sehingga MySQL Connector/J mengalirkan baris satu per satu tanpa memuat seluruh hasil ke memori).
+ * Setiap game diputar ulang di Board untuk menentukan hasilnya, lalu hanya agregatnya yang disimpan:
+ * - tingkat kemenangan per pembukaan (sel langkah pertama, per ukuran papan),
+ * - rata-rata panjang game,
+ * - keunggulan jalan duluan per pengguna (hasil saat jalan duluan dibandingkan saat jalan kedua).
+ * Memori yang dipakai tidak bergantung pada jumlah game atau langkah, hanya pada jumlah pembukaan
+ * dan pengguna. Hasilnya ditulis ke tabel ringkasan:
+ *   CREATE TABLE analytics_summary (id INT PRIMARY KEY, games BIGINT, total_moves BIGINT,
+ *     first_player_wins BIGINT, second_player_wins BIGINT, draws BIGINT, computed_at TIMESTAMP)
+ *   CREATE TABLE analytics_openings (board VARCHAR(16), cell INT, games BIGINT, first_player_wins BIGINT,
+ *     second_player_wins BIGINT, draws BIGINT, PRIMARY KEY (board, cell))
+ *   CREATE TABLE analytics_users (username VARCHAR(64) PRIMARY KEY, games_first BIGINT, wins_first BIGINT,
+ *     draws_first BIGINT, games_second BIGINT, wins_second BIGINT, draws_second BIGINT)
+ *
+ * Contoh: java MoveHistoryAnalytics -rows 3 -cols 3 -win 3
+ * (ukuran papan dipakai untuk game di tabel moves, yang tidak menyimpan ukuran papan).
+ */
+public class MoveHistoryAnalytics {
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    /**
+     * Agregat hasil untuk satu pembukaan atau satu peran pengguna.
+     */
+    static final class ResultCounts {
+        long games;
+        long wins;   // Kemenangan pemain yang jalan duluan (pembukaan) atau pengguna ini (per pengguna)
+        long losses;
+        long draws;
+
+        void add(boolean draw, boolean won) {
+            games++;
+            if (draw) {
+                draws++;
+            } else if (won) {
+                wins++;
+            } else {
+                losses++;
+            }
+        }
+
+        double winRate() { return games == 0 ? 0.0 : (double) wins / games; } // Mengembalikan tingkat kemenangan
+    }
+
+    /**
+     * Agregat per pengguna, dipisah menurut apakah pengguna jalan duluan atau kedua.
+     */
+    static final class UserStats {
+        final ResultCounts first = new ResultCounts();
+        final ResultCounts second = new ResultCounts();
+
+        /**
+         * Mengembalikan selisih tingkat kemenangan saat jalan duluan dan saat jalan kedua.
+         */
+        double firstMoveAdvantage() {
+            return first.winRate() - second.winRate();
+        }
+    }
+
+    private final int liveRows;
+    private final int liveCols;
+    private final int liveWinLength;
+    private final Map<String, Board> boards = new HashMap<>();          // Satu Board per ukuran papan, dipakai ulang
+    private final Map<String, ResultCounts> openings = new HashMap<>(); // Kunci: "RxC/k:sel"
+    private final Map<String, UserStats> users = new HashMap<>();
+
+    // Agregat global
+    private long games;
+    private long totalMoves;
+    private final ResultCounts overall = new ResultCounts();
+    private long skippedGames; // Game yang belum selesai atau langkahnya tidak valid
+
+    // State game yang sedang diputar ulang dari tabel moves
+    private String currentGameId;
+    private Board currentBoard;
+    private State currentState;
+    private Seed currentFirstPlayer;
+    private String currentFirstUsername;
+    private String currentSecondUsername;
+    private int currentOpening;
+    private int currentMoves;
+    private boolean currentInvalid;
+
+    /**
+     * Konstruktor untuk MoveHistoryAnalytics. Ukuran papan dipakai untuk memutar ulang game dari tabel moves.
+     */
+    public MoveHistoryAnalytics(int liveRows, int liveCols, int liveWinLength) {
+        this.liveRows = liveRows;
+        this.liveCols = liveCols;
+        this.liveWinLength = liveWinLength;
+    }
+
+    /**
+     * Menjalankan job: membaca games_archive dan moves secara streaming, lalu menulis tabel ringkasan.
+     */
+    public void run(Connection connection) throws SQLException {
+        run(connection, connection);
+    }
+
+    /**
+     * Menjalankan job dengan membaca riwayat dari source (misalnya read replica) dan menulis
+     * tabel ringkasan ke target (primary).
+     */
+    public void run(Connection source, Connection target) throws SQLException {
+        long start = System.nanoTime();
+        streamArchive(source);
+        streamLiveMoves(source);
+        writeSummary(target);
+        System.out.printf(Locale.ROOT, "MoveHistoryAnalytics: %d games (%d skipped) analysed in %.1f s%n",
+                games, skippedGames, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Membuat statement forward-only yang mengalirkan hasil baris per baris.
+     */
+    private static Statement createStreamingStatement(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(Integer.MIN_VALUE); // Mode streaming MySQL Connector/J
+        return statement;
+    }
+
+    /**
+     * Mengalirkan semua game dari tabel games_archive.
+     */
+    private void streamArchive(Connection connection) throws SQLException {
+        try (Statement statement = createStreamingStatement(connection);
+             ResultSet resultSet = statement.executeQuery("SELECT game_id, x_username, o_username, record FROM games_archive")) {
+            while (resultSet.next()) {
+                try {
+                    acceptArchivedGame(ArchivedGame.decode(resultSet.getString("game_id"), resultSet.getString("x_username"),
+                            resultSet.getString("o_username"), resultSet.getBytes("record")));
+                } catch (IllegalArgumentException e) {
+                    skippedGames++;
+                    System.err.println("MoveHistoryAnalytics: Skipping corrupt archive record: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Mengalirkan tabel moves urut per game; setiap game diputar ulang langkah demi langkah
+     * sehingga hanya satu game yang ada di memori pada satu waktu.
+     */
+    private void streamLiveMoves(Connection connection) throws SQLException {
+        String sqlSelect = "SELECT game_id, player_username, player_seed, row_coord, col_coord FROM moves "
+                + "ORDER BY game_id, move_number";
+        try (Statement statement = createStreamingStatement(connection);
+             ResultSet resultSet = statement.executeQuery(sqlSelect)) {
+            while (resultSet.next()) {
+                String gameId = resultSet.getString("game_id");
+                if (!gameId.equals(currentGameId)) {
+                    finishLiveGame();
+                    startLiveGame(gameId);
+                }
+                Seed seed = "X".equals(resultSet.getString("player_seed")) ? Seed.CROSS : Seed.NOUGHT;
+                playLiveMove(resultSet.getString("player_username"), seed,
+                        resultSet.getInt("row_coord"), resultSet.getInt("col_coord"));
+            }
+            finishLiveGame();
+        }
+    }
+
+    private void startLiveGame(String gameId) {
+        currentGameId = gameId;
+        currentBoard = boardFor(liveRows, liveCols, liveWinLength);
+        currentState = State.PLAYING;
+        currentFirstPlayer = null;
+        currentFirstUsername = null;
+        currentSecondUsername = null;
+        currentMoves = 0;
+        currentInvalid = false;
+    }
+
+    private void playLiveMove(String username, Seed seed, int row, int col) {
+        if (currentInvalid) {
+            return;
+        }
+        if (currentState != State.PLAYING || !currentBoard.isInside(row, col) || !currentBoard.isEmpty(row, col)) {
+            currentInvalid = true; // Langkah setelah akhir game, di luar papan, atau sel terisi
+            return;
+        }
+        if (currentFirstPlayer == null) {
+            currentFirstPlayer = seed;
+            currentFirstUsername = username;
+            currentOpening = row * liveCols + col;
+        } else if (seed != currentFirstPlayer && currentSecondUsername == null) {
+            currentSecondUsername = username;
+        }
+        currentState = currentBoard.stepGame(seed, row, col);
+        currentMoves++;
+    }
+
+    private void finishLiveGame() {
+        if (currentGameId == null) {
+            return;
+        }
+        if (currentInvalid || currentState == State.PLAYING) {
+            skippedGames++; // Game yang belum selesai tidak masuk statistik
+        } else {
+            record(liveRows + "x" + liveCols + "/" + liveWinLength, currentOpening, currentMoves, currentState,
+                    currentFirstPlayer, currentFirstUsername, currentSecondUsername);
+        }
+        currentGameId = null;
+    }
+
+    /**
+     * Memutar ulang satu game arsip di Board dan menambahkannya ke agregat.
+     * Dapat dipanggil langsung untuk menganalisis arsip dari MoveStore lain.
+     */
+    public void acceptArchivedGame(ArchivedGame game) {
+        int cols = game.getCols();
+        Board board = boardFor(game.getRows(), cols, game.getWinLength());
+        State state = State.PLAYING;
+        Seed seed = game.getFirstPlayer();
+        for (int i = 0; i < game.getMoveCount(); i++) {
+            int cell = game.getCell(i);
+            if (state != State.PLAYING || !board.isEmptyAt(cell)) {
+                state = null;
+                break;
+            }
+            state = board.stepGame(seed, cell / cols, cell % cols);
+            seed = (seed == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        }
+        if (state == null || state == State.PLAYING || game.getMoveCount() == 0) {
+            skippedGames++;
+            return;
+        }
+        Seed first = game.getFirstPlayer();
+        String firstUsername = (first == Seed.CROSS) ? game.getCrossUsername() : game.getNoughtUsername();
+        String secondUsername = (first == Seed.CROSS) ? game.getNoughtUsername() : game.getCrossUsername();
+        record(game.getRows() + "x" + cols + "/" + game.getWinLength(), game.getCell(0), game.getMoveCount(), state,
+                first, firstUsername, secondUsername);
+    }
+
+    /**
+     * Mengembalikan Board kosong untuk ukuran yang diberikan (satu instance per ukuran, dipakai ulang).
+     */
+    private Board boardFor(int rows, int cols, int winLength) {
+        Board board = boards.computeIfAbsent(rows + "x" + cols + "/" + winLength, key -> new Board(rows, cols, winLength));
+        board.newGame();
+        return board;
+    }
+
+    /**
+     * Menambahkan hasil satu game yang sudah selesai ke semua agregat.
+     */
+    private void record(String boardKey, int opening, int moves, State result, Seed firstPlayer,
+                        String firstUsername, String secondUsername) {
+        boolean draw = result == State.DRAW;
+        boolean firstWon = (result == State.CROSS_WON) == (firstPlayer == Seed.CROSS);
+        games++;
+        totalMoves += moves;
+        overall.add(draw, firstWon);
+        openings.computeIfAbsent(boardKey + ":" + opening, key -> new ResultCounts()).add(draw, firstWon);
+        if (firstUsername != null) {
+            users.computeIfAbsent(firstUsername, key -> new UserStats()).first.add(draw, firstWon);
+        }
+        if (secondUsername != null) {
+            users.computeIfAbsent(secondUsername, key -> new UserStats()).second.add(draw, !firstWon);
+        }
+    }
+
+    /**
+     * Menulis agregat ke tabel ringkasan dalam satu transaksi (isi lama diganti).
+     */
+    private void writeSummary(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+             PreparedStatement summary = connection.prepareStatement(
+                     "REPLACE INTO analytics_summary (id, games, total_moves, first_player_wins, second_player_wins, draws, computed_at) "
+                             + "VALUES (1, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP)");
+             PreparedStatement opening = connection.prepareStatement(
+                     "INSERT INTO analytics_openings (board, cell, games, first_player_wins, second_player_wins, draws) "
+                             + "VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement user = connection.prepareStatement(
+                     "INSERT INTO analytics_users (username, games_first, wins_first, draws_first, games_second, wins_second, draws_second) "
+                             + "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            statement.executeUpdate("DELETE FROM analytics_openings");
+            statement.executeUpdate("DELETE FROM analytics_users");
+
+            summary.setLong(1, games);
+            summary.setLong(2, totalMoves);
+            summary.setLong(3, overall.wins);
+            summary.setLong(4, overall.losses);
+            summary.setLong(5, overall.draws);
+            summary.executeUpdate();
+
+            int pending = 0;
+            for (Map.Entry<String, ResultCounts> entry : openings.entrySet()) {
+                int separator = entry.getKey().lastIndexOf(':');
+                ResultCounts counts = entry.getValue();
+                opening.setString(1, entry.getKey().substring(0, separator));
+                opening.setInt(2, Integer.parseInt(entry.getKey().substring(separator + 1)));
+                opening.setLong(3, counts.games);
+                opening.setLong(4, counts.wins);
+                opening.setLong(5, counts.losses);
+                opening.setLong(6, counts.draws);
+                opening.addBatch();
+                if (++pending % WRITE_BATCH_SIZE == 0) {
+                    opening.executeBatch();
+                }
+            }
+            opening.executeBatch();
+
+            pending = 0;
+            for (Map.Entry<String, UserStats> entry : users.entrySet()) {
+                UserStats stats = entry.getValue();
+                user.setString(1, entry.getKey());
+                user.setLong(2, stats.first.games);
+                user.setLong(3, stats.first.wins);
+                user.setLong(4, stats.first.draws);
+                user.setLong(5, stats.second.games);
+                user.setLong(6, stats.second.wins);
+                user.setLong(7, stats.second.draws);
+                user.addBatch();
+                if (++pending % WRITE_BATCH_SIZE == 0) {
+                    user.executeBatch();
+                }
+            }
+            user.executeBatch();
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            // Harus di-rollback sebelum autocommit dinyalakan lagi: setAutoCommit(true) meng-commit
+            // transaksi yang masih terbuka, termasuk DELETE di atas
+            rollback(connection);
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        System.out.println("MoveHistoryAnalytics: Wrote " + openings.size() + " openings and " + users.size() + " users");
+    }
+
+    /**
+     * Me-rollback transaksi writeSummary yang gagal; kegagalan rollback hanya dicatat agar error aslinya tetap dilempar.
+     */
+    private static void rollback(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            System.err.println("MoveHistoryAnalytics: Error rolling back summary: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mencetak ringkasan hasil ke konsol.
+     */
+    public void printReport() {
+        System.out.printf(Locale.ROOT, "Games: %d, average length: %.2f moves%n", games, getAverageGameLength());
+        System.out.printf(Locale.ROOT, "First player wins %.1f%%, second player wins %.1f%%, draws %.1f%%%n",
+                percent(overall.wins), percent(overall.losses), percent(overall.draws));
+        for (Map.Entry<String, ResultCounts> entry : openings.entrySet()) {
+            ResultCounts counts = entry.getValue();
+            System.out.printf(Locale.ROOT, "  Opening %-12s %6d games, first player wins %.1f%%%n",
+                    entry.getKey(), counts.games, counts.winRate() * 100.0);
+        }
+        for (Map.Entry<String, UserStats> entry : users.entrySet()) {
+            UserStats stats = entry.getValue();
+            System.out.printf(Locale.ROOT, "  User %-16s first %d games (%.1f%% won), second %d games (%.1f%% won), advantage %+.1f%%%n",
+                    entry.getKey(), stats.first.games, stats.first.winRate() * 100.0, stats.second.games,
+                    stats.second.winRate() * 100.0, stats.firstMoveAdvantage() * 100.0);
+        }
+    }
+
+    private double percent(long count) {
+        return games == 0 ? 0.0 : count * 100.0 / games;
+    }
+
+    public long getGames() { return games; } // Mengembalikan jumlah game yang dianalisis
+    public long getSkippedGames() { return skippedGames; } // Mengembalikan jumlah game yang dilewati
+    public double getAverageGameLength() { return games == 0 ? 0.0 : (double) totalMoves / games; } // Mengembalikan rata-rata panjang game
+    public double getFirstPlayerWinRate() { return overall.winRate(); } // Mengembalikan tingkat kemenangan pemain yang jalan duluan
+
+    /**
+     * Titik masuk job analitik dari baris perintah. Riwayat dibaca dari database default DatabaseManager,
+     * atau dari read replica dengan -replica host:port; tabel ringkasan selalu ditulis ke database default.
+     */
+    public static void main(String[] args) throws SQLException, ClassNotFoundException {
+        int rows = Board.DEFAULT_ROWS;
+        int cols = Board.DEFAULT_COLS;
+        int winLength = Board.DEFAULT_WIN_LENGTH;
+        String replica = null;
+        for (int i = 0; i + 1 < args.length; i++) {
+            try {
+                switch (args[i].toLowerCase(Locale.ROOT)) {
+                    case "-rows": rows = Integer.parseInt(args[++i]); break;
+                    case "-cols": cols = Integer.parseInt(args[++i]); break;
+                    case "-win": winLength = Integer.parseInt(args[++i]); break;
+                    case "-replica": replica = args[++i]; break;
+                }
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid command line argument: " + args[i]);
+            }
+        }
+
+        MoveHistoryAnalytics analytics = new MoveHistoryAnalytics(rows, cols, winLength);
+        if (replica == null) {
+            try (Connection connection = DatabaseManager.getConnection()) {
+                analytics.run(connection);
+            }
+        } else {
+            String[] parts = replica.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Replica must be host:port: " + replica);
+            }
+            try (Connection source = DatabaseManager.getPool(parts[0], parts[1]).getConnection();
+                 Connection target = DatabaseManager.getConnection()) {
+                analytics.run(source, target);
+            }
+        }
+        analytics.printReport();
+    }
+}
@@ -0,0 +1,374 @@
+// package MoveJournal; // Asumsi paket jika tidak ada di file.
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Kelas MoveJournal adalah write-ahead journal lokal untuk langkah multiplayer yang dikirim.
+ * append() menulis langkah ke file journal dan memanggil fsync sebelum kembali, sehingga langkah
+ * yang sudah diterapkan di papan lokal tidak hilang walaupun database sedang tidak bisa dihubungi
+ * atau aplikasi berhenti. Thread replayer di latar belakang mengirim semua langkah yang tertunda
+ * sekaligus lewat MoveStore.submitMove (di MySqlMoveStore dikumpulkan dalam satu batch oleh
+ * MoveWriteBehindQueue; idempoten menurut game_id dan move_number, sekaligus membaca langkah lawan
+ * yang sudah ada), mencoba ulang langkah yang gagal dengan jeda yang makin panjang selama database
+ * gagal, lalu menandai langkah sebagai terkirim (ACK).
+ * Format file: header "TTTWAL01", lalu record: int panjang, int CRC32 isi, isi =
+ *   byte jenis (1 = langkah, 2 = ACK), long nomor urut, lalu untuk langkah: string gameId,
+ *   int moveNumber, string username, string seed, int row, int col (string = short panjang + UTF-8).
+ * Saat dibuka, record dibaca sampai record pertama yang rusak/terpotong; langkah tanpa ACK dikirim ulang.
+ * File dikosongkan setiap kali semua langkah sudah terkirim.
+ */
+public class MoveJournal {
+    private static final byte[] MAGIC = "TTTWAL01".getBytes(StandardCharsets.US_ASCII);
+    private static final byte RECORD_MOVE = 1;
+    private static final byte RECORD_ACK = 2;
+    private static final long MIN_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5_000;
+
+    /**
+     * Satu langkah yang belum terkirim beserta future-nya.
+     */
+    private static final class PendingMove {
+        final long sequence;
+        final DatabaseManager.Move move;
+        final CompletableFuture<MoveExchangeResult> future = new CompletableFuture<>();
+
+        PendingMove(long sequence, DatabaseManager.Move move) {
+            this.sequence = sequence;
+            this.move = move;
+        }
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final MoveStore store;
+    private final Deque<PendingMove> pending = new ArrayDeque<>(); // Dijaga oleh kunci objek ini
+    private final Thread replayer;
+    private volatile Consumer<String> statusListener;
+    private volatile boolean closed;
+    private long nextSequence = 1;
+
+    /**
+     * Membuka (atau membuat) journal pada path untuk MoveStore store. Langkah yang belum terkirim dari
+     * sesi sebelumnya dibaca ulang dan dikirim oleh thread replayer, yang langsung dijalankan.
+     */
+    public MoveJournal(Path path, MoveStore store) throws SQLException {
+        this.path = path;
+        this.store = store;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new SQLException("Cannot open move journal " + path + ": " + e.getMessage(), e);
+        }
+        if (!pending.isEmpty()) {
+            System.out.println("MoveJournal: " + pending.size() + " unsent moves recovered from " + path);
+        }
+        replayer = new Thread(this::replayLoop, "move-journal-replay");
+        replayer.setDaemon(true);
+        replayer.start();
+    }
+
+    /**
+     * Membaca journal: langkah tanpa ACK masuk ke antrian kirim. Bagian file setelah record terakhir
+     * yang utuh dibuang.
+     */
+    private void recover() throws IOException, SQLException {
+        long size = channel.size();
+        if (size < MAGIC.length) {
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(MAGIC), 0);
+            channel.force(true);
+            channel.position(MAGIC.length);
+            return;
+        }
+        ByteBuffer content = ByteBuffer.allocate((int) size);
+        channel.read(content, 0);
+        content.flip();
+        byte[] magic = new byte[MAGIC.length];
+        content.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new SQLException("Not a move journal file: " + path);
+        }
+        Map<Long, DatabaseManager.Move> unsent = new LinkedHashMap<>();
+        long end = MAGIC.length;
+        while (content.remaining() >= 8) {
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length <= 0 || length > content.remaining()) {
+                break; // Record terpotong
+            }
+            byte[] body = new byte[length];
+            content.get(body);
+            if (crc(body) != checksum) {
+                break; // Record rusak
+            }
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte type = record.get();
+            long sequence = record.getLong();
+            if (type == RECORD_MOVE) {
+                unsent.put(sequence, readMove(record));
+            } else if (type == RECORD_ACK) {
+                unsent.remove(sequence);
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            end = content.position();
+        }
+        if (end < size) {
+            System.err.println("MoveJournal: Discarding " + (size - end) + " bytes of torn journal data");
+            channel.truncate(end);
+        }
+        channel.position(end);
+        for (Map.Entry<Long, DatabaseManager.Move> entry : unsent.entrySet()) {
+            pending.addLast(new PendingMove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Menulis langkah ke journal dan menunggu fsync selesai. Future selesai dengan hasil exchangeMove
+     * setelah langkah dikirim ke MoveStore: ACCEPTED, atau CONFLICT jika nomor langkahnya sudah dipakai
+     * langkah lain (kegagalan koneksi tidak menggagalkan future, hanya menunda).
+     */
+    public CompletableFuture<MoveExchangeResult> append(DatabaseManager.Move move) throws SQLException {
+        synchronized (this) {
+            if (closed) {
+                throw new SQLException("Move journal is closed: " + path);
+            }
+            PendingMove entry = new PendingMove(nextSequence++, move);
+            write(encodeMove(entry), true);
+            pending.addLast(entry);
+            notifyAll(); // Membangunkan replayer
+            return entry.future;
+        }
+    }
+
+    /**
+     * Loop thread replayer: mengirim semua langkah yang tertunda sekaligus sesuai urutan, menulis ACK untuk
+     * langkah yang sudah ditukar, lalu mencoba ulang sisanya setelah jeda. Langkah dari game yang berbeda
+     * masuk batch yang sama; langkah sebuah game tidak dikirim jika langkah sebelumnya dari game yang sama
+     * gagal, sehingga tidak ada celah nomor langkah.
+     */
+    private void replayLoop() {
+        long retryDelay = MIN_RETRY_DELAY_MILLIS;
+        boolean outage = false;
+        while (true) {
+            List<PendingMove> batch;
+            synchronized (this) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+            }
+            List<CompletableFuture<MoveExchangeResult>> sent = new ArrayList<>(batch.size());
+            Map<String, CompletableFuture<MoveExchangeResult>> lastSentByGame = new HashMap<>();
+            for (PendingMove entry : batch) {
+                CompletableFuture<MoveExchangeResult> previous = lastSentByGame.get(entry.move.gameId);
+                // Langkah berikutnya dari game yang sama dikirim setelah langkah sebelumnya tersimpan
+                CompletableFuture<MoveExchangeResult> future = (previous == null)
+                        ? store.submitMove(entry.move)
+                        : previous.thenCompose(result -> store.submitMove(entry.move));
+                sent.add(future);
+                lastSentByGame.put(entry.move.gameId, future);
+            }
+            Throwable failure = null;
+            for (int i = 0; i < batch.size(); i++) {
+                PendingMove entry = batch.get(i);
+                try {
+                    MoveExchangeResult result = sent.get(i).get();
+                    if (!result.isAccepted()) {
+                        // Tidak akan berhasil walaupun dicoba ulang: langkah dibuang dari journal
+                        System.err.println("MoveJournal: Move rejected by store: " + entry.move);
+                    }
+                    acknowledge(entry);
+                    entry.future.complete(result);
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                        System.err.println("MoveJournal: Error sending move " + entry.move.moveNumber + ", retrying in "
+                                + retryDelay + " ms: " + failure.getMessage());
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (failure == null) {
+                if (outage) {
+                    outage = false;
+                    reportStatus("Database connection restored, journaled moves sent.");
+                }
+                retryDelay = MIN_RETRY_DELAY_MILLIS;
+                continue;
+            }
+            if (!outage) {
+                outage = true;
+                reportStatus("Database unavailable, move saved locally. Retrying...");
+            }
+            synchronized (this) {
+                try {
+                    if (!closed) {
+                        wait(retryDelay);
+                    }
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+            retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * Menandai langkah sebagai terkirim. ACK tidak perlu fsync: jika hilang, langkah hanya dikirim ulang
+     * dan penukaran yang idempoten mengabaikannya. Jika tidak ada lagi langkah yang tertunda, file dikosongkan.
+     */
+    private synchronized void acknowledge(PendingMove entry) {
+        pending.remove(entry);
+        try {
+            if (pending.isEmpty()) {
+                channel.truncate(MAGIC.length);
+                channel.position(MAGIC.length);
+            } else {
+                ByteBuffer body = ByteBuffer.allocate(1 + 8);
+                body.put(RECORD_ACK);
+                body.putLong(entry.sequence);
+                write(body.array(), false);
+            }
+        } catch (IOException | SQLException e) {
+            System.err.println("MoveJournal: Error writing acknowledgement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Menulis satu record (panjang, CRC32, isi) di akhir journal, dengan fsync jika sync aktif.
+     */
+    private void write(byte[] body, boolean sync) throws SQLException {
+        ByteBuffer record = ByteBuffer.allocate(8 + body.length);
+        record.putInt(body.length);
+        record.putInt(crc(body));
+        record.put(body);
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot write move journal " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] encodeMove(PendingMove entry) {
+        DatabaseManager.Move move = entry.move;
+        byte[] gameId = move.gameId.getBytes(StandardCharsets.UTF_8);
+        byte[] username = move.playerUsername.getBytes(StandardCharsets.UTF_8);
+        byte[] seed = move.playerSeed.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer body = ByteBuffer.allocate(1 + 8 + 2 + gameId.length + 4 + 2 + username.length + 2 + seed.length + 4 + 4);
+        body.put(RECORD_MOVE);
+        body.putLong(entry.sequence);
+        writeString(body, gameId);
+        body.putInt(move.moveNumber);
+        writeString(body, username);
+        writeString(body, seed);
+        body.putInt(move.row);
+        body.putInt(move.col);
+        return body.array();
+    }
+
+    private static DatabaseManager.Move readMove(ByteBuffer record) {
+        String gameId = readString(record);
+        int moveNumber = record.getInt();
+        String username = readString(record);
+        String seed = readString(record);
+        int row = record.getInt();
+        int col = record.getInt();
+        return new DatabaseManager.Move(gameId, moveNumber, username, seed, row, col);
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private void reportStatus(String message) {
+        Consumer<String> listener = statusListener;
+        if (listener != null) {
+            listener.accept(message);
+        }
+    }
+
+    /**
+     * Mengatur pendengar pesan status (dipanggil dari thread replayer saat database mati atau pulih).
+     */
+    public void setStatusListener(Consumer<String> listener) {
+        this.statusListener = listener;
+    }
+
+    /**
+     * Menghentikan replayer dan menutup file. Langkah yang belum terkirim tetap ada di journal
+     * dan dikirim saat journal dibuka lagi.
+     */
+    public void close() throws SQLException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            replayer.join(MAX_RETRY_DELAY_MILLIS);
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new SQLException("Error closing move journal " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Mengembalikan jumlah langkah yang belum terkirim per game (untuk logging).
+     */
+    public synchronized Map<String, Integer> getPendingCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (PendingMove entry : pending) {
+            counts.merge(entry.move.gameId, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public synchronized int getPendingCount() { return pending.size(); } // Mengembalikan jumlah langkah yang belum terkirim
+}
@@ -0,0 +1,128 @@
+// package MoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface MoveStore adalah tempat penyimpanan langkah game multiplayer.
+ * MultiplayerManager hanya bergantung pada interface ini, sehingga multiplayer dapat berjalan
+ * di atas MySQL (MySqlMoveStore), di memori (InMemoryMoveStore, untuk uji beban dan game lokal),
+ * atau di file log lokal (FileMoveStore, untuk game LAN/offline).
+ * Semua implementasi melaporkan kegagalan sebagai SQLException, seperti lapisan database yang lama.
+ * Game yang sudah selesai dipindahkan ke arsip ringkas (ArchivedGame) lewat archiveGame(), sehingga
+ * penyimpanan langkah live hanya berisi game yang sedang berjalan.
+ */
+public interface MoveStore {
+    /**
+     * Menyimpan satu langkah dan menunggu sampai tersimpan.
+     */
+    void insertMove(DatabaseManager.Move move) throws SQLException;
+
+    /**
+     * Menukar langkah secara asinkron, seperti exchangeMove(move, move.moveNumber - 1). Implementasi
+     * default menukarnya langsung dan mengembalikan future yang sudah selesai; MySqlMoveStore
+     * mengumpulkan langkah dari semua game dalam batch lewat MoveWriteBehindQueue.
+     */
+    default CompletableFuture<MoveExchangeResult> submitMove(DatabaseManager.Move move) {
+        try {
+            return CompletableFuture.completedFuture(exchangeMove(move, move.moveNumber - 1));
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Menyimpan langkah secara idempoten menurut (gameId, moveNumber): mengembalikan true jika langkah
+     * baru disimpan, atau false jika langkah yang sama persis sudah tersimpan (misalnya saat dikirim ulang).
+     * Melempar SQLIntegrityConstraintViolationException jika nomor langkah itu sudah dipakai langkah lain.
+     * Implementasi default memeriksa lalu menyimpan (tidak atomik); implementasi sebaiknya menggantinya.
+     */
+    default boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLException {
+        List<DatabaseManager.Move> existing = fetchMoves(move.gameId, move.moveNumber - 1);
+        if (!existing.isEmpty() && existing.get(0).moveNumber == move.moveNumber) {
+            checkSameMove(existing.get(0), move);
+            return false;
+        }
+        insertMove(move);
+        return true;
+    }
+
+    /**
+     * Menukar langkah: menyimpan move (idempoten, dijaga oleh nomor langkah yang unik per game) dan
+     * mengembalikan langkah-langkah yang sudah tersimpan setelah lastKnownMoveNumber, sehingga langkah
+     * lawan yang sudah ada ikut terbaca tanpa polling terpisah. Nomor langkah yang sudah dipakai
+     * langkah lain dilaporkan sebagai MoveExchangeResult.Status.CONFLICT, bukan sebagai exception.
+     * Implementasi default memakai dua operasi; MySqlMoveStore melakukannya dalam satu round trip.
+     */
+    default MoveExchangeResult exchangeMove(DatabaseManager.Move move, int lastKnownMoveNumber) throws SQLException {
+        try {
+            insertMoveIfAbsent(move);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // Bentrok: langkah yang tersimpan ikut dikembalikan lewat fetchMoves di bawah
+        }
+        return MoveExchangeResult.fromStoredMoves(move, fetchMoves(move.gameId, lastKnownMoveNumber));
+    }
+
+    /**
+     * Melempar SQLIntegrityConstraintViolationException jika stored (langkah yang sudah tersimpan dengan
+     * nomor yang sama) bukan langkah yang sama dengan move.
+     */
+    static void checkSameMove(DatabaseManager.Move stored, DatabaseManager.Move move) throws SQLIntegrityConstraintViolationException {
+        if (stored.row != move.row || stored.col != move.col || !stored.playerSeed.equals(move.playerSeed)) {
+            throw new SQLIntegrityConstraintViolationException("Move number " + move.moveNumber + " of game " + move.gameId
+                    + " is already taken by " + stored);
+        }
+    }
+
+    /**
+     * Mengambil langkah game gameId dengan nomor lebih besar dari lastMoveNumber, urut naik.
+     */
+    List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) throws SQLException;
+
+    /**
+     * Mengambil langkah baru untuk banyak game sekaligus: untuk setiap entri (gameId, lastMoveNumber),
+     * langkah game tersebut dengan nomor lebih besar dari lastMoveNumber, urut naik. Game tanpa langkah
+     * baru tidak ada di map hasil. Implementasi default memanggil fetchMoves per game;
+     * MySqlMoveStore melakukannya dengan satu query untuk semua game.
+     */
+    default Map<String, List<DatabaseManager.Move>> fetchMovesForGames(Map<String, Integer> lastMoveNumbers) throws SQLException {
+        Map<String, List<DatabaseManager.Move>> movesByGame = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : lastMoveNumbers.entrySet()) {
+            List<DatabaseManager.Move> moves = fetchMoves(entry.getKey(), entry.getValue());
+            if (!moves.isEmpty()) {
+                movesByGame.put(entry.getKey(), moves);
+            }
+        }
+        return movesByGame;
+    }
+
+    /**
+     * Menghapus semua langkah game gameId.
+     */
+    void clearGameMoves(String gameId) throws SQLException;
+
+    /**
+     * Menyimpan game yang sudah selesai sebagai satu record arsip (menggantikan arsip lama dengan ID
+     * yang sama), lalu menghapus langkah live game tersebut.
+     */
+    void archiveGame(ArchivedGame game) throws SQLException;
+
+    /**
+     * Mengambil arsip game gameId, atau null jika game tersebut tidak diarsipkan.
+     */
+    ArchivedGame fetchArchivedGame(String gameId) throws SQLException;
+
+    /**
+     * Mengembalikan ID semua game yang tersimpan, baik yang masih live maupun yang diarsipkan.
+     */
+    List<String> listGameIds() throws SQLException;
+
+    /**
+     * Menghapus game gameId seluruhnya: langkah live dan arsipnya (misalnya setelah dipindahkan ke shard lain).
+     */
+    void deleteGame(String gameId) throws SQLException;
+}
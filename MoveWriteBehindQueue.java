@@ -0,0 +1,216 @@
+// package MoveWriteBehindQueue; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kelas MoveWriteBehindQueue menyimpan langkah ke database secara asinkron (write-behind).
+ * Langkah dari semua game yang aktif dimasukkan ke antrian terbatas dan ditulis oleh satu thread
+ * penulis dalam batch (DatabaseManager.exchangeMoves: satu INSERT multi-baris yang idempoten menurut
+ * (game_id, move_number), lalu satu pembacaan untuk semua game), yang dikirim saat batch penuh atau
+ * setelah jeda singkat. Dengan demikian satu round trip database melayani banyak langkah, dan langkah
+ * yang dikirim ulang (misalnya oleh MoveJournal) tidak menggagalkan batch.
+ * - Back-pressure: jika antrian penuh, enqueue() menunggu paling lama ENQUEUE_TIMEOUT_MILLIS,
+ *   lalu future-nya gagal.
+ * - Urutan: hanya ada satu penulis dan antrian bersifat FIFO, sehingga langkah satu game_id
+ *   selalu ditulis sesuai urutan enqueue. Jika satu langkah gagal, langkah berikutnya dari game yang
+ *   sama di batch itu ikut gagal tanpa ditulis, sehingga tidak ada celah nomor langkah.
+ * - Durabilitas: flush() menunggu semua langkah sebelumnya tertulis, dan shutdown hook
+ *   mengosongkan antrian sebelum JVM berhenti.
+ */
+public class MoveWriteBehindQueue {
+    public static final int DEFAULT_CAPACITY = 10_000;       // Jumlah langkah maksimum dalam antrian
+    public static final int DEFAULT_MAX_BATCH = 200;         // Jumlah langkah maksimum per batch
+    public static final long DEFAULT_FLUSH_DELAY_MILLIS = 20; // Jeda maksimum untuk mengumpulkan batch
+    private static final long ENQUEUE_TIMEOUT_MILLIS = 2_000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * Satu entri antrian: langkah yang akan ditulis, atau penanda flush (move == null).
+     */
+    private static final class PendingWrite {
+        final DatabaseManager.Move move;
+        final CompletableFuture<MoveExchangeResult> future = new CompletableFuture<>();
+
+        PendingWrite(DatabaseManager.Move move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * Tujuan penulisan batch: menukar semua langkah dan mengembalikan hasil per langkah, sesuai urutan.
+     */
+    public interface BatchWriter {
+        List<MoveExchangeResult> write(List<DatabaseManager.Move> moves) throws SQLException;
+    }
+
+    private final BlockingQueue<PendingWrite> queue;
+    private final BatchWriter writer;
+    private final int maxBatch;
+    private final long flushDelayMillis;
+    private final Thread writerThread;
+    private volatile boolean shuttingDown;
+
+    /**
+     * Konstruktor untuk antrian write-behind dengan tujuan dan ukuran yang ditentukan.
+     * Thread penulis dan shutdown hook langsung didaftarkan.
+     */
+    public MoveWriteBehindQueue(BatchWriter writer, int capacity, int maxBatch, long flushDelayMillis) {
+        if (capacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("capacity and maxBatch must be at least 1");
+        }
+        this.writer = writer;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.maxBatch = maxBatch;
+        this.flushDelayMillis = flushDelayMillis;
+        this.writerThread = new Thread(this::writeLoop, "move-write-behind");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(SHUTDOWN_TIMEOUT_MILLIS), "move-write-behind-flush"));
+    }
+
+    /**
+     * Memasukkan langkah ke antrian. Future selesai dengan hasil pertukarannya setelah langkah
+     * tertulis di database, atau gagal jika penulisan gagal atau antrian tetap penuh.
+     */
+    public CompletableFuture<MoveExchangeResult> enqueue(DatabaseManager.Move move) {
+        return offer(new PendingWrite(move));
+    }
+
+    /**
+     * Mengembalikan future yang selesai setelah semua langkah yang masuk sebelumnya tertulis.
+     */
+    public CompletableFuture<Void> flush() {
+        return offer(new PendingWrite(null)).thenApply(ignored -> null);
+    }
+
+    private CompletableFuture<MoveExchangeResult> offer(PendingWrite pending) {
+        if (shuttingDown) {
+            pending.future.completeExceptionally(new SQLException("Write-behind queue is shut down"));
+            return pending.future;
+        }
+        try {
+            if (!queue.offer(pending, ENQUEUE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                pending.future.completeExceptionally(new SQLException("Write-behind queue is full"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    /**
+     * Loop thread penulis: mengambil langkah pertama, menunggu sebentar untuk langkah lain,
+     * lalu menulis semuanya dalam satu batch.
+     */
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (shuttingDown && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushDelayMillis);
+                while (batch.size() < maxBatch && first.move != null) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    if (next.move == null) {
+                        break; // Penanda flush: tulis sekarang
+                    }
+                }
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch.clear();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Menulis satu batch. Jika batch gagal, langkah ditulis ulang satu per satu sesuai urutan
+     * sehingga hanya langkah yang benar-benar gagal (dan langkah sesudahnya di game yang sama)
+     * yang future-nya gagal.
+     */
+    private void writeBatch(List<PendingWrite> batch) {
+        List<DatabaseManager.Move> moves = new ArrayList<>(batch.size());
+        for (PendingWrite pending : batch) {
+            if (pending.move != null) {
+                moves.add(pending.move);
+            }
+        }
+        if (!moves.isEmpty()) {
+            try {
+                List<MoveExchangeResult> results = writer.write(moves);
+                int index = 0;
+                for (PendingWrite pending : batch) {
+                    pending.future.complete(pending.move != null ? results.get(index++) : null);
+                }
+                return;
+            } catch (SQLException e) {
+                System.err.println("MoveWriteBehindQueue: Batch of " + moves.size() + " moves failed, retrying one by one: "
+                        + e.getMessage());
+            }
+        }
+        Set<String> failedGames = new HashSet<>();
+        for (PendingWrite pending : batch) {
+            if (pending.move == null) {
+                pending.future.complete(null); // Semua langkah sebelum penanda sudah diproses
+                continue;
+            }
+            if (failedGames.contains(pending.move.gameId)) {
+                pending.future.completeExceptionally(new SQLException("Earlier move of game " + pending.move.gameId
+                        + " was not written, move " + pending.move.moveNumber + " is not sent"));
+                continue;
+            }
+            try {
+                List<DatabaseManager.Move> single = new ArrayList<>(1);
+                single.add(pending.move);
+                pending.future.complete(writer.write(single).get(0));
+            } catch (SQLException e) {
+                System.err.println("MoveWriteBehindQueue: Error writing move " + pending.move + ": " + e.getMessage());
+                failedGames.add(pending.move.gameId);
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Berhenti menerima langkah baru dan menunggu (paling lama timeoutMillis) sampai antrian kosong.
+     */
+    public void shutdown(long timeoutMillis) {
+        shuttingDown = true;
+        try {
+            writerThread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println("MoveWriteBehindQueue: " + queue.size() + " moves were not written before shutdown");
+        }
+    }
+
+    public int getQueuedCount() { return queue.size(); } // Mengembalikan jumlah entri dalam antrian
+}
@@ -1,15 +1,42 @@
 // package MultiplayerManager; // Asumsi paket jika tidak ada di file.
 
 import javax.swing.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Kelas MultiplayerManager mengelola logika dan alur permainan dalam mode multiplayer.
  * Implementasi multiplayer ini menggunakan database sebagai perantara untuk
  * menyinkronkan state papan antara dua pemain (polling database).
+ * Penyimpanan langkah diakses lewat interface MoveStore (default MySQL), sehingga multiplayer
+ * juga dapat berjalan di memori atau di file log lokal.
+ * Setiap langkah lokal dikirim dengan MoveStore.submitMove (penukaran idempoten, di MySQL dalam batch):
+ * langkah disimpan dan langkah lawan yang sudah ada ikut terbaca; bentrok nomor langkah membatalkan
+ * langkah lokal.
+ * Saat game berakhir, klien yang menerima langkah terakhir (dan karena itu sudah melihat semua
+ * langkah) memindahkan game ke arsip ringkas, sehingga penyimpanan live hanya berisi game yang berjalan,
+ * lalu mencatat hasilnya di leaderboard (sekali per game).
+ * Jika RelayClient diatur, langkah lawan didorong oleh RelayServer begitu dibuat. Langkah sebelum
+ * berlangganan dan langkah yang terlewat (celah nomor langkah) diambil dari snapshot relay, bukan dari
+ * database. Selama relay terhubung hanya polling cadangan yang berjalan (dengan jeda maksimum
+ * PollScheduler), untuk langkah yang tidak pernah sampai lewat relay. Jika koneksi relay terputus atau
+ * langkah lokal gagal diteruskan ke relay, MultiplayerManager kembali ke polling cepat.
+ * Selain game sendiri, pengguna dapat menonton banyak game sekaligus (GameTracker, ditampilkan di
+ * SpectatorPanel). Satu polling mengambil langkah baru untuk game sendiri dan semua game yang ditonton
+ * dengan satu panggilan MoveStore.fetchMovesForGames, lalu membagi hasilnya ke papan masing-masing.
+ * Semua akses MoveStore dan journal berjalan di executor I/O khusus, tidak pernah di EDT: langkah lokal
+ * langsung digambar (optimistis), lalu dikonfirmasi atau dibatalkan setelah penyimpanan selesai, dan
+ * semua hasil dikembalikan ke EDT lewat SwingUtilities.invokeLater.
  */
 public class MultiplayerManager {
     // Referensi ke objek-objek inti game
@@ -18,6 +45,21 @@ public class MultiplayerManager {
     private final GamePanel gamePanel;
     private String gameId;         // ID unik untuk game multiplayer saat ini
     private int lastMoveNumber;    // Nomor langkah terakhir yang diketahui dari database
+    private MoveStore moveStore = new MySqlMoveStore(); // Tempat penyimpanan langkah
+    private Leaderboard leaderboard; // Tempat mencatat hasil game per pengguna (boleh null)
+    private MoveJournal moveJournal; // Journal lokal untuk langkah yang dikirim (boleh null)
+    private RelayClient relayClient; // Relay yang mendorong langkah lawan (boleh null: polling database)
+    private String subscribedGameId; // Game yang dilanggan di relay
+    private final PollScheduler pollScheduler = new PollScheduler(this::checkForOpponentMove); // Satu timer polling per klien
+
+    // Executor khusus untuk I/O MoveStore dan journal (satu thread daemon, sehingga langkah dikirim sesuai urutan)
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "multiplayer-io");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final GameTracker spectatedGames; // Game yang ditonton (hanya diakses di EDT)
+    private JFrame spectatorFrame;           // Jendela SpectatorPanel (null jika tidak menonton)
 
     /**
      * Konstruktor untuk MultiplayerManager.
@@ -31,6 +73,58 @@ public class MultiplayerManager {
         this.gameUI = gameUI;
         this.gamePanel = gamePanel;
         this.lastMoveNumber = 0; // Awalnya, belum ada langkah yang diketahui
+        Board board = gameLogic.getBoard();
+        this.spectatedGames = (board != null)
+                ? new GameTracker(board.getRows(), board.getCols(), board.getWinLength())
+                : new GameTracker(Board.DEFAULT_ROWS, Board.DEFAULT_COLS, Board.DEFAULT_WIN_LENGTH);
+    }
+
+    /**
+     * Mengatur tempat penyimpanan langkah (MySQL, memori, atau file log).
+     */
+    public void setMoveStore(MoveStore moveStore) {
+        this.moveStore = moveStore;
+    }
+
+    /**
+     * Mengatur journal lokal: langkah yang dikirim ditulis (dengan fsync) ke journal lebih dulu, lalu
+     * dikirim ke MoveStore oleh thread replayer, sehingga gangguan database hanya menunda penyimpanan.
+     */
+    public void setMoveJournal(MoveJournal moveJournal) {
+        this.moveJournal = moveJournal;
+        if (moveJournal != null) {
+            moveJournal.setStatusListener(gameUI::setStatusText);
+        }
+    }
+
+    /**
+     * Mengatur relay: langkah lokal diteruskan ke lawan lewat relay dan langkah lawan diterima tanpa polling cepat
+     * (hanya polling cadangan dengan jeda maksimum).
+     * Relay hanya dipakai untuk papan yang langkahnya muat di GameWireCodec (sampai 16x16).
+     */
+    public void setRelayClient(RelayClient relayClient) {
+        Board board = gameLogic.getBoard();
+        if (relayClient != null && board != null
+                && (board.getRows() > GameWireCodec.MAX_BOARD_SIZE || board.getCols() > GameWireCodec.MAX_BOARD_SIZE)) {
+            System.out.println("MultiplayerManager: Board " + board.getRows() + "x" + board.getCols()
+                    + " is too large for the relay, using database polling");
+            relayClient.close();
+            relayClient = null;
+        }
+        this.relayClient = relayClient;
+        if (relayClient != null) {
+            relayClient.setMoveListener(move -> SwingUtilities.invokeLater(() -> onRelayedMove(move)));
+            relayClient.setDisconnectListener(() -> SwingUtilities.invokeLater(this::onRelayDisconnected));
+            relayClient.setSnapshotListener((snapshotGameId, moveNumber, snapshot) ->
+                    SwingUtilities.invokeLater(() -> onRelayedSnapshot(snapshotGameId, moveNumber, snapshot)));
+        }
+    }
+
+    /**
+     * Mengatur leaderboard tempat hasil game multiplayer dicatat.
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard;
     }
 
     /**
@@ -39,12 +133,12 @@ public class MultiplayerManager {
      */
     public void promptMultiplayerSetup() {
         gameUI.updateModeButtonsVisibility(false); // Sembunyikan tombol pilihan mode game
-        String[] options = {"Create Game", "Join Game"}; // Opsi dialog
+        String[] options = {"Create Game", "Join Game", "Spectate Games"}; // Opsi dialog
 
         // Menampilkan dialog pilihan
         int choice = JOptionPane.showOptionDialog(
                 null,
-                "Create a new game or join an existing one?",
+                "Create a new game, join an existing one, or spectate games?",
                 "Multiplayer Setup",
                 JOptionPane.DEFAULT_OPTION,
                 JOptionPane.QUESTION_MESSAGE,
@@ -61,26 +155,18 @@ public class MultiplayerManager {
                 gameUI.showModeButtonsPanel(); // Tampilkan kembali tombol mode game
                 return;
             }
-            try {
-                // Membersihkan langkah-langkah game lama untuk ID game ini (memulai game baru)
-                DatabaseManager.clearGameMoves(gameId);
-            } catch (SQLException | ClassNotFoundException e) {
-                gameUI.setStatusText("Error clearing game moves: " + e.getMessage());
-                System.err.println("MultiplayerManager: Error clearing game moves: " + e.getMessage());
-                gameLogic.setGameMode(null);
-                gameUI.showModeButtonsPanel();
-                return;
-            }
-
-            gameLogic.setPlayerRole("X");    // Pembuat game adalah pemain 'X'
-            gameLogic.setOpponentUsername("Waiting..."); // Lawan belum diketahui
-            gameLogic.newGame();             // Memulai game baru
-            gameLogic.setCurrentState(State.PLAYING); // Mengatur state ke PLAYING
-            gameLogic.setMyTurn(true);       // Giliran pemain lokal
-            gameUI.setStatusText("Game created! Your turn as X. Waiting for opponent..."); // Memperbarui status bar
-            gameUI.updatePlayerNameLabels(); // Memperbarui label nama pemain
-            startPollingForOpponentMove();   // Mulai polling untuk langkah lawan
-            System.out.println("MultiplayerManager: Game created with ID: " + gameId);
+            // Membersihkan langkah-langkah game lama untuk ID game ini (memulai game baru) di thread I/O
+            String newGameId = gameId;
+            gameLogic.setMyTurn(false);      // Papan tidak menerima klik sampai game siap
+            gameUI.setStatusText("Creating game...");
+            MoveStore store = moveStore;
+            CompletableFuture.runAsync(() -> {
+                try {
+                    store.clearGameMoves(newGameId);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, ioExecutor).whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> onGameCleared(newGameId, error)));
         } else if (choice == 1) { // Pengguna memilih "Join Game"
             gameId = JOptionPane.showInputDialog(null, "Enter Game ID to join:"); // Meminta ID game
             if (gameId == null || gameId.trim().isEmpty()) {
@@ -89,6 +175,7 @@ public class MultiplayerManager {
                 gameUI.showModeButtonsPanel();
                 return;
             }
+            lastMoveNumber = 0;
             gameLogic.setPlayerRole("O");    // Bergabung sebagai pemain 'O'
             gameLogic.setOpponentUsername("Host"); // Lawan adalah pembuat game
             gameLogic.newGame();             // Memulai game baru
@@ -96,8 +183,27 @@ public class MultiplayerManager {
             gameLogic.setMyTurn(false);      // Bukan giliran pemain lokal
             gameUI.setStatusText("Joined game as O. Waiting for opponent's move..."); // Memperbarui status bar
             gameUI.updatePlayerNameLabels();
+            subscribeToRelay();              // Langkah lawan didorong relay (jika ada)
             startPollingForOpponentMove();   // Mulai polling untuk langkah lawan
             System.out.println("MultiplayerManager: Joined game with ID: " + gameId);
+        } else if (choice == 2) { // Pengguna memilih "Spectate Games"
+            String input = JOptionPane.showInputDialog(null, "Enter Game IDs to spectate (comma-separated):");
+            gameLogic.setGameMode(null); // Menonton tidak memakai papan utama
+            gameUI.showModeButtonsPanel();
+            List<String> gameIds = new ArrayList<>();
+            if (input != null) {
+                for (String id : input.split(",")) {
+                    if (!id.trim().isEmpty()) {
+                        gameIds.add(id.trim());
+                    }
+                }
+            }
+            if (gameIds.isEmpty()) {
+                gameUI.setStatusText("Game ID cannot be empty!");
+                return;
+            }
+            spectateGames(gameIds);
+            gameUI.setStatusText("Spectating " + spectatedGames.size() + " game(s).");
         } else { // Pengguna membatalkan setup
             gameLogic.setGameMode(null);
             gameUI.showModeButtonsPanel();
@@ -105,9 +211,38 @@ public class MultiplayerManager {
         }
     }
 
+    /**
+     * Dipanggil di EDT setelah langkah lama game baru dihapus: memulai game sebagai pemain 'X'.
+     */
+    private void onGameCleared(String newGameId, Throwable error) {
+        if (!newGameId.equals(gameId)) {
+            return; // Game sudah berganti
+        }
+        if (error != null) {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            gameUI.setStatusText("Error clearing game moves: " + cause.getMessage());
+            System.err.println("MultiplayerManager: Error clearing game moves: " + cause.getMessage());
+            gameLogic.setGameMode(null);
+            gameUI.showModeButtonsPanel();
+            return;
+        }
+        lastMoveNumber = 0;              // Langkah dari game sebelumnya tidak berlaku lagi
+        gameLogic.setPlayerRole("X");    // Pembuat game adalah pemain 'X'
+        gameLogic.setOpponentUsername("Waiting..."); // Lawan belum diketahui
+        gameLogic.newGame();             // Memulai game baru
+        gameLogic.setCurrentState(State.PLAYING); // Mengatur state ke PLAYING
+        gameLogic.setMyTurn(true);       // Giliran pemain lokal
+        gameUI.setStatusText("Game created! Your turn as X. Waiting for opponent..."); // Memperbarui status bar
+        gameUI.updatePlayerNameLabels(); // Memperbarui label nama pemain
+        subscribeToRelay();              // Langkah lawan didorong relay (jika ada)
+        startPollingForOpponentMove();   // Mulai polling untuk langkah lawan
+        System.out.println("MultiplayerManager: Game created with ID: " + gameId);
+    }
+
     /**
      * Dipanggil ketika pemain lokal membuat langkah pada sel (row, col).
-     * Memperbarui papan lokal, menyimpan langkah ke database, dan melanjutkan polling lawan.
+     * Memperbarui papan lokal langsung (optimistis), mengirim langkah di thread I/O, dan melanjutkan
+     * polling lawan. Tidak ada I/O di EDT, sehingga langkah tergambar tanpa menunggu database.
      */
     public void makeMove(int row, int col) {
         // Memeriksa inisialisasi GameLogic dan Board
@@ -118,12 +253,11 @@ public class MultiplayerManager {
         }
         // Memvalidasi langkah: game sedang bermain, giliran pemain lokal, dan sel kosong
         if (gameLogic.getCurrentState() == State.PLAYING && gameLogic.isMyTurn() &&
-            gameLogic.getBoard().cells[row][col].content == Seed.NO_SEED) {
+            gameLogic.getBoard().isEmpty(row, col)) {
             // Menentukan simbol pemain berdasarkan peran
             Seed playerSeed = gameLogic.getPlayerRole().equals("X") ? Seed.CROSS : Seed.NOUGHT;
-            gameLogic.getBoard().cells[row][col].content = playerSeed; // Menetapkan simbol pemain ke sel
             SoundEffect.EAT_FOOD.play(); // Memainkan efek suara
-            // Memperbarui state game setelah langkah pemain
+            // Menetapkan simbol pemain ke sel dan memperbarui state game setelah langkah pemain
             gameLogic.setCurrentState(gameLogic.getBoard().stepGame(playerSeed, row, col));
 
             // Memperbarui tampilan panel secara asinkron di EDT
@@ -132,22 +266,19 @@ public class MultiplayerManager {
                 gamePanel.paintImmediately(gamePanel.getBounds()); // Memaksa gambar ulang segera
             });
 
-            try {
-                // Menyimpan langkah ke database
-                DatabaseManager.insertMove(
-                        gameId,
-                        ++lastMoveNumber, // Meningkatkan nomor langkah
-                        gameLogic.getLoggedInUsername(),
-                        playerSeed.getDisplayName(),
-                        row,
-                        col
-                );
-                System.out.println("MultiplayerManager: Move sent: row=" + row + ", col=" + col + ", gameId=" + gameId + ", moveNumber=" + lastMoveNumber);
-            } catch (SQLException | ClassNotFoundException e) {
-                gameUI.setStatusText("Error saving move to database: " + e.getMessage());
-                System.err.println("MultiplayerManager: Error inserting move: " + e.getMessage());
-                return;
-            }
+            // Mengirim langkah dalam satu round trip (simpan + baca langkah lawan yang sudah ada) di thread I/O:
+            // lewat journal lokal jika ada (tahan gangguan database), selain itu langsung
+            int moveNumber = ++lastMoveNumber; // Meningkatkan nomor langkah
+            DatabaseManager.Move move = new DatabaseManager.Move(
+                    gameId,
+                    moveNumber,
+                    gameLogic.getLoggedInUsername(),
+                    playerSeed.getDisplayName(),
+                    row,
+                    col
+            );
+            sendMoveAsync(move).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> onMoveExchanged(move, result, error)));
+            System.out.println("MultiplayerManager: Move queued: row=" + row + ", col=" + col + ", gameId=" + gameId + ", moveNumber=" + moveNumber);
 
             System.out.println("MultiplayerManager: Game state after player move: " + gameLogic.getCurrentState());
             if (gameLogic.getCurrentState() == State.PLAYING) {
@@ -155,15 +286,10 @@ public class MultiplayerManager {
                 gameUI.setStatusText("Waiting for opponent's move..."); // Memperbarui status bar
                 startPollingForOpponentMove(); // Lanjutkan polling untuk langkah lawan
             } else {
-                // Jika game berakhir
-                gameLogic.updateScore(playerSeed); // Memperbarui skor
-                gameUI.updateScoreLabel(); // Memperbarui label skor di UI
-                gameUI.setStatusText(gameLogic.getCurrentState().getDisplayName() + "! Click Play Again to restart.");
+                // Jika game berakhir: skor dan tombol aksi menunggu langkah diterima (onMoveExchanged)
+                stopPollingIfIdle();         // Tidak ada lagi langkah lawan yang ditunggu
                 gameLogic.setMyTurn(false);
-                gameUI.updateActionButtonsVisibility(true); // Menampilkan tombol aksi
-                gameUI.showModeButtonsPanel(); // Tampilkan kembali tombol mode saat permainan berakhir
-                System.out.println("MultiplayerManager: Setting action buttons visible: true");
-                SoundEffect.WIN.play(); // Memainkan efek suara
+                gameUI.setStatusText(gameLogic.getCurrentState().getDisplayName() + "! Saving the final move...");
             }
         } else {
             gameUI.setStatusText("Invalid move! Cell already occupied or not your turn."); // Pesan error
@@ -171,76 +297,526 @@ public class MultiplayerManager {
     }
 
     /**
-     * Memulai timer yang secara berkala memanggil checkForOpponentMove()
-     * untuk memeriksa pergerakan lawan di database.
+     * Mengirim langkah di thread I/O: ditulis ke journal lokal jika ada (future selesai setelah replayer
+     * menukarnya di MoveStore), selain itu diserahkan ke MoveStore.submitMove (di MySqlMoveStore ditukar
+     * dalam batch bersama langkah lain lewat MoveWriteBehindQueue).
+     * Langkah baru diteruskan ke relay setelah MoveStore menerimanya (ACCEPTED), juga lewat journal,
+     * sehingga lawan tidak pernah menerima langkah yang kemudian dibatalkan (gagal atau bentrok), dan
+     * langkah terakhir sudah tersimpan saat lawan mengarsipkan game.
      */
-    private void startPollingForOpponentMove() {
-        // Membuat timer yang memicu setiap 500ms
-        Timer timer = new Timer(500, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                // Menghentikan timer setelah dipicu (untuk polling sekali pemicu)
-                // Namun, timer ini akan terus berjalan sampai dihentikan secara eksplisit oleh gameLogic.getCurrentState() != State.PLAYING
-                // atau gameLogic.isMyTurn() dalam checkForOpponentMove()
-                // ((Timer) e.getSource()).stop(); // Baris ini mungkin dihilangkan agar polling berkelanjutan
-                checkForOpponentMove(); // Memanggil metode untuk memeriksa langkah lawan
+    private CompletableFuture<MoveExchangeResult> sendMoveAsync(DatabaseManager.Move move) {
+        MoveStore store = moveStore;
+        MoveJournal journal = moveJournal;
+        RelayClient relay = relayClient;
+        return CompletableFuture.supplyAsync(() -> {
+            CompletableFuture<MoveExchangeResult> exchanged = null;
+            if (journal != null) {
+                try {
+                    exchanged = journal.append(move);
+                } catch (SQLException e) {
+                    System.err.println("MultiplayerManager: Cannot journal move, sending directly: " + e.getMessage());
+                }
+            }
+            if (exchanged == null) {
+                exchanged = store.submitMove(move);
+            }
+            exchanged.thenAcceptAsync(result -> {
+                if (result.isAccepted()) {
+                    if (!publishToRelay(relay, move)) { // Di thread I/O, bukan di thread penulis batch atau replayer journal
+                        SwingUtilities.invokeLater(this::onRelayPublishFailed);
+                    }
+                }
+            }, ioExecutor);
+            return exchanged;
+        }, ioExecutor).thenCompose(exchanged -> exchanged);
+    }
+
+    /**
+     * Dipanggil di EDT setelah langkah lokal dikirim. Jika diterima, langkah lawan yang ikut terbaca
+     * langsung diterapkan (tanpa menunggu polling), atau game diselesaikan jika langkah ini mengakhiri
+     * game (skor, suara, dan tombol aksi baru diperbarui di sini). Jika bentrok, langkah lokal dibatalkan di papan
+     * dan langkah yang tersimpan diterapkan sebagai gantinya. Jika gagal disimpan, langkah lokal
+     * dibatalkan dan giliran dikembalikan ke pemain lokal untuk mencoba lagi.
+     */
+    private void onMoveExchanged(DatabaseManager.Move move, MoveExchangeResult result, Throwable error) {
+        if (!move.gameId.equals(gameId)) {
+            return; // Game sudah berganti
+        }
+        if (error != null) {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            System.err.println("MultiplayerManager: Error inserting move: " + cause.getMessage());
+            if (move.moveNumber == lastMoveNumber) { // Belum ada langkah lain sesudahnya: dapat dibatalkan
+                undoLocalMove(move);
+                lastMoveNumber = move.moveNumber - 1;
+                if (gameLogic.getCurrentState() == State.PLAYING) {
+                    gameLogic.setMyTurn(true);
+                    stopPollingIfIdle(); // Belum ada langkah lawan yang ditunggu
+                }
+                gameUI.setStatusText("Error saving move, it was undone. Please try again: " + cause.getMessage());
+                gamePanel.repaint();
+            } else {
+                gameUI.setStatusText("Error saving move to database: " + cause.getMessage());
+            }
+            return;
+        }
+        if (result.getStatus() == MoveExchangeResult.Status.CONFLICT) {
+            System.err.println("MultiplayerManager: Move conflicted, undoing it: " + move);
+            undoLocalMove(move);
+            lastMoveNumber = Math.min(lastMoveNumber, move.moveNumber - 1);
+            gameLogic.setMyTurn(false);
+            gameUI.setStatusText("Your move conflicted with another move and was undone.");
+            gamePanel.repaint();
+            applyOpponentMoves(result.getNewMoves());
+            if (gameLogic.getCurrentState() == State.PLAYING && !gameLogic.isMyTurn()) {
+                startPollingForOpponentMove();
+            }
+            return;
+        }
+        if (gameLogic.getCurrentState() != State.PLAYING && move.moveNumber == lastMoveNumber) {
+            finishLocalGame(move.playerSeed.equals("X") ? Seed.CROSS : Seed.NOUGHT); // Langkah terakhir tersimpan
+        } else if (!result.getNewMoves().isEmpty() && gameLogic.getCurrentState() == State.PLAYING && !gameLogic.isMyTurn()) {
+            applyOpponentMoves(result.getNewMoves()); // Langkah lawan yang sudah ada: tidak perlu polling
+        }
+    }
+
+    /**
+     * Menyelesaikan game yang diakhiri langkah pemain lokal, setelah langkah itu diterima MoveStore:
+     * memperbarui skor dan menampilkan tombol aksi.
+     */
+    private void finishLocalGame(Seed playerSeed) {
+        gameLogic.updateScore(playerSeed); // Memperbarui skor
+        gameUI.updateScoreLabel(); // Memperbarui label skor di UI
+        gameUI.setStatusText(gameLogic.getCurrentState().getDisplayName() + "! Click Play Again to restart.");
+        gameUI.updateActionButtonsVisibility(true); // Menampilkan tombol aksi
+        gameUI.showModeButtonsPanel(); // Tampilkan kembali tombol mode saat permainan berakhir
+        System.out.println("MultiplayerManager: Setting action buttons visible: true");
+        SoundEffect.WIN.play(); // Memainkan efek suara
+    }
+
+    /**
+     * Membatalkan langkah lokal move di papan (jika masih ada) dan mengembalikan state ke PLAYING.
+     */
+    private void undoLocalMove(DatabaseManager.Move move) {
+        Board board = gameLogic.getBoard();
+        if (board.isInside(move.row, move.col) && !board.isEmpty(move.row, move.col)) {
+            board.undoMove(move.row, move.col);
+            gameLogic.setCurrentState(State.PLAYING);
+            gameUI.updateActionButtonsVisibility(false);
+        }
+    }
+
+    /**
+     * Berlangganan game saat ini di relay (berhenti berlangganan game sebelumnya). Langkah sebelum
+     * berlangganan tiba sebagai snapshot dari relay.
+     */
+    private void subscribeToRelay() {
+        if (relayClient == null || !relayClient.isConnected()) {
+            return;
+        }
+        try {
+            if (subscribedGameId != null && !subscribedGameId.equals(gameId) && !spectatedGames.isTracked(subscribedGameId)) {
+                relayClient.unsubscribe(subscribedGameId);
+            }
+            Board board = gameLogic.getBoard();
+            relayClient.subscribe(gameId, board.getRows(), board.getCols(), board.getWinLength());
+            subscribedGameId = gameId;
+        } catch (IOException e) {
+            System.err.println("MultiplayerManager: Cannot subscribe to relay: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Meminta snapshot game gameId dari relay setelah ada langkah yang terlewat. Dijalankan di thread I/O
+     * karena menunggu handle game; jika permintaan gagal, langkah dibaca dari database.
+     */
+    private void requestRelayResync(String resyncGameId) {
+        RelayClient relay = relayClient;
+        ioExecutor.execute(() -> {
+            try {
+                relay.requestResync(resyncGameId);
+            } catch (IOException e) {
+                System.err.println("MultiplayerManager: Cannot request relay snapshot: " + e.getMessage());
+                SwingUtilities.invokeLater(this::checkForOpponentMove);
             }
         });
-        timer.start(); // Memulai timer
+    }
+
+    /**
+     * Meneruskan langkah lokal ke lawan lewat relay (jika terhubung). Dipanggil dari thread I/O.
+     * Mengembalikan false jika relay terhubung tetapi langkah tidak dapat dikirim (termasuk handle game
+     * yang tidak diterima dalam waktu tunggu RelayClient).
+     */
+    private static boolean publishToRelay(RelayClient relay, DatabaseManager.Move move) {
+        if (relay == null || !relay.isConnected()) {
+            return true; // Tanpa relay: lawan membaca langkah dari database
+        }
+        try {
+            relay.publish(move);
+            return true;
+        } catch (IOException e) {
+            // Lawan tetap menerima langkah ini dari database (polling cadangan atau polling setelah relay terputus)
+            System.err.println("MultiplayerManager: Cannot publish move to relay: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Dipanggil di EDT jika langkah lokal gagal diteruskan ke relay: jawaban lawan kemungkinan juga
+     * tidak sampai lewat relay, sehingga polling dimulai lagi dengan jeda minimum.
+     */
+    private void onRelayPublishFailed() {
+        if (isWaitingForOpponent()) {
+            gameUI.setStatusText("Relay unavailable, checking for moves in the database.");
+        }
+        pollScheduler.speedUp(); // Berhenti sendiri jika tidak ada yang ditunggu
+    }
+
+    /**
+     * Dipanggil di EDT untuk langkah yang didorong relay. Langkah berikutnya yang ditunggu langsung
+     * diterapkan; jika ada langkah yang terlewat, snapshot game diminta dari relay.
+     */
+    private void onRelayedMove(DatabaseManager.Move move) {
+        if (!move.gameId.equals(gameId) && spectatedGames.isTracked(move.gameId)) {
+            Integer spectatedLastMoveNumber = spectatedGames.getLastMoveNumbers().get(move.gameId); // null jika sudah selesai
+            if (spectatedLastMoveNumber != null && move.moveNumber > spectatedLastMoveNumber + 1) {
+                requestRelayResync(move.gameId); // Langkah terlewat
+            } else {
+                spectatedGames.apply(Map.of(move.gameId, List.of(move)));
+            }
+            return;
+        }
+        if (!move.gameId.equals(gameId) || move.moveNumber <= lastMoveNumber) {
+            return; // Game lain, atau langkah yang sudah diketahui
+        }
+        if (move.moveNumber == lastMoveNumber + 1) {
+            applyOpponentMoves(Collections.singletonList(move));
+        } else {
+            requestRelayResync(gameId);
+        }
+    }
+
+    /**
+     * Dipanggil di EDT untuk snapshot dari relay (setelah berlangganan atau setelah requestRelayResync):
+     * langkah yang belum diketahui disusun dari selisih snapshot dengan papan lokal, lalu diterapkan
+     * seperti langkah lawan. Snapshot yang tidak lebih baru atau tidak sesuai dengan papan lokal diabaikan.
+     */
+    private void onRelayedSnapshot(String snapshotGameId, int moveNumber, Board snapshot) {
+        if (!snapshotGameId.equals(gameId)) {
+            spectatedGames.applySnapshot(snapshotGameId, moveNumber, snapshot);
+            return;
+        }
+        if (gameLogic.getCurrentState() != State.PLAYING || moveNumber <= lastMoveNumber) {
+            return;
+        }
+        List<DatabaseManager.Move> moves = GameTracker.snapshotMoves(gameId, gameLogic.getBoard(), lastMoveNumber, moveNumber, snapshot);
+        if (moves == null) {
+            System.err.println("MultiplayerManager: Ignoring relay snapshot of move " + moveNumber
+                    + " that does not match the local board, gameId=" + gameId);
+            return;
+        }
+        applyOpponentMoves(moves);
+    }
+
+    /**
+     * Dipanggil di EDT saat koneksi relay terputus: kembali ke polling database.
+     */
+    private void onRelayDisconnected() {
+        subscribedGameId = null;
+        if ((gameId != null && gameLogic.getCurrentState() == State.PLAYING) || spectatedGames.hasActiveGames()) {
+            gameUI.setStatusText("Relay disconnected, checking for moves in the database.");
+            startPollingForOpponentMove();
+        }
+    }
+
+    /**
+     * Memulai (atau mempercepat kembali) polling checkForOpponentMove() lewat PollScheduler.
+     * Selama relay terhubung, langkah lawan didorong relay dan polling hanya berjalan sebagai cadangan
+     * dengan jeda maksimum.
+     */
+    private void startPollingForOpponentMove() {
+        if (relayClient != null && relayClient.isConnected()) {
+            pollScheduler.slowDown(); // Cadangan untuk langkah yang tidak sampai lewat relay
+            return;
+        }
+        pollScheduler.speedUp(); // Lawan baru mulai berpikir: polling cepat dulu, lalu melambat
         System.out.println("MultiplayerManager: Started polling for opponent moves, gameId=" + gameId);
     }
 
     /**
-     * Memeriksa database untuk langkah baru yang dibuat oleh lawan.
-     * Jika ada, memperbarui papan lokal, state game, dan UI.
-     * Dipanggil secara berkala oleh timer.
+     * Mengembalikan true jika game sendiri sedang menunggu langkah lawan.
+     */
+    private boolean isWaitingForOpponent() {
+        return gameId != null && gameLogic.getCurrentState() == State.PLAYING && !gameLogic.isMyTurn()
+                && gameLogic.getGameMode() == GameLogic.GameMode.MULTIPLAYER;
+    }
+
+    /**
+     * Menghentikan polling kecuali masih ada game tontonan yang berjalan.
+     */
+    private void stopPollingIfIdle() {
+        if (!spectatedGames.hasActiveGames()) {
+            pollScheduler.stop();
+        }
+    }
+
+    /**
+     * Memeriksa database untuk langkah baru yang dibuat oleh lawan dan di game yang ditonton,
+     * dengan satu panggilan fetchMovesForGames untuk semua game tersebut.
+     * Query dijalankan di thread I/O; hasilnya diterapkan di EDT ke papan lokal, state game, dan UI,
+     * serta ke papan game tontonan. Dipanggil di EDT (antara lain oleh PollScheduler); future selesai
+     * di EDT dengan true jika ada langkah baru.
      */
-    private void checkForOpponentMove() {
-        // Keluar jika game tidak dalam state PLAYING atau sudah giliran pemain lokal
-        if (gameLogic.getCurrentState() != State.PLAYING || gameLogic.isMyTurn()) {
+    private CompletableFuture<Boolean> checkForOpponentMove() {
+        // Game sendiri hanya ikut jika game dalam state PLAYING, bukan giliran pemain lokal,
+        // dan pemain belum beralih ke mode lain
+        boolean waitingForOpponent = isWaitingForOpponent();
+        Map<String, Integer> lastMoveNumbers = spectatedGames.getLastMoveNumbers();
+        if (waitingForOpponent) {
+            lastMoveNumbers.put(gameId, lastMoveNumber);
+        }
+        if (lastMoveNumbers.isEmpty()) {
+            pollScheduler.stop(); // Tidak ada yang ditunggu
+            return CompletableFuture.completedFuture(false);
+        }
+        // Mengambil langkah baru semua game dari database sekaligus, di thread I/O
+        String polledGameId = waitingForOpponent ? gameId : null;
+        MoveStore store = moveStore;
+        CompletableFuture<Boolean> found = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return store.fetchMovesForGames(lastMoveNumbers);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, ioExecutor).whenComplete((movesByGame, error) -> SwingUtilities.invokeLater(() ->
+                found.complete(movesByGame != null && onMovesFetched(polledGameId, movesByGame, error))));
+        return found;
+    }
+
+    /**
+     * Dipanggil di EDT dengan hasil checkForOpponentMove: membagi langkah ke game sendiri (jika game
+     * polledGameId masih menunggu langkah lawan) dan ke game tontonan. Mengembalikan true jika ada langkah baru.
+     */
+    private boolean onMovesFetched(String polledGameId, Map<String, List<DatabaseManager.Move>> movesByGame, Throwable error) {
+        if (error != null) {
+            Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+            gameUI.setStatusText("Error fetching opponent move: " + cause.getMessage());
+            System.err.println("MultiplayerManager: Error fetching moves: " + cause.getMessage());
+            return false;
+        }
+        boolean found = spectatedGames.apply(movesByGame);
+        checkSpectatedArchives(spectatedGames.takeArchiveChecks(movesByGame.keySet(), System.currentTimeMillis()));
+        if (polledGameId == null || !polledGameId.equals(gameId) || !isWaitingForOpponent()) {
+            return found; // Game sendiri tidak ditanyakan, sudah berganti, atau tidak lagi menunggu
+        }
+        List<DatabaseManager.Move> moves = movesByGame.get(gameId);
+        if (moves != null) {
+            applyOpponentMoves(moves);
+            return true;
+        }
+        System.out.println("MultiplayerManager: No new moves found for gameId=" + gameId + ", lastMoveNumber=" + lastMoveNumber);
+        return found;
+    }
+
+    /**
+     * Mencari arsip game tontonan yang tidak mendapat langkah baru (di thread I/O): game yang sudah selesai
+     * diarsipkan dan langkah live-nya dihapus, sehingga polling langkah tidak akan pernah menyelesaikannya.
+     * Arsip yang ditemukan diterapkan di EDT; polling berikutnya berhenti jika tidak ada lagi yang ditunggu.
+     */
+    private void checkSpectatedArchives(List<String> gameIds) {
+        if (gameIds.isEmpty()) {
             return;
         }
-        try {
-            // Mengambil langkah baru dari database
-            List<DatabaseManager.Move> moves = DatabaseManager.fetchMoves(gameId, lastMoveNumber);
-            if (!moves.isEmpty()) {
-                DatabaseManager.Move latestMove = moves.get(moves.size() - 1); // Mengambil langkah terakhir
-                lastMoveNumber = latestMove.moveNumber; // Memperbarui nomor langkah terakhir yang diketahui
-
-                // Menentukan simbol lawan dan memperbarui sel papan
-                Seed opponentSeed = latestMove.playerSeed.equals("X") ? Seed.CROSS : Seed.NOUGHT;
-                gameLogic.getBoard().cells[latestMove.row][latestMove.col].content = opponentSeed;
-                SoundEffect.TOY.play(); // Memainkan efek suara
-                // Memperbarui state game setelah langkah lawan
-                gameLogic.setCurrentState(gameLogic.getBoard().stepGame(opponentSeed, latestMove.row, latestMove.col));
-
-                // Memperbarui tampilan panel secara asinkron di EDT
-                SwingUtilities.invokeLater(() -> {
-                    gamePanel.repaint();
-                    gamePanel.paintImmediately(gamePanel.getBounds());
-                });
-
-                System.out.println("MultiplayerManager: Opponent move received: " + latestMove);
-                if (gameLogic.getCurrentState() == State.PLAYING) {
-                    gameLogic.setMyTurn(true); // Mengatur giliran ke pemain lokal
-                    gameUI.setStatusText("Your turn (" + gameLogic.getPlayerRole() + ")."); // Memperbarui status bar
-                } else {
-                    // Jika game berakhir
-                    gameLogic.updateScore(opponentSeed); // Memperbarui skor
-                    gameUI.updateScoreLabel(); // Memperbarui label skor di UI
-                    gameUI.setStatusText(gameLogic.getCurrentState().getDisplayName() + "! Click Play Again to restart.");
-                    gameLogic.setMyTurn(false);
-                    gameUI.updateActionButtonsVisibility(true); // Menampilkan tombol aksi
-                    gameUI.showModeButtonsPanel(); // Tampilkan kembali tombol mode saat permainan berakhir
-                    System.out.println("MultiplayerManager: Setting action buttons visible: true (Opponent move)");
-                    SoundEffect.WIN.play();
+        MoveStore store = moveStore;
+        CompletableFuture.supplyAsync(() -> {
+            List<ArchivedGame> archived = new ArrayList<>();
+            for (String id : gameIds) {
+                try {
+                    ArchivedGame game = store.fetchArchivedGame(id);
+                    if (game != null) {
+                        archived.add(game);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("MultiplayerManager: Error fetching archived game " + id + ": " + e.getMessage());
                 }
-            } else {
-                System.out.println("MultiplayerManager: No new moves found for gameId=" + gameId + ", lastMoveNumber=" + lastMoveNumber);
             }
-        } catch (SQLException | ClassNotFoundException e) {
-            gameUI.setStatusText("Error fetching opponent move: " + e.getMessage());
-            System.err.println("MultiplayerManager: Error fetching moves: " + e.getMessage());
+            return archived;
+        }, ioExecutor).thenAccept(archived -> SwingUtilities.invokeLater(() -> {
+            for (ArchivedGame game : archived) {
+                if (spectatedGames.applyArchive(game)) {
+                    System.out.println("MultiplayerManager: Spectated game " + game.getGameId() + " is archived: " + game.getResult());
+                }
+            }
+        }));
+    }
+
+    /**
+     * Mulai menonton game-game gameIds di jendela SpectatorPanel (ditambahkan ke game yang sudah ditonton).
+     * Langkah yang sudah tersimpan langsung dibaca; langkah berikutnya didorong relay atau diambil
+     * polling bersama game sendiri. Menutup jendela menghentikan semua tontonan.
+     */
+    public void spectateGames(List<String> gameIds) {
+        List<String> added = new ArrayList<>();
+        for (String id : gameIds) {
+            if (spectatedGames.track(id)) {
+                added.add(id);
+            }
+        }
+        if (spectatorFrame == null) {
+            SpectatorPanel panel = new SpectatorPanel(spectatedGames);
+            spectatorFrame = new JFrame(GamePanel.TITLE + " - Spectating");
+            spectatorFrame.setContentPane(panel);
+            spectatorFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+            spectatorFrame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    stopSpectating();
+                }
+            });
+            spectatedGames.setChangeListener(() -> {
+                panel.repaint();
+                if (spectatorFrame != null && !panel.getPreferredSize().equals(panel.getSize())) {
+                    spectatorFrame.pack();
+                }
+            });
+            spectatorFrame.pack();
+            spectatorFrame.setLocationByPlatform(true);
+            spectatorFrame.setVisible(true);
+        }
+        if (relayClient != null && relayClient.isConnected()) {
+            try {
+                for (String id : added) {
+                    relayClient.subscribe(id, spectatedGames.getRows(), spectatedGames.getCols(), spectatedGames.getWinLength());
+                }
+            } catch (IOException e) {
+                System.err.println("MultiplayerManager: Cannot subscribe to relay: " + e.getMessage());
+            }
+        }
+        System.out.println("MultiplayerManager: Spectating " + spectatedGames.size() + " games");
+        checkForOpponentMove();          // Langkah yang sudah tersimpan
+        startPollingForOpponentMove();   // Langkah berikutnya (hanya polling cadangan jika relay terhubung)
+    }
+
+    /**
+     * Berhenti menonton semua game (dipanggil saat jendela SpectatorPanel ditutup).
+     */
+    private void stopSpectating() {
+        if (relayClient != null && relayClient.isConnected()) {
+            for (GameTracker.TrackedGame game : spectatedGames.getGames()) {
+                if (game.getGameId().equals(subscribedGameId)) {
+                    continue; // Game sendiri tetap dilanggan
+                }
+                try {
+                    relayClient.unsubscribe(game.getGameId());
+                } catch (IOException e) {
+                    System.err.println("MultiplayerManager: Cannot unsubscribe from relay: " + e.getMessage());
+                }
+            }
+        }
+        spectatedGames.setChangeListener(() -> { });
+        spectatedGames.clear();
+        spectatorFrame = null;
+        if (!isWaitingForOpponent()) {
+            pollScheduler.stop();
         }
+        System.out.println("MultiplayerManager: Stopped spectating");
+    }
+
+    /**
+     * Mengembalikan metrik polling database (jumlah query, laju query, dan jeda saat ini).
+     */
+    public String getPollStats() {
+        return pollScheduler.getStats();
+    }
+
+    /**
+     * Menerapkan langkah-langkah baru (urut menurut nomor langkah) ke papan lokal, lalu memperbarui
+     * state game dan UI. Langkah yang nomornya sudah diketahui diabaikan.
+     */
+    private void applyOpponentMoves(List<DatabaseManager.Move> moves) {
+        // Memutar ulang semua langkah baru ke bitboard (bukan hanya yang terakhir),
+        // sehingga papan lokal tetap sinkron walaupun beberapa langkah terlewat di antara polling
+        DatabaseManager.Move latestMove = null;
+        Seed opponentSeed = null;
+        for (DatabaseManager.Move move : moves) {
+            if (move.moveNumber <= lastMoveNumber) {
+                continue; // Sudah diterapkan (misalnya lewat polling dan pertukaran langkah sekaligus)
+            }
+            if (!gameLogic.getBoard().isInside(move.row, move.col)) {
+                // Lawan memakai ukuran papan yang berbeda: langkah tidak bisa diterapkan
+                System.err.println("MultiplayerManager: Move outside the configured board: " + move);
+                lastMoveNumber = move.moveNumber;
+                continue;
+            }
+            if (!gameLogic.getBoard().isEmpty(move.row, move.col)) {
+                lastMoveNumber = move.moveNumber; // Langkah sudah ada di papan lokal (langkah sendiri)
+                continue;
+            }
+            latestMove = move;
+            lastMoveNumber = move.moveNumber; // Memperbarui nomor langkah terakhir yang diketahui
+            opponentSeed = move.playerSeed.equals("X") ? Seed.CROSS : Seed.NOUGHT;
+            // Memperbarui state game setelah langkah lawan
+            gameLogic.setCurrentState(gameLogic.getBoard().stepGame(opponentSeed, move.row, move.col));
+            if (gameLogic.getCurrentState() != State.PLAYING) {
+                break; // Game berakhir, langkah sisanya diabaikan
+            }
+        }
+        if (latestMove == null) {
+            return; // Tidak ada langkah lawan yang baru
+        }
+        SoundEffect.TOY.play(); // Memainkan efek suara
+
+        // Memperbarui tampilan panel secara asinkron di EDT
+        SwingUtilities.invokeLater(() -> {
+            gamePanel.repaint();
+            gamePanel.paintImmediately(gamePanel.getBounds());
+        });
+
+        System.out.println("MultiplayerManager: Opponent move received: " + latestMove);
+        stopPollingIfIdle(); // Giliran pemain lokal atau game berakhir: hanya game tontonan yang ditunggu
+        if (gameLogic.getCurrentState() == State.PLAYING) {
+            gameLogic.setMyTurn(true); // Mengatur giliran ke pemain lokal
+            gameUI.setStatusText("Your turn (" + gameLogic.getPlayerRole() + ")."); // Memperbarui status bar
+        } else {
+            // Jika game berakhir
+            gameLogic.updateScore(opponentSeed); // Memperbarui skor
+            gameUI.updateScoreLabel(); // Memperbarui label skor di UI
+            gameUI.setStatusText(gameLogic.getCurrentState().getDisplayName() + "! Click Play Again to restart.");
+            gameLogic.setMyTurn(false);
+            gameUI.updateActionButtonsVisibility(true); // Menampilkan tombol aksi
+            gameUI.showModeButtonsPanel(); // Tampilkan kembali tombol mode saat permainan berakhir
+            System.out.println("MultiplayerManager: Setting action buttons visible: true (Opponent move)");
+            SoundEffect.WIN.play();
+            archiveFinishedGame();
+        }
+    }
+
+    /**
+     * Memindahkan game yang baru selesai ke arsip di thread I/O:
+     * mengambil semua langkahnya, mengemasnya menjadi ArchivedGame, lalu menghapus langkah live-nya.
+     * Setelah diarsipkan, hasilnya dicatat di leaderboard dengan username dari langkah-langkah game.
+     */
+    private void archiveFinishedGame() {
+        String finishedGameId = gameId;
+        Board board = gameLogic.getBoard();
+        int rows = board.getRows();
+        int cols = board.getCols();
+        int winLength = board.getWinLength();
+        MoveStore store = moveStore;
+        Leaderboard results = leaderboard;
+        CompletableFuture.runAsync(() -> {
+            try {
+                List<DatabaseManager.Move> moves = store.fetchMoves(finishedGameId, 0);
+                ArchivedGame game = ArchivedGame.fromMoves(finishedGameId, rows, cols, winLength, moves);
+                store.archiveGame(game);
+                System.out.println("MultiplayerManager: Archived game " + finishedGameId + " (" + moves.size() + " moves)");
+                if (results != null) {
+                    results.recordGame(game.getCrossUsername(), game.getNoughtUsername(), game.getResult());
+                }
+            } catch (SQLException | IllegalArgumentException e) {
+                // Langkah live tetap tersimpan, sehingga game tidak hilang walaupun tidak diarsipkan
+                System.err.println("MultiplayerManager: Error archiving game " + finishedGameId + ": " + e.getMessage());
+            }
+        }, ioExecutor);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+// package MySqlLeaderboardStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Kelas MySqlLeaderboardStore menyimpan leaderboard di tabel leaderboard MySQL lewat DatabaseManager.
+ * Dengan konstruktor ConnectionPool, instance dapat membaca dari server lain (misalnya read replica).
+ */
+public class MySqlLeaderboardStore implements LeaderboardStore {
+    private final ConnectionPool pool; // null = pool database default
+
+    /**
+     * Konstruktor untuk MySqlLeaderboardStore di database default.
+     */
+    public MySqlLeaderboardStore() {
+        this(null);
+    }
+
+    /**
+     * Konstruktor untuk MySqlLeaderboardStore di database milik pool.
+     */
+    public MySqlLeaderboardStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Mengembalikan pool yang dipakai store ini.
+     */
+    private ConnectionPool getPool() throws SQLException {
+        if (pool != null) {
+            return pool;
+        }
+        try {
+            return DatabaseManager.getDefaultPool();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Database driver not found: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void recordGame(String crossUsername, String noughtUsername, State result) throws SQLException {
+        DatabaseManager.recordGameResult(getPool(), crossUsername, noughtUsername, result);
+    }
+
+    @Override
+    public List<PlayerRating> fetchTopPlayers(int limit) throws SQLException {
+        return DatabaseManager.fetchTopPlayers(getPool(), limit);
+    }
+
+    @Override
+    public PlayerRating fetchPlayer(String username) throws SQLException {
+        return DatabaseManager.fetchPlayerRating(getPool(), username);
+    }
+}
@@ -0,0 +1,119 @@
+// package MySqlMoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Kelas MySqlMoveStore menyimpan langkah di tabel moves MySQL lewat DatabaseManager
+ * (koneksi dari ConnectionPool, penukaran asinkron dalam batch lewat MoveWriteBehindQueue),
+ * dan game yang sudah selesai di tabel games_archive.
+ * Secara default dipakai database default DatabaseManager; dengan konstruktor ConnectionPool,
+ * setiap instance dapat memakai server sendiri (satu instance per shard di ShardedMoveStore),
+ * masing-masing dengan pool dan antrian write-behind sendiri.
+ */
+public class MySqlMoveStore implements MoveStore {
+    private final ConnectionPool pool; // null = pool database default
+    private volatile MoveWriteBehindQueue writeBehindQueue; // Dibuat saat pertama dibutuhkan
+
+    /**
+     * Konstruktor untuk MySqlMoveStore di database default.
+     */
+    public MySqlMoveStore() {
+        this(null);
+    }
+
+    /**
+     * Konstruktor untuk MySqlMoveStore di database milik pool.
+     */
+    public MySqlMoveStore(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Mengembalikan pool yang dipakai store ini.
+     */
+    private ConnectionPool getPool() throws SQLException {
+        if (pool != null) {
+            return pool;
+        }
+        try {
+            return DatabaseManager.getDefaultPool();
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Database driver not found: " + e.getMessage(), e);
+        }
+    }
+
+    private MoveWriteBehindQueue getWriteBehindQueue() {
+        if (writeBehindQueue == null) {
+            synchronized (this) {
+                if (writeBehindQueue == null) {
+                    writeBehindQueue = new MoveWriteBehindQueue(moves -> DatabaseManager.exchangeMoves(getPool(), moves),
+                            MoveWriteBehindQueue.DEFAULT_CAPACITY, MoveWriteBehindQueue.DEFAULT_MAX_BATCH,
+                            MoveWriteBehindQueue.DEFAULT_FLUSH_DELAY_MILLIS);
+                }
+            }
+        }
+        return writeBehindQueue;
+    }
+
+    @Override
+    public void insertMove(DatabaseManager.Move move) throws SQLException {
+        DatabaseManager.insertMove(getPool(), move);
+    }
+
+    @Override
+    public CompletableFuture<MoveExchangeResult> submitMove(DatabaseManager.Move move) {
+        return getWriteBehindQueue().enqueue(move);
+    }
+
+    @Override
+    public boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLException {
+        return DatabaseManager.insertMoveIfAbsent(getPool(), move);
+    }
+
+    @Override
+    public MoveExchangeResult exchangeMove(DatabaseManager.Move move, int lastKnownMoveNumber) throws SQLException {
+        return DatabaseManager.exchangeMove(getPool(), move, lastKnownMoveNumber);
+    }
+
+    @Override
+    public List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) throws SQLException {
+        return DatabaseManager.fetchMoves(getPool(), gameId, lastMoveNumber);
+    }
+
+    @Override
+    public Map<String, List<DatabaseManager.Move>> fetchMovesForGames(Map<String, Integer> lastMoveNumbers) throws SQLException {
+        return DatabaseManager.fetchMovesForGames(getPool(), lastMoveNumbers);
+    }
+
+    @Override
+    public void clearGameMoves(String gameId) throws SQLException {
+        DatabaseManager.flushPendingMoves(writeBehindQueue); // Langkah lama yang masih antri tidak boleh tertulis setelah penghapusan
+        DatabaseManager.clearGameMoves(getPool(), gameId);
+    }
+
+    @Override
+    public void archiveGame(ArchivedGame game) throws SQLException {
+        DatabaseManager.flushPendingMoves(writeBehindQueue); // Langkah yang masih antri harus tertulis sebelum dihapus
+        DatabaseManager.archiveGame(getPool(), game);
+    }
+
+    @Override
+    public ArchivedGame fetchArchivedGame(String gameId) throws SQLException {
+        return DatabaseManager.fetchArchivedGame(getPool(), gameId);
+    }
+
+    @Override
+    public List<String> listGameIds() throws SQLException {
+        DatabaseManager.flushPendingMoves(writeBehindQueue); // Game yang langkahnya masih antri ikut terdaftar
+        return DatabaseManager.listGameIds(getPool());
+    }
+
+    @Override
+    public void deleteGame(String gameId) throws SQLException {
+        DatabaseManager.flushPendingMoves(writeBehindQueue);
+        DatabaseManager.deleteGame(getPool(), gameId);
+    }
+}
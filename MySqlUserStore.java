@@ -0,0 +1,27 @@
+// package MySqlUserStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+
+/**
+ * Kelas MySqlUserStore membaca akun dari tabel gameuser MySQL lewat DatabaseManager.
+ * Detail koneksi dapat di-override dengan argumen baris perintah (-host, -port, -database, ...).
+ */
+public class MySqlUserStore implements UserStore {
+    private final String[] args; // Argumen baris perintah untuk override koneksi
+
+    /**
+     * Konstruktor untuk MySqlUserStore dengan argumen baris perintah aplikasi.
+     */
+    public MySqlUserStore(String[] args) {
+        this.args = args.clone();
+    }
+
+    @Override
+    public String getPassword(String username) throws SQLException {
+        try {
+            return DatabaseManager.getPassword(username, args);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("Database driver not found: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+// package NegamaxSearch; // Asumsi paket jika tidak ada di file.
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kelas NegamaxSearch melakukan pencarian negamax dengan pemangkasan alpha-beta pada Board.
+ * Pencarian berjalan dengan iterative deepening (kedalaman 1, 2, 3, ...) sampai batas waktu
+ * (dalam milidetik) habis, lalu mengembalikan langkah terbaik dari kedalaman terakhir yang selesai.
+ * Iterasi yang terpotong oleh batas waktu dibuang, sehingga waktu respons AI tetap datar
+ * berapa pun ukuran papannya.
+ * Sebelum mengekspansi sebuah node, pencarian memeriksa TranspositionTable berdasarkan kunci Zobrist
+ * posisi: hasil yang cukup dalam dipakai langsung, dan langkah terbaik yang tersimpan dicoba lebih dulu.
+ * Langkah dicoba dan dibatalkan langsung di papan (stepGame/undoMove), dan daftar langkah setiap ply
+ * memakai buffer yang dialokasikan sekali, sehingga pencarian tidak mengalokasikan objek per node.
+ * Jika thread pencarian diinterupsi (misalnya game baru dimulai), pencarian berhenti pada
+ * pemeriksaan berkala berikutnya seperti saat batas waktu habis.
+ * Beberapa instance dapat berbagi satu tabel sebagai worker LazySmpSearch; worker pembantu
+ * (helperIndex > 0) memulai dari kedalaman dan urutan langkah root yang berbeda agar tidak
+ * menelusuri pohon yang persis sama, dan berhenti saat sinyal stop bersama dinyalakan.
+ */
+public class NegamaxSearch {
+    // Skor untuk kemenangan; dikurangi ply agar kemenangan yang lebih cepat lebih disukai
+    public static final int WIN_SCORE = 1_000_000;
+    private static final int WIN_THRESHOLD = WIN_SCORE - 10_000;
+    private static final int INFINITY = Integer.MAX_VALUE - 1;
+    private static final int TIME_CHECK_INTERVAL = 1024; // Jam hanya dibaca setiap 1024 node
+
+    private final TranspositionTable table; // Tabel transposisi yang dipakai bersama antar pencarian
+    private final int helperIndex;          // 0 untuk pencarian utama, > 0 untuk worker pembantu Lazy SMP
+    private final boolean ownsTable;        // True jika instance ini yang menandai generasi tabel
+    private AtomicBoolean stopSignal;       // Sinyal stop bersama antar worker (null jika tidak dipakai)
+    private int[][] moveBuffers;            // Buffer langkah per ply
+    private long nodes;                     // Jumlah node yang dikunjungi pada pencarian terakhir
+    private int rootBestMove;               // Langkah terbaik di root pada iterasi yang sedang berjalan
+    private int completedDepth;             // Kedalaman terakhir yang selesai pada pencarian terakhir
+    private long deadlineNanos;             // Batas waktu pencarian (System.nanoTime)
+    private boolean timeLimited;            // Apakah pencarian dibatasi waktu
+    private boolean aborted;                // True jika iterasi saat ini terpotong batas waktu
+
+    /**
+     * Konstruktor untuk NegamaxSearch dengan tabel transposisi yang diberikan.
+     */
+    public NegamaxSearch(TranspositionTable table) {
+        this.table = table;
+        this.helperIndex = 0;
+        this.ownsTable = true;
+    }
+
+    /**
+     * Konstruktor untuk worker pencarian paralel yang berbagi tabel dengan worker lain.
+     * Generasi tabel diatur oleh pemilik worker (LazySmpSearch), bukan oleh worker ini.
+     */
+    public NegamaxSearch(TranspositionTable table, int helperIndex) {
+        this.table = table;
+        this.helperIndex = helperIndex;
+        this.ownsTable = false;
+    }
+
+    /**
+     * Mencari langkah terbaik untuk pemain toMove sampai kedalaman depth, tanpa batas waktu.
+     * Mengembalikan indeks sel (row * cols + col), atau -1 jika tidak ada langkah.
+     * Papan dikembalikan ke state semula setelah pencarian.
+     */
+    public int search(Board board, Seed toMove, int depth) {
+        return search(board, toMove, depth, 0L);
+    }
+
+    /**
+     * Mencari langkah terbaik dengan iterative deepening sampai maxDepth atau sampai
+     * timeBudgetMillis habis (0 berarti tanpa batas waktu). Kedalaman 1 selalu diselesaikan
+     * agar selalu ada langkah yang dikembalikan.
+     */
+    public int search(Board board, Seed toMove, int maxDepth, long timeBudgetMillis) {
+        int depthLimit = Math.max(1, Math.min(maxDepth, board.getCellCount() - board.getMoveCount()));
+        ensureBuffers(board, depthLimit);
+        if (ownsTable) {
+            table.newSearch();
+        }
+        nodes = 0;
+        completedDepth = 0;
+        timeLimited = timeBudgetMillis > 0;
+        deadlineNanos = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+
+        int bestMove = -1;
+        // Worker pembantu ganjil berjalan satu ply lebih dalam dari pencarian utama
+        int startDepth = Math.min(depthLimit, 1 + (helperIndex & 1));
+        for (int depth = startDepth; depth <= depthLimit; depth++) {
+            aborted = false;
+            rootBestMove = -1;
+            int score = negamax(board, toMove, depth, -INFINITY, INFINITY, 0);
+            if (aborted) {
+                break; // Iterasi terpotong: pakai hasil kedalaman sebelumnya
+            }
+            bestMove = rootBestMove;
+            completedDepth = depth;
+            if (score > WIN_THRESHOLD || score < -WIN_THRESHOLD) {
+                break; // Hasil sudah pasti (menang/kalah paksa), tidak perlu lebih dalam
+            }
+            if ((timeLimited && System.nanoTime() >= deadlineNanos) || Thread.currentThread().isInterrupted()
+                    || isStopRequested()) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Negamax dengan alpha-beta. Mengembalikan skor posisi dari sudut pandang pemain toMove.
+     */
+    private int negamax(Board board, Seed toMove, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        // Memeriksa interupsi dan batas waktu secara berkala (kedalaman 1 selalu diselesaikan kecuali diinterupsi)
+        if ((nodes % TIME_CHECK_INTERVAL) == 0) {
+            if (Thread.currentThread().isInterrupted() || isStopRequested()
+                    || (timeLimited && completedDepth > 0 && System.nanoTime() >= deadlineNanos)) {
+                aborted = true;
+            }
+        }
+        if (aborted) {
+            return 0;
+        }
+        long key = keyOf(board, toMove);
+        int alphaOriginal = alpha;
+
+        // Memeriksa tabel transposisi sebelum mengekspansi node
+        int ttMove = -1;
+        long entry = table.probe(key);
+        if (entry != 0L) {
+            ttMove = TranspositionTable.bestMove(entry);
+            if (TranspositionTable.depth(entry) >= depth && ply > 0) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT) return score;
+                if (bound == TranspositionTable.LOWER && score >= beta) return score;
+                if (bound == TranspositionTable.UPPER && score <= alpha) return score;
+            }
+        }
+
+        if (depth == 0) {
+            return board.getEvaluation(toMove);
+        }
+
+        int[] moves = moveBuffers[ply];
+        int moveCount = generateMoves(board, moves, ttMove, ply);
+        if (moveCount == 0) {
+            return 0; // Papan penuh: seri
+        }
+
+        Seed opponent = (toMove == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        int cols = board.getCols();
+        int bestScore = -INFINITY;
+        int bestMove = moves[0];
+        for (int i = 0; i < moveCount; i++) {
+            int idx = moves[i];
+            int row = idx / cols;
+            int col = idx % cols;
+            State state = board.stepGame(toMove, row, col);
+            int score;
+            if (state == State.PLAYING) {
+                score = -negamax(board, opponent, depth - 1, -beta, -alpha, ply + 1);
+            } else if (state == State.DRAW) {
+                score = 0;
+            } else {
+                score = WIN_SCORE - (ply + 1); // Langkah ini langsung menang
+            }
+            board.undoMove(row, col);
+            if (aborted) {
+                return 0; // Hasil subpohon tidak lengkap: jangan disimpan ke tabel
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = idx;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+            if (alpha >= beta) {
+                break; // Beta cutoff
+            }
+        }
+
+        int bound = bestScore <= alphaOriginal ? TranspositionTable.UPPER
+                : bestScore >= beta ? TranspositionTable.LOWER
+                : TranspositionTable.EXACT;
+        table.store(key, toTable(bestScore, ply), bestMove, depth, bound);
+        if (ply == 0) {
+            rootBestMove = bestMove;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Mengisi buffer dengan langkah kandidat: sel kosong yang berjarak paling jauh 1 dari bidak yang ada
+     * (atau sel tengah jika papan kosong). Langkah dari tabel transposisi ditempatkan paling depan.
+     * Pada root, worker pembantu memutar urutan langkah sisanya sesuai helperIndex.
+     */
+    private int generateMoves(Board board, int[] moves, int ttMove, int ply) {
+        int count = 0;
+        int rows = board.getRows();
+        int cols = board.getCols();
+        if (board.getMoveCount() == 0) {
+            moves[count++] = (rows / 2) * cols + cols / 2;
+            return count;
+        }
+        if (ttMove >= 0 && ttMove < board.getCellCount() && board.isEmptyAt(ttMove)) {
+            moves[count++] = ttMove;
+        }
+        int first = count; // Awal langkah selain langkah dari tabel
+        for (int idx = 0; idx < board.getCellCount(); idx++) {
+            if (idx == ttMove || !board.isEmptyAt(idx)) continue;
+            if (isNearStone(board, idx / cols, idx % cols)) {
+                moves[count++] = idx;
+            }
+        }
+        if (ply == 0 && helperIndex > 0 && count - first > 1) {
+            rotate(moves, first, count, helperIndex % (count - first));
+        }
+        return count;
+    }
+
+    // Memutar moves[from..to) ke kiri sejauh shift (dengan tiga kali pembalikan, tanpa alokasi)
+    private static void rotate(int[] moves, int from, int to, int shift) {
+        reverse(moves, from, from + shift - 1);
+        reverse(moves, from + shift, to - 1);
+        reverse(moves, from, to - 1);
+    }
+
+    private static void reverse(int[] moves, int i, int j) {
+        while (i < j) {
+            int tmp = moves[i];
+            moves[i++] = moves[j];
+            moves[j--] = tmp;
+        }
+    }
+
+    private boolean isStopRequested() {
+        return stopSignal != null && stopSignal.get();
+    }
+
+    private static boolean isNearStone(Board board, int row, int col) {
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((dr != 0 || dc != 0) && board.isInside(row + dr, col + dc) && !board.isEmpty(row + dr, col + dc)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void ensureBuffers(Board board, int depth) {
+        int plies = Math.max(1, depth) + 1;
+        if (moveBuffers == null || moveBuffers.length < plies || moveBuffers[0].length < board.getCellCount()) {
+            moveBuffers = new int[plies][board.getCellCount()];
+        }
+    }
+
+    private static long keyOf(Board board, Seed toMove) {
+        return board.getZobristKey() ^ (toMove == Seed.NOUGHT ? Board.SIDE_TO_MOVE_KEY : 0L);
+    }
+
+    // Skor menang disimpan relatif terhadap node (bukan root) agar tetap benar pada ply yang berbeda
+    private static int toTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) return score + ply;
+        if (score < -WIN_THRESHOLD) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_THRESHOLD) return score - ply;
+        if (score < -WIN_THRESHOLD) return score + ply;
+        return score;
+    }
+
+    public void setStopSignal(AtomicBoolean stopSignal) { this.stopSignal = stopSignal; } // Mengatur sinyal stop bersama
+    public long getNodes() { return nodes; } // Mengembalikan jumlah node pada pencarian terakhir
+    public int getCompletedDepth() { return completedDepth; } // Mengembalikan kedalaman terakhir yang selesai
+}
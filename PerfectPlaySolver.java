@@ -0,0 +1,156 @@
+// package PerfectPlaySolver; // Asumsi paket jika tidak ada di file.
+
+import java.util.Arrays;
+
+/**
+ * Kelas PerfectPlaySolver menyelesaikan Tic-Tac-Toe 3x3 secara sempurna.
+ * Saat kelas dimuat, semua posisi yang dapat dicapai (dari papan kosong, dengan X atau O yang
+ * jalan duluan) dienumerasi sekali dengan negamax. Untuk setiap posisi disimpan nilai
+ * game-theoretic dan langkah terbaiknya dalam tabel byte primitif, yang diindeks dengan
+ * kunci posisi basis-3 dari Board dan pemain yang sedang jalan.
+ * Setelah itu, setiap langkah AI hanyalah satu kali baca array tanpa alokasi objek.
+ * Solver hanya berlaku untuk papan klasik 3x3 dengan k=3; untuk ukuran lain bestMove() mengembalikan -1.
+ */
+public final class PerfectPlaySolver {
+
+    // Konstanta bitboard 3x3: bit ke-(row * 3 + col) menandakan sel yang ditempati
+    private static final int SIZE = 3;
+    private static final int CELL_COUNT = SIZE * SIZE;
+    private static final int FULL_MASK = (1 << CELL_COUNT) - 1;
+    private static final int POSITION_COUNT = 19683; // 3^9 kemungkinan kunci posisi
+
+    // Mask semua garis kemenangan (3 baris, 3 kolom, 2 diagonal)
+    private static final int[] WIN_LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000, // Baris
+            0b001_001_001, 0b010_010_010, 0b100_100_100, // Kolom
+            0b100_010_001, 0b001_010_100                 // Diagonal
+    };
+
+    // Penanda posisi yang belum dihitung di tabel nilai
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+    // Skor dasar untuk kemenangan; dikurangi jumlah langkah agar menang cepat lebih disukai
+    private static final int WIN_SCORE = CELL_COUNT + 1;
+
+    // Tabel hasil: indeks = kunci posisi * 2 + (0 jika X yang jalan, 1 jika O yang jalan)
+    private static final byte[] SCORES = new byte[POSITION_COUNT * 2];     // Nilai dari sudut pandang pemain yang jalan
+    private static final byte[] BEST_MOVES = new byte[POSITION_COUNT * 2]; // Indeks sel terbaik (-1 jika posisi terminal)
+
+    private static int solvedPositions; // Jumlah posisi yang dapat dicapai dan sudah dihitung
+
+    static {
+        long start = System.nanoTime();
+        Arrays.fill(SCORES, UNSOLVED);
+        Arrays.fill(BEST_MOVES, (byte) -1);
+        solve(0, 0, 0, true, 0);  // X jalan duluan
+        solve(0, 0, 0, false, 0); // O jalan duluan (misalnya AI bermain O dan memulai)
+        System.out.println("PerfectPlaySolver: Solved " + solvedPositions + " positions in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private PerfectPlaySolver() {
+    }
+
+    /**
+     * Memastikan tabel sudah dibangun (memicu inisialisasi kelas saat startup).
+     */
+    public static void init() {
+        // Inisialisasi dilakukan oleh blok static
+    }
+
+    /**
+     * Mengembalikan indeks sel (row * COLS + col) dari langkah terbaik untuk pemain yang diberikan,
+     * atau -1 jika posisi sudah terminal atau tidak dapat dicapai.
+     */
+    public static int bestMove(Board board, Seed toMove) {
+        if (!supports(board)) {
+            return -1;
+        }
+        return BEST_MOVES[tableIndex(board.getPositionKey(), toMove == Seed.CROSS)];
+    }
+
+    /**
+     * Mengembalikan nilai game-theoretic posisi dari sudut pandang pemain yang jalan:
+     * positif jika menang, 0 jika seri, negatif jika kalah (dengan permainan sempurna).
+     */
+    public static int value(Board board, Seed toMove) {
+        if (!supports(board)) {
+            return 0;
+        }
+        return SCORES[tableIndex(board.getPositionKey(), toMove == Seed.CROSS)];
+    }
+
+    /**
+     * Mengembalikan jumlah posisi yang dapat dicapai dan tersimpan di tabel.
+     */
+    public static int getSolvedPositions() {
+        return solvedPositions;
+    }
+
+    /**
+     * Mengembalikan true jika papan adalah Tic-Tac-Toe klasik 3x3 dengan k=3.
+     */
+    public static boolean supports(Board board) {
+        return board.getRows() == SIZE && board.getCols() == SIZE && board.getWinLength() == SIZE;
+    }
+
+    private static int tableIndex(int key, boolean crossToMove) {
+        return key * 2 + (crossToMove ? 0 : 1);
+    }
+
+    /**
+     * Negamax dengan memo pada tabel. Mengembalikan skor posisi dari sudut pandang pemain yang jalan.
+     */
+    private static int solve(int crossBits, int noughtBits, int key, boolean crossToMove, int ply) {
+        int index = tableIndex(key, crossToMove);
+        if (SCORES[index] != UNSOLVED) {
+            return SCORES[index];
+        }
+        solvedPositions++;
+
+        int occupied = crossBits | noughtBits;
+        int bestScore = Integer.MIN_VALUE;
+        int bestMove = -1;
+        if (occupied != FULL_MASK) {
+            for (int idx = 0; idx < CELL_COUNT; idx++) {
+                int bit = 1 << idx;
+                if ((occupied & bit) != 0) continue;
+                int score;
+                if (crossToMove) {
+                    if (completesLine(crossBits | bit, idx)) {
+                        score = WIN_SCORE - (ply + 1); // Menang langsung
+                    } else {
+                        score = -solve(crossBits | bit, noughtBits, key + Board.POW3[idx], false, ply + 1);
+                    }
+                } else {
+                    if (completesLine(noughtBits | bit, idx)) {
+                        score = WIN_SCORE - (ply + 1);
+                    } else {
+                        score = -solve(crossBits, noughtBits | bit, key + 2 * Board.POW3[idx], true, ply + 1);
+                    }
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestMove = idx;
+                }
+            }
+        } else {
+            bestScore = 0; // Papan penuh tanpa pemenang: seri
+        }
+
+        // ply selalu sama dengan jumlah bidak di papan, sehingga skor yang bergantung pada ply
+        // tetap konsisten untuk posisi yang sama yang dicapai lewat urutan langkah berbeda
+        SCORES[index] = (byte) bestScore;
+        BEST_MOVES[index] = (byte) bestMove;
+        return bestScore;
+    }
+
+    /**
+     * Mengembalikan true jika bits berisi garis penuh yang melewati sel idx.
+     */
+    private static boolean completesLine(int bits, int idx) {
+        for (int line : WIN_LINES) {
+            if ((line & (1 << idx)) != 0 && (bits & line) == line) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,66 @@
+// package PlayerRating; // Asumsi paket jika tidak ada di file.
+
+/**
+ * Kelas PlayerRating adalah satu baris leaderboard: hasil game seorang pengguna dan rating Elo-nya.
+ * Objek ini tidak pernah diubah; pembaruan menghasilkan objek baru (lihat afterGame()).
+ */
+public class PlayerRating {
+    public static final double INITIAL_RATING = 1200.0; // Rating awal pengguna baru
+    public static final double K_FACTOR = 32.0;         // Perubahan rating maksimum per game
+
+    private final String username;
+    private final int wins;
+    private final int losses;
+    private final int draws;
+    private final double rating;
+
+    /**
+     * Konstruktor untuk PlayerRating.
+     */
+    public PlayerRating(String username, int wins, int losses, int draws, double rating) {
+        this.username = username;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+        this.rating = rating;
+    }
+
+    /**
+     * Membuat PlayerRating untuk pengguna yang belum pernah bermain.
+     */
+    public static PlayerRating newPlayer(String username) {
+        return new PlayerRating(username, 0, 0, 0, INITIAL_RATING);
+    }
+
+    /**
+     * Menghitung rating baru setelah satu game melawan lawan dengan rating opponentRating.
+     * score bernilai 1 untuk menang, 0.5 untuk seri, dan 0 untuk kalah.
+     */
+    public static double newRating(double rating, double opponentRating, double score) {
+        double expected = 1.0 / (1.0 + Math.pow(10.0, (opponentRating - rating) / 400.0));
+        return rating + K_FACTOR * (score - expected);
+    }
+
+    /**
+     * Mengembalikan PlayerRating setelah satu game melawan lawan dengan rating opponentRating.
+     */
+    public PlayerRating afterGame(double opponentRating, double score) {
+        return new PlayerRating(username,
+                wins + (score == 1.0 ? 1 : 0),
+                losses + (score == 0.0 ? 1 : 0),
+                draws + (score == 0.5 ? 1 : 0),
+                newRating(rating, opponentRating, score));
+    }
+
+    @Override
+    public String toString() {
+        return username + " " + Math.round(rating) + " (" + wins + "W " + losses + "L " + draws + "D)";
+    }
+
+    public String getUsername() { return username; } // Mengembalikan username
+    public int getWins() { return wins; } // Mengembalikan jumlah kemenangan
+    public int getLosses() { return losses; } // Mengembalikan jumlah kekalahan
+    public int getDraws() { return draws; } // Mengembalikan jumlah seri
+    public int getGames() { return wins + losses + draws; } // Mengembalikan jumlah game
+    public double getRating() { return rating; } // Mengembalikan rating Elo
+}
@@ -0,0 +1,146 @@
+// package PollScheduler; // Asumsi paket jika tidak ada di file.
+
+import javax.swing.Timer;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Kelas PollScheduler menjadwalkan polling database dengan satu javax.swing.Timer per klien.
+ * - Setelah speedUp() (misalnya tepat setelah langkah pemain lokal), polling dimulai dengan jeda minimum.
+ * - Setiap polling yang tidak menemukan data baru menggandakan jeda sampai jeda maksimum
+ *   (exponential backoff), sehingga lawan yang lama berpikir tidak memicu banyak query.
+ * - Polling yang menemukan data baru mengembalikan jeda ke minimum.
+ * - slowDown() menjalankan polling dengan jeda maksimum, sebagai cadangan saat data baru biasanya
+ *   datang dari jalur lain (misalnya relay).
+ * - stop() menghentikan timer sepenuhnya (misalnya saat game berakhir atau giliran pemain lokal).
+ * Timer berjalan di EDT, sehingga fungsi polling juga dipanggil di EDT. Fungsi polling bersifat
+ * asinkron (query dijalankan di thread I/O dan tidak menahan EDT): polling berikutnya baru
+ * dijadwalkan setelah hasilnya selesai.
+ * Jumlah query dan laju query (per detik, dalam RATE_WINDOW_MILLIS terakhir) tersedia untuk logging.
+ */
+public class PollScheduler {
+    public static final int DEFAULT_MIN_DELAY_MILLIS = 200;   // Jeda setelah speedUp() atau data baru
+    public static final int DEFAULT_MAX_DELAY_MILLIS = 5_000; // Jeda terpanjang saat tidak ada data baru
+    private static final long RATE_WINDOW_MILLIS = 10_000;    // Jendela untuk menghitung laju query
+
+    private final Supplier<? extends CompletionStage<Boolean>> poll; // Selesai dengan true jika polling menemukan data baru
+    private final int minDelayMillis;
+    private final int maxDelayMillis;
+    private final Timer timer;
+    private int delayMillis;
+    private boolean running; // Tetap true selama polling berjalan (timer sekali-jalan tidak aktif saat polling)
+    private long queryCount;
+    private final ArrayDeque<Long> recentQueries = new ArrayDeque<>(); // Waktu query dalam jendela laju
+
+    /**
+     * Konstruktor untuk PollScheduler dengan jeda default.
+     */
+    public PollScheduler(Supplier<? extends CompletionStage<Boolean>> poll) {
+        this(poll, DEFAULT_MIN_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * Konstruktor untuk PollScheduler dengan jeda minimum dan maksimum yang ditentukan.
+     */
+    public PollScheduler(Supplier<? extends CompletionStage<Boolean>> poll, int minDelayMillis, int maxDelayMillis) {
+        if (minDelayMillis < 1 || maxDelayMillis < minDelayMillis) {
+            throw new IllegalArgumentException("Delays must satisfy 1 <= minDelayMillis <= maxDelayMillis");
+        }
+        this.poll = poll;
+        this.minDelayMillis = minDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.delayMillis = minDelayMillis;
+        this.timer = new Timer(minDelayMillis, e -> runPoll());
+        timer.setRepeats(false); // Dijadwalkan ulang setelah setiap polling dengan jeda baru
+    }
+
+    /**
+     * Memulai (atau memulai ulang) polling dengan jeda minimum.
+     */
+    public synchronized void speedUp() {
+        running = true;
+        delayMillis = minDelayMillis;
+        timer.setInitialDelay(delayMillis);
+        timer.restart();
+    }
+
+    /**
+     * Memulai (atau memperlambat) polling dengan jeda maksimum.
+     */
+    public synchronized void slowDown() {
+        running = true;
+        delayMillis = maxDelayMillis;
+        timer.setInitialDelay(delayMillis);
+        timer.restart();
+    }
+
+    /**
+     * Menghentikan polling sampai speedUp() atau slowDown() dipanggil lagi.
+     */
+    public synchronized void stop() {
+        if (running) {
+            running = false;
+            timer.stop();
+            System.out.println("PollScheduler: Stopped (" + getStats() + ")");
+        }
+    }
+
+    /**
+     * Memulai satu polling; polling berikutnya dijadwalkan setelah hasilnya selesai (lihat afterPoll).
+     */
+    private void runPoll() {
+        synchronized (this) {
+            if (!running) {
+                return; // Sudah dihentikan sebelum timer sempat dipicu
+            }
+            queryCount++;
+            long now = System.currentTimeMillis();
+            recentQueries.addLast(now);
+            trimRateWindow(now);
+        }
+        poll.get().whenComplete((found, error) -> afterPoll(error == null && Boolean.TRUE.equals(found)));
+    }
+
+    /**
+     * Menjadwalkan polling berikutnya jika tidak dihentikan selama polling (dari thread mana pun).
+     * Polling yang gagal dihitung sebagai polling tanpa data baru.
+     */
+    private synchronized void afterPoll(boolean found) {
+        if (!running || timer.isRunning()) {
+            return; // Dihentikan, atau sudah dijadwalkan ulang oleh speedUp(), selama polling
+        }
+        delayMillis = found ? minDelayMillis : Math.min(delayMillis * 2, maxDelayMillis);
+        timer.setInitialDelay(delayMillis);
+        timer.restart();
+    }
+
+    /**
+     * Membuang waktu query yang sudah di luar jendela laju (pemanggil memegang kunci).
+     */
+    private void trimRateWindow(long now) {
+        while (!recentQueries.isEmpty() && recentQueries.peekFirst() <= now - RATE_WINDOW_MILLIS) {
+            recentQueries.pollFirst();
+        }
+    }
+
+    /**
+     * Mengembalikan laju query per detik dalam RATE_WINDOW_MILLIS terakhir.
+     */
+    public synchronized double getQueryRate() {
+        trimRateWindow(System.currentTimeMillis());
+        return recentQueries.size() * 1000.0 / RATE_WINDOW_MILLIS;
+    }
+
+    /**
+     * Mengembalikan metrik polling (untuk logging).
+     */
+    public synchronized String getStats() {
+        return String.format(Locale.ROOT, "queries=%d, rate=%.2f/s, delay=%d ms", queryCount, getQueryRate(), delayMillis);
+    }
+
+    public synchronized long getQueryCount() { return queryCount; } // Mengembalikan jumlah query sejak dibuat
+    public synchronized int getDelayMillis() { return delayMillis; } // Mengembalikan jeda polling saat ini
+    public synchronized boolean isRunning() { return running; } // Mengembalikan true jika polling berjalan
+}
@@ -0,0 +1,251 @@
+// package RelayClient; // Asumsi paket jika tidak ada di file.
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Kelas RelayClient menghubungkan klien game ke RelayServer.
+ * Langkah yang dikirim lewat publish() langsung diteruskan server ke lawan yang berlangganan game
+ * yang sama, dan langkah dari lawan diterima oleh thread pembaca lalu diberikan ke pendengar langkah.
+ * Jika koneksi terputus, pendengar pemutusan dipanggil sekali (misalnya untuk kembali ke polling).
+ * Langkah dikirim dalam bentuk ringkas GameWireCodec dengan handle game dari server, sehingga langkah
+ * yang diterima tidak membawa username (string kosong) dan simbolnya ditentukan dari nomor langkah.
+ * Saat berlangganan, dan setelah requestResync(), server mengirim SNAPSHOT isi papan yang diberikan
+ * ke pendengar snapshot, sehingga langkah yang terlewat tidak perlu dibaca dari database.
+ */
+public class RelayClient {
+    private static final long HANDLE_TIMEOUT_MILLIS = 2_000; // Waktu tunggu jawaban HANDLE sebelum publish
+
+    /**
+     * Penerima snapshot game yang dilanggan (dipanggil dari thread pembaca).
+     */
+    public interface SnapshotListener {
+        void accept(String gameId, int moveNumber, Board board);
+    }
+
+    private final SocketChannel channel;
+    private final Map<String, Integer> handles = new HashMap<>(); // ID game -> handle (dijaga oleh kunci handles)
+    private final Map<Integer, String> gameIds = new HashMap<>(); // Handle -> ID game (dijaga oleh kunci handles)
+    private final Map<String, Integer> winLengths = new HashMap<>(); // ID game -> panjang garis menang (dijaga oleh kunci handles)
+    private volatile boolean connected = true;
+    private volatile Consumer<DatabaseManager.Move> moveListener = move -> { };
+    private volatile Runnable disconnectListener = () -> { };
+    private volatile SnapshotListener snapshotListener = (gameId, moveNumber, board) -> { };
+
+    /**
+     * Menghubungkan ke RelayServer di host:port dan memulai thread pembaca.
+     */
+    public RelayClient(String host, int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Thread readerThread = new Thread(this::readLoop, "relay-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+        System.out.println("RelayClient: Connected to " + host + ":" + port);
+    }
+
+    /**
+     * Mengatur pendengar untuk langkah yang diteruskan relay (dipanggil dari thread pembaca).
+     */
+    public void setMoveListener(Consumer<DatabaseManager.Move> listener) {
+        this.moveListener = listener;
+    }
+
+    /**
+     * Mengatur pendengar yang dipanggil sekali saat koneksi terputus (dari thread pembaca).
+     */
+    public void setDisconnectListener(Runnable listener) {
+        this.disconnectListener = listener;
+    }
+
+    /**
+     * Mengatur pendengar untuk snapshot dari relay (dipanggil dari thread pembaca).
+     */
+    public void setSnapshotListener(SnapshotListener listener) {
+        this.snapshotListener = listener;
+    }
+
+    /**
+     * Mulai menerima langkah game gameId dengan papan rows x cols. Jika game sudah berjalan,
+     * server menjawab dengan snapshot isi papannya.
+     */
+    public void subscribe(String gameId, int rows, int cols, int winLength) throws IOException {
+        synchronized (handles) {
+            winLengths.put(gameId, winLength);
+        }
+        send(RelayProtocol.subscribeFrame(gameId, rows, cols));
+    }
+
+    /**
+     * Meminta snapshot ulang game gameId, misalnya setelah ada celah nomor langkah.
+     * Server tidak menjawab jika ia sendiri tidak punya isi papan yang lengkap.
+     */
+    public void requestResync(String gameId) throws IOException {
+        send(RelayProtocol.resyncFrame(awaitHandle(gameId)));
+    }
+
+    /**
+     * Berhenti menerima langkah game gameId.
+     */
+    public void unsubscribe(String gameId) throws IOException {
+        send(RelayProtocol.gameFrame(RelayProtocol.UNSUBSCRIBE, gameId));
+        synchronized (handles) {
+            Integer handle = handles.remove(gameId);
+            if (handle != null) {
+                gameIds.remove(handle);
+            }
+            winLengths.remove(gameId);
+        }
+    }
+
+    /**
+     * Mengirim langkah ke pelanggan lain game tersebut. Tidak menyimpan langkah (itu tugas MoveStore).
+     * Game harus sudah dilanggan; jika handle-nya belum diterima, menunggu paling lama HANDLE_TIMEOUT_MILLIS.
+     * Melempar IllegalArgumentException jika langkah tidak muat di satu byte (papan lebih dari 16x16).
+     */
+    public void publish(DatabaseManager.Move move) throws IOException {
+        send(RelayProtocol.moveFrame(awaitHandle(move.gameId), move));
+    }
+
+    /**
+     * Mengembalikan handle gameId dari server, menunggu jawaban HANDLE jika belum diterima.
+     */
+    private int awaitHandle(String gameId) throws IOException {
+        long deadline = System.currentTimeMillis() + HANDLE_TIMEOUT_MILLIS;
+        synchronized (handles) {
+            Integer handle;
+            while ((handle = handles.get(gameId)) == null) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !connected) {
+                    throw new IOException("No relay handle for game " + gameId + " (not subscribed?)");
+                }
+                try {
+                    handles.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for relay handle", e);
+                }
+            }
+            return handle;
+        }
+    }
+
+    private void send(ByteBuffer frame) throws IOException {
+        if (!connected) {
+            throw new IOException("Relay is not connected");
+        }
+        synchronized (channel) { // Frame dari beberapa thread tidak boleh bercampur
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+        }
+    }
+
+    /**
+     * Loop thread pembaca: mencatat handle dari frame HANDLE, dan memberikan langkah dari frame MOVE
+     * dan papan dari frame SNAPSHOT ke pendengarnya.
+     */
+    private void readLoop() {
+        ByteBuffer buffer = ByteBuffer.allocate(RelayProtocol.LENGTH_SIZE + RelayProtocol.MAX_FRAME_LENGTH);
+        try {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                int frameSize;
+                while ((frameSize = RelayProtocol.completeFrameSize(buffer)) > 0) {
+                    int end = buffer.position() + frameSize;
+                    buffer.position(buffer.position() + RelayProtocol.LENGTH_SIZE);
+                    byte type = buffer.get();
+                    if (type == RelayProtocol.HANDLE) {
+                        onHandle(GameWireCodec.getVarint(buffer), RelayProtocol.readString(buffer));
+                    } else if (type == RelayProtocol.MOVE) {
+                        GameWireCodec.readDelta(buffer, this::onMove);
+                    } else if (type == RelayProtocol.SNAPSHOT) {
+                        onSnapshot(buffer);
+                    }
+                    buffer.position(end);
+                }
+                buffer.compact();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (connected) {
+                System.err.println("RelayClient: Connection error: " + e.getMessage());
+            }
+        }
+        boolean wasConnected = connected;
+        close();
+        if (wasConnected) {
+            System.out.println("RelayClient: Disconnected");
+            disconnectListener.run();
+        }
+    }
+
+    private void onHandle(int handle, String gameId) {
+        synchronized (handles) {
+            handles.put(gameId, handle);
+            gameIds.put(handle, gameId);
+            handles.notifyAll(); // Membangunkan publish yang menunggu handle
+        }
+    }
+
+    private void onMove(int handle, int moveNumber, int row, int col) {
+        String gameId;
+        synchronized (handles) {
+            gameId = gameIds.get(handle);
+        }
+        if (gameId != null) { // Langkah yang datang setelah berhenti berlangganan diabaikan
+            moveListener.accept(new DatabaseManager.Move(gameId, moveNumber, "", GameWireCodec.seedForMoveNumber(moveNumber), row, col));
+        }
+    }
+
+    /**
+     * Membaca frame SNAPSHOT ke papan baru. Snapshot untuk game yang tidak lagi dilanggan, atau yang
+     * isinya tidak sah, diabaikan tanpa memutus koneksi.
+     */
+    private void onSnapshot(ByteBuffer body) {
+        String[] gameId = new String[1];
+        int[] moveNumber = new int[1];
+        Board[] board = new Board[1];
+        try {
+            GameWireCodec.readSnapshot(body, (handle, number, rows, cols) -> {
+                Integer winLength;
+                synchronized (handles) {
+                    gameId[0] = gameIds.get(handle);
+                    winLength = (gameId[0] != null) ? winLengths.get(gameId[0]) : null;
+                }
+                if (winLength == null) {
+                    throw new IllegalArgumentException("Snapshot for unknown handle " + handle);
+                }
+                moveNumber[0] = number;
+                board[0] = new Board(rows, cols, winLength);
+                return board[0];
+            });
+        } catch (IllegalArgumentException e) {
+            System.err.println("RelayClient: Ignoring snapshot: " + e.getMessage());
+            return;
+        }
+        snapshotListener.accept(gameId[0], moveNumber[0], board[0]);
+    }
+
+    /**
+     * Menutup koneksi ke relay. Pendengar pemutusan tidak dipanggil untuk penutupan yang disengaja.
+     */
+    public void close() {
+        connected = false;
+        synchronized (handles) {
+            handles.notifyAll(); // publish yang menunggu handle gagal segera
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("RelayClient: Error closing connection: " + e.getMessage());
+        }
+    }
+
+    public boolean isConnected() { return connected; } // Mengembalikan true selama koneksi ke relay terbuka
+}
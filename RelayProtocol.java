@@ -0,0 +1,141 @@
+// package RelayProtocol; // Asumsi paket jika tidak ada di file.
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Kelas RelayProtocol mendefinisikan frame yang dipertukarkan RelayServer dan RelayClient.
+ * Setiap frame: unsigned short panjang (jenis + isi), byte jenis, lalu isi:
+ *   SUBSCRIBE: string gameId, byte rows, byte cols (klien ke server)
+ *   UNSUBSCRIBE: string gameId (klien ke server)
+ *   HANDLE: varint handle, string gameId (server ke klien, jawaban SUBSCRIBE)
+ *   MOVE: delta GameWireCodec (varint handle, varint nomor langkah, varint jumlah, 1 byte per langkah)
+ *   SNAPSHOT: snapshot GameWireCodec (server ke klien: setelah HANDLE jika server mengenal isi papan game,
+ *     dan sebagai jawaban RESYNC)
+ *   RESYNC: varint handle (klien ke server, saat klien melihat celah nomor langkah)
+ * (string = unsigned short panjang + byte UTF-8). Server memberi setiap game yang dilanggan satu handle
+ * (sama untuk semua pelanggan dan tidak dipakai ulang), sehingga satu langkah hanya butuh 7 byte di jaringan.
+ * Server membaca frame MOVE untuk memperbarui isi papan game, lalu meneruskan frame apa adanya.
+ */
+public final class RelayProtocol {
+    public static final byte SUBSCRIBE = 1;   // Klien ingin menerima langkah game
+    public static final byte UNSUBSCRIBE = 2; // Klien berhenti menerima langkah game
+    public static final byte MOVE = 3;        // Langkah baru (dari klien ke server, lalu ke pelanggan lain)
+    public static final byte HANDLE = 4;      // Handle game yang dilanggan (dari server ke klien)
+    public static final byte SNAPSHOT = 5;    // Isi papan lengkap sebuah game (dari server ke klien)
+    public static final byte RESYNC = 6;      // Permintaan SNAPSHOT dari klien yang tertinggal
+    public static final int LENGTH_SIZE = 2;  // Ukuran kolom panjang frame
+    public static final int MAX_FRAME_LENGTH = 0xFFFF; // Panjang jenis + isi maksimum
+
+    private RelayProtocol() {
+    }
+
+    /**
+     * Membuat frame SUBSCRIBE untuk gameId dengan ukuran papan rows x cols, siap ditulis.
+     */
+    public static ByteBuffer subscribeFrame(String gameId, int rows, int cols) {
+        if (rows < 1 || rows > GameWireCodec.MAX_BOARD_SIZE || cols < 1 || cols > GameWireCodec.MAX_BOARD_SIZE) {
+            throw new IllegalArgumentException("Board " + rows + "x" + cols + " is not supported by the relay");
+        }
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = allocate(1 + 2 + id.length + 2);
+        frame.put(SUBSCRIBE);
+        putString(frame, id);
+        frame.put((byte) rows);
+        frame.put((byte) cols);
+        return frame.flip();
+    }
+
+    /**
+     * Membuat frame UNSUBSCRIBE (atau jenis lain yang hanya berisi gameId) untuk gameId, siap ditulis.
+     */
+    public static ByteBuffer gameFrame(byte type, String gameId) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = allocate(1 + 2 + id.length);
+        frame.put(type);
+        putString(frame, id);
+        return frame.flip();
+    }
+
+    /**
+     * Membuat frame HANDLE yang memberitahu klien handle untuk gameId, siap ditulis.
+     */
+    public static ByteBuffer handleFrame(int handle, String gameId) {
+        byte[] id = gameId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = allocate(1 + GameWireCodec.varintSize(handle) + 2 + id.length);
+        frame.put(HANDLE);
+        GameWireCodec.putVarint(frame, handle);
+        putString(frame, id);
+        return frame.flip();
+    }
+
+    /**
+     * Membuat frame MOVE untuk langkah move pada game dengan handle tersebut, siap ditulis.
+     * Melempar IllegalArgumentException jika langkah tidak muat di satu byte (papan lebih dari 16x16).
+     */
+    public static ByteBuffer moveFrame(int handle, DatabaseManager.Move move) {
+        ByteBuffer frame = allocate(1 + GameWireCodec.deltaSize(handle, move.moveNumber, 1));
+        frame.put(MOVE);
+        GameWireCodec.putDelta(frame, handle, List.of(move));
+        return frame.flip();
+    }
+
+    /**
+     * Membuat frame SNAPSHOT untuk papan rows x cols dengan kode sel cells setelah moveNumber langkah, siap ditulis.
+     */
+    public static ByteBuffer snapshotFrame(int handle, int moveNumber, int rows, int cols, byte[] cells) {
+        ByteBuffer frame = allocate(1 + GameWireCodec.snapshotSize(handle, moveNumber, rows, cols));
+        frame.put(SNAPSHOT);
+        GameWireCodec.putSnapshot(frame, handle, moveNumber, rows, cols, cells);
+        return frame.flip();
+    }
+
+    /**
+     * Membuat frame RESYNC untuk game dengan handle tersebut, siap ditulis.
+     */
+    public static ByteBuffer resyncFrame(int handle) {
+        ByteBuffer frame = allocate(1 + GameWireCodec.varintSize(handle));
+        frame.put(RESYNC);
+        GameWireCodec.putVarint(frame, handle);
+        return frame.flip();
+    }
+
+    /**
+     * Membaca string (unsigned short panjang + byte UTF-8).
+     */
+    public static String readString(ByteBuffer body) {
+        byte[] bytes = new byte[body.getShort() & 0xFFFF];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Mengembalikan panjang frame lengkap pertama di buffer (termasuk kolom panjang), atau -1 jika
+     * frame belum lengkap. Posisi buffer tidak berubah. Melempar IllegalArgumentException jika panjangnya 0.
+     */
+    public static int completeFrameSize(ByteBuffer buffer) {
+        if (buffer.remaining() < LENGTH_SIZE) {
+            return -1;
+        }
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty relay frame");
+        }
+        return buffer.remaining() < LENGTH_SIZE + length ? -1 : LENGTH_SIZE + length;
+    }
+
+    private static ByteBuffer allocate(int length) {
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("Relay frame too long: " + length + " bytes");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(LENGTH_SIZE + length);
+        frame.putShort((short) length);
+        return frame;
+    }
+
+    private static void putString(ByteBuffer frame, byte[] bytes) {
+        frame.putShort((short) bytes.length);
+        frame.put(bytes);
+    }
+}
@@ -0,0 +1,387 @@
+// package RelayServer; // Asumsi paket jika tidak ada di file.
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kelas RelayServer adalah server relay langkah multiplayer yang berdiri sendiri, dibangun di atas
+ * java.nio Selector: satu thread melayani semua koneksi tanpa blocking.
+ * Klien berlangganan (SUBSCRIBE) ke game ID dan menerima handle game tersebut (HANDLE); setiap frame
+ * MOVE yang diterima langsung diteruskan ke semua pelanggan lain handle tersebut (lihat RelayProtocol).
+ * Handle dibuat saat game mendapat pelanggan pertama dan dilepas saat pelanggan terakhir pergi. Relay tidak menyimpan
+ * apa pun secara permanen: penyimpanan tetap dilakukan klien lewat MoveStore, dan game yang tidak aktif tidak
+ * menimbulkan trafik maupun query sama sekali.
+ * - Selama game dilanggan, server mengikuti isi papannya dari frame MOVE (2 bit per sel, tanpa Board).
+ *   Pelanggan baru dan klien yang meminta RESYNC menerima SNAPSHOT, sehingga langkah yang terlewat
+ *   tidak perlu dibaca dari database. Jika server sendiri melewatkan langkah, snapshot tidak dikirim
+ *   sampai game dimulai lagi dari langkah 1 (klien tetap punya polling cadangan).
+ * - Frame yang diteruskan dibuat sekali dan dibagi ke semua penerima (ByteBuffer.duplicate()).
+ * - Klien yang lambat membaca: frame menunggu di antrian tulis per koneksi; jika antrian melebihi
+ *   MAX_PENDING_BYTES, koneksi ditutup agar tidak menahan memori server.
+ */
+public class RelayServer implements Runnable {
+    public static final int DEFAULT_PORT = 7070;
+    private static final int MAX_PENDING_BYTES = 1 << 20; // Antrian tulis maksimum per klien (1 MB)
+    private static final int INITIAL_READ_BUFFER_SIZE = 512; // Cukup untuk banyak frame langkah
+
+    /**
+     * Isi papan satu game yang dilanggan, dibangun dari frame MOVE yang diteruskan.
+     */
+    private static final class GameState {
+        final int rows;
+        final int cols;
+        final byte[] cells; // Kode sel GameWireCodec.CELL_* per indeks row * cols + col
+        int moveNumber;     // Nomor langkah terakhir yang diterapkan
+        boolean known = true; // False setelah ada langkah yang terlewat: isi papan tidak lengkap
+
+        GameState(int rows, int cols) {
+            this.rows = rows;
+            this.cols = cols;
+            this.cells = new byte[rows * cols];
+        }
+
+        void apply(int handle, int number, int row, int col) {
+            if (number == 1) {
+                Arrays.fill(cells, (byte) GameWireCodec.CELL_EMPTY); // Game baru dengan ID yang sama
+                moveNumber = 0;
+                known = true;
+            }
+            if (!known || number <= moveNumber) {
+                return; // Isi papan tidak lengkap, atau langkah yang sudah diterapkan
+            }
+            if (number != moveNumber + 1 || row >= rows || col >= cols || cells[row * cols + col] != GameWireCodec.CELL_EMPTY) {
+                known = false;
+                return;
+            }
+            cells[row * cols + col] = (byte) ((number % 2 == 1) ? GameWireCodec.CELL_CROSS : GameWireCodec.CELL_NOUGHT);
+            moveNumber = number;
+        }
+    }
+
+    /**
+     * State satu koneksi klien.
+     */
+    private static final class Client {
+        final SocketChannel channel;
+        ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_READ_BUFFER_SIZE); // Diperbesar untuk frame panjang
+        final ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<>();
+        final Set<String> games = new HashSet<>(); // ID game yang dilanggan
+        int pendingBytes; // Jumlah byte di writeQueue
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    // Hanya diakses thread server
+    private final Map<String, Integer> handles = new HashMap<>();         // ID game -> handle
+    private final Map<Integer, Set<Client>> subscribers = new HashMap<>(); // Handle -> pelanggan
+    private final Map<Integer, GameState> states = new HashMap<>();        // Handle -> isi papan game
+    private int nextHandle; // Handle tidak dipakai ulang, sehingga frame lama tidak salah sasaran
+    private volatile boolean running = true;
+
+    // Metrik
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong framesIn = new AtomicLong();
+    private final AtomicLong framesOut = new AtomicLong();
+    private final AtomicLong slowClientsClosed = new AtomicLong();
+    private final AtomicLong snapshotsSent = new AtomicLong();
+
+    /**
+     * Membuka server relay pada port (0 = port bebas mana saja).
+     */
+    public RelayServer(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Loop utama server: menerima koneksi, membaca frame, dan menulis antrian yang tertunda.
+     */
+    @Override
+    public void run() {
+        System.out.println("RelayServer: Listening on port " + getPort());
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                System.err.println("RelayServer: Select failed: " + e.getMessage());
+                break;
+            }
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                try {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        if (key.isReadable()) {
+                            read(key);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(key);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    if (key.attachment() instanceof Client) {
+                        System.out.println("RelayServer: Closing client: " + e.getMessage());
+                        close(key);
+                    } else {
+                        System.err.println("RelayServer: Accept failed: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Client) {
+                close(key);
+            }
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("RelayServer: Error closing server: " + e.getMessage());
+        }
+        System.out.println("RelayServer: Stopped (" + getStats() + ")");
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true); // Frame kecil dikirim tanpa menunggu
+        channel.register(selector, SelectionKey.OP_READ, new Client(channel));
+        connections.incrementAndGet();
+    }
+
+    /**
+     * Membaca data yang tersedia dan memproses semua frame yang sudah lengkap.
+     */
+    private void read(SelectionKey key) throws IOException {
+        Client client = (Client) key.attachment();
+        if (!client.readBuffer.hasRemaining()) {
+            // Frame yang belum lengkap memenuhi buffer: perbesar sampai ukuran frame maksimum
+            int size = Math.min(client.readBuffer.capacity() * 2, RelayProtocol.LENGTH_SIZE + RelayProtocol.MAX_FRAME_LENGTH);
+            client.readBuffer = ByteBuffer.allocate(size).put(client.readBuffer.flip());
+        }
+        if (client.channel.read(client.readBuffer) < 0) {
+            close(key);
+            return;
+        }
+        ByteBuffer buffer = client.readBuffer.flip();
+        int frameSize;
+        while (key.isValid() && (frameSize = RelayProtocol.completeFrameSize(buffer)) > 0) { // Berhenti jika klien ditutup saat menjawab
+            int start = buffer.position();
+            handleFrame(client, buffer.slice(start, frameSize));
+            buffer.position(start + frameSize);
+        }
+        buffer.compact();
+    }
+
+    /**
+     * Memproses satu frame lengkap (termasuk kolom panjang).
+     */
+    private void handleFrame(Client client, ByteBuffer frame) {
+        framesIn.incrementAndGet();
+        ByteBuffer body = frame.duplicate().position(RelayProtocol.LENGTH_SIZE);
+        byte type = body.get();
+        switch (type) {
+            case RelayProtocol.SUBSCRIBE: {
+                String gameId = RelayProtocol.readString(body);
+                int rows = body.get() & 0xFF;
+                int cols = body.get() & 0xFF;
+                if (rows < 1 || rows > GameWireCodec.MAX_BOARD_SIZE || cols < 1 || cols > GameWireCodec.MAX_BOARD_SIZE) {
+                    throw new IllegalArgumentException("Invalid board size " + rows + "x" + cols + " for game " + gameId);
+                }
+                int handle = handles.computeIfAbsent(gameId, id -> nextHandle++);
+                client.games.add(gameId);
+                subscribers.computeIfAbsent(handle, h -> new HashSet<>()).add(client);
+                GameState state = states.computeIfAbsent(handle, h -> new GameState(rows, cols));
+                send(client, RelayProtocol.handleFrame(handle, gameId));
+                if (state.rows == rows && state.cols == cols) {
+                    sendSnapshot(client, handle, state); // Langkah sebelum berlangganan
+                }
+                break;
+            }
+            case RelayProtocol.UNSUBSCRIBE: {
+                String gameId = RelayProtocol.readString(body);
+                client.games.remove(gameId);
+                unsubscribe(gameId, client);
+                break;
+            }
+            case RelayProtocol.RESYNC: {
+                int handle = GameWireCodec.getVarint(body);
+                Set<Client> clients = subscribers.get(handle);
+                if (clients != null && clients.contains(client)) {
+                    sendSnapshot(client, handle, states.get(handle));
+                }
+                break;
+            }
+            case RelayProtocol.MOVE:
+                int handle = GameWireCodec.getVarint(body);
+                Set<Client> targets = subscribers.get(handle);
+                if (targets == null) {
+                    break;
+                }
+                GameWireCodec.readDelta(body.position(RelayProtocol.LENGTH_SIZE + 1), states.get(handle)::apply);
+                // Frame disalin sekali dari buffer baca (yang dipakai ulang), lalu dibagi ke semua penerima
+                ByteBuffer shared = ByteBuffer.allocate(frame.remaining()).put(frame).flip().asReadOnlyBuffer();
+                for (Client target : targets.toArray(new Client[0])) {
+                    if (target != client) {
+                        send(target, shared.duplicate());
+                    }
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown relay frame type: " + type);
+        }
+    }
+
+    /**
+     * Mengirim frame ke klien: langsung jika antriannya kosong, selain itu lewat antrian tulis.
+     */
+    private void send(Client client, ByteBuffer frame) {
+        SelectionKey key = client.channel.keyFor(selector);
+        try {
+            if (client.writeQueue.isEmpty()) {
+                client.channel.write(frame);
+            }
+            if (frame.hasRemaining()) {
+                if (client.pendingBytes + frame.remaining() > MAX_PENDING_BYTES) {
+                    slowClientsClosed.incrementAndGet();
+                    throw new IOException("client is not reading (" + client.pendingBytes + " bytes pending)");
+                }
+                client.writeQueue.add(frame);
+                client.pendingBytes += frame.remaining();
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            framesOut.incrementAndGet();
+        } catch (IOException e) {
+            System.out.println("RelayServer: Closing client: " + e.getMessage());
+            close(key);
+        }
+    }
+
+    /**
+     * Mengirim SNAPSHOT isi papan game ke klien jika isinya lengkap dan sudah ada langkah.
+     */
+    private void sendSnapshot(Client client, int handle, GameState state) {
+        if (state != null && state.known && state.moveNumber > 0) {
+            send(client, RelayProtocol.snapshotFrame(handle, state.moveNumber, state.rows, state.cols, state.cells));
+            snapshotsSent.incrementAndGet();
+        }
+    }
+
+    /**
+     * Menulis antrian tulis yang tertunda; berhenti menunggu OP_WRITE jika antrian sudah kosong.
+     */
+    private void flush(SelectionKey key) throws IOException {
+        Client client = (Client) key.attachment();
+        while (!client.writeQueue.isEmpty()) {
+            ByteBuffer frame = client.writeQueue.peek();
+            int written = client.channel.write(frame);
+            client.pendingBytes -= written;
+            if (frame.hasRemaining()) {
+                return; // Socket penuh lagi
+            }
+            client.writeQueue.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void unsubscribe(String gameId, Client client) {
+        Integer handle = handles.get(gameId);
+        Set<Client> clients = (handle != null) ? subscribers.get(handle) : null;
+        if (clients != null) {
+            clients.remove(client);
+            if (clients.isEmpty()) {
+                subscribers.remove(handle); // Game tanpa pelanggan tidak memakai memori
+                states.remove(handle);
+                handles.remove(gameId);
+            }
+        }
+    }
+
+    private void close(SelectionKey key) {
+        Client client = (Client) key.attachment();
+        for (String gameId : client.games) {
+            unsubscribe(gameId, client);
+        }
+        client.games.clear();
+        key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            System.err.println("RelayServer: Error closing client: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Menghentikan loop server (dari thread mana pun); koneksi ditutup oleh thread server.
+     */
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Mengembalikan port tempat server mendengarkan.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Mengembalikan metrik server (untuk logging).
+     */
+    public String getStats() {
+        return String.format(Locale.ROOT, "connections=%d, framesIn=%d, framesOut=%d, snapshotsSent=%d, slowClientsClosed=%d",
+                connections.get(), framesIn.get(), framesOut.get(), snapshotsSent.get(), slowClientsClosed.get());
+    }
+
+    /**
+     * Titik masuk server relay dari baris perintah: -port untuk port (default 7070).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equalsIgnoreCase("-port")) {
+                try {
+                    port = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.out.println("Invalid command line argument: " + args[i]);
+                }
+            }
+        }
+        RelayServer server = new RelayServer(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "relay-stop"));
+        server.run();
+    }
+}
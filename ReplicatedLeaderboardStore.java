@@ -0,0 +1,81 @@
+// package ReplicatedLeaderboardStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kelas ReplicatedLeaderboardStore mencatat hasil game di primary dan membaca leaderboard dari
+ * read replica secara bergiliran.
+ * Agar pengguna langsung melihat hasil game yang baru dicatatnya, pembacaan dalam readAfterWriteMillis
+ * setelah recordGame() dilayani primary (replica mungkin belum menerima perubahan itu).
+ * Replica yang gagal juga digantikan primary.
+ */
+public class ReplicatedLeaderboardStore implements LeaderboardStore {
+    public static final long DEFAULT_READ_AFTER_WRITE_MILLIS = 5_000; // Jendela baca dari primary setelah penulisan
+
+    /**
+     * Satu pembacaan dari LeaderboardStore tertentu.
+     */
+    private interface Read<T> {
+        T from(LeaderboardStore store) throws SQLException;
+    }
+
+    private final LeaderboardStore primary;
+    private final List<LeaderboardStore> replicas;
+    private final long readAfterWriteMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private volatile long lastWriteAt = Long.MIN_VALUE / 2; // Waktu recordGame() terakhir
+
+    /**
+     * Konstruktor untuk ReplicatedLeaderboardStore dengan jendela baca-setelah-tulis default.
+     */
+    public ReplicatedLeaderboardStore(LeaderboardStore primary, List<LeaderboardStore> replicas) {
+        this(primary, replicas, DEFAULT_READ_AFTER_WRITE_MILLIS);
+    }
+
+    /**
+     * Konstruktor untuk ReplicatedLeaderboardStore dengan jendela baca-setelah-tulis yang ditentukan.
+     */
+    public ReplicatedLeaderboardStore(LeaderboardStore primary, List<LeaderboardStore> replicas, long readAfterWriteMillis) {
+        if (primary == null || readAfterWriteMillis < 0) {
+            throw new IllegalArgumentException("primary must not be null and readAfterWriteMillis must be >= 0");
+        }
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.readAfterWriteMillis = readAfterWriteMillis;
+    }
+
+    @Override
+    public void recordGame(String crossUsername, String noughtUsername, State result) throws SQLException {
+        primary.recordGame(crossUsername, noughtUsername, result);
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    @Override
+    public List<PlayerRating> fetchTopPlayers(int limit) throws SQLException {
+        return read(store -> store.fetchTopPlayers(limit));
+    }
+
+    @Override
+    public PlayerRating fetchPlayer(String username) throws SQLException {
+        return read(store -> store.fetchPlayer(username));
+    }
+
+    /**
+     * Menjalankan pembacaan di replica berikutnya, atau di primary jika tidak ada replica,
+     * baru saja ada penulisan, atau replica gagal.
+     */
+    private <T> T read(Read<T> read) throws SQLException {
+        if (!replicas.isEmpty() && System.currentTimeMillis() - lastWriteAt >= readAfterWriteMillis) {
+            LeaderboardStore replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            try {
+                return read.from(replica);
+            } catch (SQLException e) {
+                System.err.println("ReplicatedLeaderboardStore: Replica read failed, using primary: " + e.getMessage());
+            }
+        }
+        return read.from(primary);
+    }
+}
@@ -0,0 +1,216 @@
+// package ReplicatedMoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Kelas ReplicatedMoveStore memisahkan baca dan tulis: semua penulisan ke primary, sedangkan
+ * polling langkah (fetchMoves) dan pembacaan arsip dilayani read replica secara bergiliran.
+ * Replica bisa tertinggal dari primary (replication lag), sehingga pembacaan memeriksa apakah
+ * replica sudah memiliki langkah lastMoveNumber yang sudah diketahui pemanggil:
+ * fetchMoves meminta replica mulai dari langkah lastMoveNumber itu sendiri (satu baris tambahan).
+ * Jika langkah itu tidak ada, replica tertinggal dan pembacaan diulang ke primary.
+ * Pembacaan pertama sebuah game (lastMoveNumber 0) selalu ke primary: tanpa langkah yang diketahui
+ * tidak ada yang bisa diperiksa, dan ID game dipakai ulang setelah clearGameMoves, sehingga replica
+ * yang tertinggal dapat mengembalikan langkah game lama dengan ID yang sama.
+ * Replica yang gagal juga digantikan primary. Arsip yang belum ada di replica dicari di primary.
+ */
+public class ReplicatedMoveStore implements MoveStore {
+    private final MoveStore primary;
+    private final List<MoveStore> replicas;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // Metrik pembacaan
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong lagFallbacks = new AtomicLong();
+    private final AtomicLong firstReads = new AtomicLong(); // Pembacaan pertama game, selalu ke primary
+    private final AtomicLong errorFallbacks = new AtomicLong();
+
+    /**
+     * Konstruktor untuk ReplicatedMoveStore dengan primary dan nol atau lebih read replica.
+     */
+    public ReplicatedMoveStore(MoveStore primary, List<MoveStore> replicas) {
+        if (primary == null) {
+            throw new IllegalArgumentException("primary must not be null");
+        }
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+    }
+
+    /**
+     * Mengembalikan replica berikutnya secara bergiliran, atau null jika tidak ada replica.
+     */
+    private MoveStore nextReplica() {
+        if (replicas.isEmpty()) {
+            return null;
+        }
+        return replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+    }
+
+    @Override
+    public void insertMove(DatabaseManager.Move move) throws SQLException {
+        primary.insertMove(move);
+    }
+
+    @Override
+    public CompletableFuture<MoveExchangeResult> submitMove(DatabaseManager.Move move) {
+        return primary.submitMove(move);
+    }
+
+    @Override
+    public boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLException {
+        return primary.insertMoveIfAbsent(move);
+    }
+
+    @Override
+    public MoveExchangeResult exchangeMove(DatabaseManager.Move move, int lastKnownMoveNumber) throws SQLException {
+        return primary.exchangeMove(move, lastKnownMoveNumber); // Penulisan dan pembacaan bersama tetap di primary
+    }
+
+    /**
+     * Mengambil langkah setelah lastMoveNumber dari replica jika replica sudah memiliki langkah
+     * lastMoveNumber; jika tertinggal atau gagal, atau jika ini pembacaan pertama game, dari primary.
+     */
+    @Override
+    public List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) throws SQLException {
+        if (lastMoveNumber <= 0) {
+            firstReads.incrementAndGet(); // Replica tidak bisa diperiksa: mungkin masih berisi game lama dengan ID ini
+            return primary.fetchMoves(gameId, lastMoveNumber);
+        }
+        MoveStore replica = nextReplica();
+        if (replica == null) {
+            return primary.fetchMoves(gameId, lastMoveNumber);
+        }
+        try {
+            List<DatabaseManager.Move> moves = replica.fetchMoves(gameId, lastMoveNumber - 1);
+            if (!moves.isEmpty() && moves.get(0).moveNumber == lastMoveNumber) {
+                replicaReads.incrementAndGet();
+                return new ArrayList<>(moves.subList(1, moves.size()));
+            }
+            lagFallbacks.incrementAndGet();
+        } catch (SQLException e) {
+            errorFallbacks.incrementAndGet();
+            System.err.println("ReplicatedMoveStore: Replica read failed, using primary: " + e.getMessage());
+        }
+        return primary.fetchMoves(gameId, lastMoveNumber);
+    }
+
+    /**
+     * Seperti fetchMoves, untuk banyak game dengan satu pembacaan replica: setiap game diminta mulai dari
+     * langkah lastMoveNumber-nya sendiri, dan hanya game yang tertinggal di replica serta game yang baru
+     * pertama dibaca diambil dari primary (juga dalam satu pembacaan). Jika replica gagal, semua game
+     * dibaca dari primary.
+     */
+    @Override
+    public Map<String, List<DatabaseManager.Move>> fetchMovesForGames(Map<String, Integer> lastMoveNumbers) throws SQLException {
+        Map<String, Integer> probeFloors = new HashMap<>();
+        Map<String, Integer> primaryGames = new HashMap<>(); // Game yang tertinggal di replica atau baru pertama dibaca
+        for (Map.Entry<String, Integer> entry : lastMoveNumbers.entrySet()) {
+            if (entry.getValue() <= 0) {
+                primaryGames.put(entry.getKey(), entry.getValue());
+            } else {
+                probeFloors.put(entry.getKey(), entry.getValue() - 1);
+            }
+        }
+        firstReads.addAndGet(primaryGames.size());
+        MoveStore replica = nextReplica();
+        if (replica == null || probeFloors.isEmpty()) {
+            return primary.fetchMovesForGames(lastMoveNumbers);
+        }
+        Map<String, List<DatabaseManager.Move>> replicaMoves;
+        try {
+            replicaMoves = replica.fetchMovesForGames(probeFloors);
+        } catch (SQLException e) {
+            errorFallbacks.incrementAndGet();
+            System.err.println("ReplicatedMoveStore: Replica read failed, using primary: " + e.getMessage());
+            return primary.fetchMovesForGames(lastMoveNumbers);
+        }
+        replicaReads.incrementAndGet();
+
+        Map<String, List<DatabaseManager.Move>> movesByGame = new HashMap<>();
+        boolean lagging = false;
+        for (Map.Entry<String, Integer> entry : probeFloors.entrySet()) {
+            String gameId = entry.getKey();
+            int lastMoveNumber = entry.getValue() + 1;
+            List<DatabaseManager.Move> moves = replicaMoves.getOrDefault(gameId, List.of());
+            if (!moves.isEmpty() && moves.get(0).moveNumber == lastMoveNumber) {
+                if (moves.size() > 1) {
+                    movesByGame.put(gameId, new ArrayList<>(moves.subList(1, moves.size())));
+                }
+            } else {
+                primaryGames.put(gameId, lastMoveNumber);
+                lagging = true;
+            }
+        }
+        if (lagging) {
+            lagFallbacks.incrementAndGet();
+        }
+        if (!primaryGames.isEmpty()) {
+            movesByGame.putAll(primary.fetchMovesForGames(primaryGames));
+        }
+        return movesByGame;
+    }
+
+    @Override
+    public void clearGameMoves(String gameId) throws SQLException {
+        primary.clearGameMoves(gameId);
+    }
+
+    @Override
+    public void archiveGame(ArchivedGame game) throws SQLException {
+        primary.archiveGame(game);
+    }
+
+    /**
+     * Mengambil arsip dari replica; jika belum ada di replica (mungkin belum tereplikasi) atau replica gagal,
+     * dari primary.
+     */
+    @Override
+    public ArchivedGame fetchArchivedGame(String gameId) throws SQLException {
+        MoveStore replica = nextReplica();
+        if (replica != null) {
+            try {
+                ArchivedGame game = replica.fetchArchivedGame(gameId);
+                if (game != null) {
+                    replicaReads.incrementAndGet();
+                    return game;
+                }
+                lagFallbacks.incrementAndGet();
+            } catch (SQLException e) {
+                errorFallbacks.incrementAndGet();
+                System.err.println("ReplicatedMoveStore: Replica read failed, using primary: " + e.getMessage());
+            }
+        }
+        return primary.fetchArchivedGame(gameId);
+    }
+
+    @Override
+    public List<String> listGameIds() throws SQLException {
+        return primary.listGameIds(); // Dipakai untuk memindahkan game, harus lengkap
+    }
+
+    @Override
+    public void deleteGame(String gameId) throws SQLException {
+        primary.deleteGame(gameId);
+    }
+
+    /**
+     * Mengembalikan metrik pembacaan (untuk logging).
+     */
+    public String getStats() {
+        return String.format(Locale.ROOT, "replicas=%d, replicaReads=%d, firstReads=%d, lagFallbacks=%d, errorFallbacks=%d",
+                replicas.size(), replicaReads.get(), firstReads.get(), lagFallbacks.get(), errorFallbacks.get());
+    }
+
+    public long getReplicaReads() { return replicaReads.get(); } // Mengembalikan jumlah pembacaan yang dilayani replica
+    public long getFirstReads() { return firstReads.get(); } // Mengembalikan jumlah pembacaan pertama game yang dilayani primary
+    public long getLagFallbacks() { return lagFallbacks.get(); } // Mengembalikan jumlah pembacaan ke primary karena replica tertinggal
+    public long getErrorFallbacks() { return errorFallbacks.get(); } // Mengembalikan jumlah pembacaan ke primary karena replica gagal
+}
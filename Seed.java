@@ -8,6 +8,8 @@ import javax.swing.ImageIcon;
  * Enum Seed mendefinisikan tiga kemungkinan state atau simbol untuk pemain dan sel:
  * CROSS (untuk 'X'), NOUGHT (untuk 'O'), dan NO_SEED (untuk sel kosong).
  * Setiap Seed juga menyimpan representasi tampilan (displayName) dan gambar (img) yang sesuai.
+ * Gambar baru dimuat saat getImage() pertama kali dipanggil, sehingga memakai Seed untuk aturan
+ * game (misalnya di GameSimulator tanpa layar) tidak memuat gambar sama sekali.
  */
 public enum Seed {
    // Definisi konstanta enum dengan nama tampilan dan jalur gambar
@@ -16,16 +18,25 @@ public enum Seed {
    NO_SEED(" ", null);                    // Sel kosong, tanpa gambar
 
    // Atribut pribadi untuk setiap konstanta enum
-   private String displayName; // Nama tampilan dari Seed (misalnya, "X", "O", " ")
-   private Image img = null;   // Objek gambar yang terkait dengan Seed
+   private String displayName;          // Nama tampilan dari Seed (misalnya, "X", "O", " ")
+   private final String imageFilename;  // Jalur gambar (null untuk sel kosong)
+   private volatile Image img = null;   // Objek gambar yang terkait dengan Seed (dimuat saat dibutuhkan)
+   private volatile boolean imageLoaded; // True setelah gambar pernah dicoba dimuat
 
    /**
     * Konstruktor pribadi untuk enum Seed.
-    * Menginisialisasi displayName dan mencoba memuat gambar dari file yang diberikan.
+    * Menginisialisasi displayName dan menyimpan jalur gambar untuk dimuat nanti.
     */
    private Seed(String name, String imageFilename) {
       this.displayName = name; // Mengatur nama tampilan
+      this.imageFilename = imageFilename;
+   }
 
+   /**
+    * Memuat gambar dari file (sekali saja).
+    */
+   private synchronized void loadImage() {
+      if (imageLoaded) return;
       // Memuat gambar jika imageFilename tidak null
       if (imageFilename != null) {
          // Mendapatkan URL resource gambar dari class loader
@@ -39,6 +50,7 @@ public enum Seed {
          }
          img = icon != null ? icon.getImage() : null; // Mendapatkan objek Image dari ImageIcon
       }
+      imageLoaded = true;
    }
 
    /**
@@ -52,6 +64,9 @@ public enum Seed {
     * Mengembalikan objek Image yang terkait dengan Seed ini.
     */
    public Image getImage() {
+      if (!imageLoaded) {
+         loadImage();
+      }
       return img;
    }
 }
\ No newline at end of file
@@ -0,0 +1,315 @@
+// package ShardedMoveStore; // Asumsi paket jika tidak ada di file.
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Kelas ShardedMoveStore membagi game ke beberapa MoveStore (shard), misalnya beberapa server MySQL
+ * yang masing-masing dipakai lewat MySqlMoveStore dengan pool sendiri.
+ * Setiap game ditempatkan di satu shard menurut consistent hash dari game ID: setiap shard
+ * memiliki virtualNodes titik di ring hash 64-bit, dan game dimiliki shard dengan titik pertama
+ * searah jarum jam dari hash game ID. Semua langkah dan arsip satu game selalu berada di shard yang sama,
+ * sehingga setiap operasi hanya menyentuh satu shard.
+ * addShard() menambah shard dan memindahkan hanya game yang sekarang dimiliki shard baru
+ * (sekitar 1/N dari semua game). Selama pemindahan, operasi lain menunggu.
+ * Nama shard menentukan posisinya di ring, sehingga harus sama setiap kali aplikasi dijalankan.
+ */
+public class ShardedMoveStore implements MoveStore {
+    public static final int DEFAULT_VIRTUAL_NODES = 160; // Titik per shard di ring
+
+    private final int virtualNodes;
+    private final Map<String, MoveStore> shards = new LinkedHashMap<>(); // Dijaga oleh lock
+    private TreeMap<Long, String> ring = new TreeMap<>();                // Dijaga oleh lock
+    // Operasi biasa memegang read lock; addShard() memegang write lock selama pemindahan game
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Konstruktor untuk ShardedMoveStore tanpa shard, dengan jumlah titik per shard default.
+     */
+    public ShardedMoveStore() {
+        this(DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Konstruktor untuk ShardedMoveStore tanpa shard, dengan virtualNodes titik per shard.
+     */
+    public ShardedMoveStore(int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1");
+        }
+        this.virtualNodes = virtualNodes;
+    }
+
+    /**
+     * Menambah shard bernama name dan memindahkan game yang sekarang dimiliki shard baru ke sana.
+     * Game disalin ke shard baru lebih dulu; ring baru baru dipakai setelah semua salinan berhasil,
+     * dan baru setelah itu game dihapus dari shard lamanya. Jika penyalinan gagal, ring tidak berubah
+     * dan SQLException dilempar. Mengembalikan jumlah game yang dipindahkan.
+     */
+    public int addShard(String name, MoveStore store) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (shards.containsKey(name)) {
+                throw new IllegalArgumentException("Shard already exists: " + name);
+            }
+            TreeMap<Long, String> newRing = new TreeMap<>(ring);
+            for (int i = 0; i < virtualNodes; i++) {
+                newRing.put(hash(name + "#" + i), name);
+            }
+
+            // Menyalin game yang berpindah pemilik (hanya ke shard baru)
+            Map<String, MoveStore> sources = new LinkedHashMap<>(); // gameId -> shard lama
+            try {
+                for (Map.Entry<String, MoveStore> shard : shards.entrySet()) {
+                    for (String gameId : shard.getValue().listGameIds()) {
+                        if (name.equals(owner(newRing, gameId))) {
+                            copyGame(gameId, shard.getValue(), store);
+                            sources.put(gameId, shard.getValue());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                for (String gameId : sources.keySet()) {
+                    try {
+                        store.deleteGame(gameId); // Salinan yang sudah dibuat dibuang; shard lama tetap pemiliknya
+                    } catch (SQLException ignored) {
+                        // Salinan yatim di shard baru tidak dibaca karena shard itu belum ada di ring
+                    }
+                }
+                throw new SQLException("Cannot add shard " + name + ": " + e.getMessage(), e);
+            }
+
+            shards.put(name, store);
+            ring = newRing;
+
+            // Menghapus game yang sudah pindah dari shard lamanya
+            for (Map.Entry<String, MoveStore> moved : sources.entrySet()) {
+                try {
+                    moved.getValue().deleteGame(moved.getKey());
+                } catch (SQLException e) {
+                    // Tidak fatal: game ini tidak lagi diarahkan ke shard lama
+                    System.err.println("ShardedMoveStore: Error removing moved game " + moved.getKey() + ": " + e.getMessage());
+                }
+            }
+            System.out.println("ShardedMoveStore: Added shard " + name + " (" + shards.size() + " shards, "
+                    + sources.size() + " games moved)");
+            return sources.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Menyalin arsip dan langkah live game gameId dari shard source ke shard target.
+     * Langkah disalin secara idempoten, sehingga penyalinan ulang setelah kegagalan aman.
+     */
+    private static void copyGame(String gameId, MoveStore source, MoveStore target) throws SQLException {
+        ArchivedGame archived = source.fetchArchivedGame(gameId);
+        if (archived != null) {
+            target.archiveGame(archived); // Lebih dulu, karena archiveGame() menghapus langkah live di target
+        }
+        for (DatabaseManager.Move move : source.fetchMoves(gameId, 0)) {
+            target.insertMoveIfAbsent(move);
+        }
+    }
+
+    /**
+     * Mengembalikan nama shard pemilik gameId di ring (ring tidak boleh kosong).
+     */
+    private static String owner(TreeMap<Long, String> ring, String gameId) {
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(gameId));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    /**
+     * Hash 64-bit untuk ring: FNV-1a atas byte UTF-8, lalu finalizer MurmurHash3 agar bit-bitnya tersebar rata.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Mengembalikan shard pemilik gameId (pemanggil memegang read lock).
+     */
+    private MoveStore shardFor(String gameId) throws SQLException {
+        if (ring.isEmpty()) {
+            throw new SQLException("No shards configured");
+        }
+        return shards.get(owner(ring, gameId));
+    }
+
+    /**
+     * Mengembalikan nama shard yang saat ini memiliki gameId.
+     */
+    public String getShardName(String gameId) throws SQLException {
+        lock.readLock().lock();
+        try {
+            if (ring.isEmpty()) {
+                throw new SQLException("No shards configured");
+            }
+            return owner(ring, gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void insertMove(DatabaseManager.Move move) throws SQLException {
+        lock.readLock().lock();
+        try {
+            shardFor(move.gameId).insertMove(move);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<MoveExchangeResult> submitMove(DatabaseManager.Move move) {
+        lock.readLock().lock();
+        try {
+            return shardFor(move.gameId).submitMove(move);
+        } catch (SQLException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean insertMoveIfAbsent(DatabaseManager.Move move) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return shardFor(move.gameId).insertMoveIfAbsent(move);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public MoveExchangeResult exchangeMove(DatabaseManager.Move move, int lastKnownMoveNumber) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return shardFor(move.gameId).exchangeMove(move, lastKnownMoveNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<DatabaseManager.Move> fetchMoves(String gameId, int lastMoveNumber) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return shardFor(gameId).fetchMoves(gameId, lastMoveNumber);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mengelompokkan game menurut shard pemiliknya, lalu memanggil fetchMovesForGames sekali per shard.
+     */
+    @Override
+    public Map<String, List<DatabaseManager.Move>> fetchMovesForGames(Map<String, Integer> lastMoveNumbers) throws SQLException {
+        lock.readLock().lock();
+        try {
+            Map<MoveStore, Map<String, Integer>> floorsByShard = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> entry : lastMoveNumbers.entrySet()) {
+                floorsByShard.computeIfAbsent(shardFor(entry.getKey()), shard -> new LinkedHashMap<>())
+                        .put(entry.getKey(), entry.getValue());
+            }
+            Map<String, List<DatabaseManager.Move>> movesByGame = new HashMap<>();
+            for (Map.Entry<MoveStore, Map<String, Integer>> entry : floorsByShard.entrySet()) {
+                movesByGame.putAll(entry.getKey().fetchMovesForGames(entry.getValue()));
+            }
+            return movesByGame;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void clearGameMoves(String gameId) throws SQLException {
+        lock.readLock().lock();
+        try {
+            shardFor(gameId).clearGameMoves(gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void archiveGame(ArchivedGame game) throws SQLException {
+        lock.readLock().lock();
+        try {
+            shardFor(game.getGameId()).archiveGame(game);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public ArchivedGame fetchArchivedGame(String gameId) throws SQLException {
+        lock.readLock().lock();
+        try {
+            return shardFor(gameId).fetchArchivedGame(gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> listGameIds() throws SQLException {
+        lock.readLock().lock();
+        try {
+            Set<String> gameIds = new LinkedHashSet<>();
+            for (MoveStore shard : shards.values()) {
+                gameIds.addAll(shard.listGameIds());
+            }
+            return new ArrayList<>(gameIds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteGame(String gameId) throws SQLException {
+        lock.readLock().lock();
+        try {
+            shardFor(gameId).deleteGame(gameId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Mengembalikan nama semua shard, sesuai urutan penambahan.
+     */
+    public List<String> getShardNames() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(shards.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 // package SoundEffect; // Asumsi paket jika tidak ada di file.
 
+import java.awt.GraphicsEnvironment;
 import java.io.IOException;
 import java.net.URL;
 import javax.sound.sampled.AudioInputStream;
@@ -11,6 +12,8 @@ import javax.sound.sampled.UnsupportedAudioFileException;
 /**
  * Enum SoundEffect mengelola pemutaran efek suara dalam game Tic-Tac-Toe.
  * Setiap konstanta enum merepresentasikan sebuah efek suara tertentu.
+ * Klip audio baru dimuat saat pertama kali diputar, dan tidak dimuat sama sekali
+ * jika berjalan tanpa layar (java.awt.headless=true), misalnya saat simulasi di server.
  */
 public enum SoundEffect {
    // Definisi konstanta enum dengan jalur file audio masing-masing
@@ -33,23 +36,39 @@ public enum SoundEffect {
    // Atribut statis untuk mengatur volume global semua efek suara
    public static Volume volume = Volume.LOW; // Default volume adalah LOW
 
-   // Objek Clip untuk memutar audio
+   // Objek Clip untuk memutar audio (dimuat saat dibutuhkan)
+   private final String soundFileName;
    private Clip clip;
+   private boolean loaded; // True setelah klip pernah dicoba dimuat
 
    /**
     * Konstruktor pribadi untuk enum SoundEffect.
-    * Memuat file audio yang ditentukan dan mempersiapkannya untuk pemutaran.
+    * Hanya menyimpan jalur file audio; klip dimuat oleh load().
     */
    private SoundEffect(String soundFileName) {
+      this.soundFileName = soundFileName;
+   }
+
+   /**
+    * Memuat file audio dan mempersiapkannya untuk pemutaran (sekali saja).
+    * Dilewati jika berjalan tanpa layar.
+    */
+   private synchronized void load() {
+      if (loaded) return;
+      loaded = true;
+      if (GraphicsEnvironment.isHeadless()) {
+         return; // Tidak ada perangkat audio/layar: efek suara dimatikan
+      }
       try {
          // Mendapatkan URL dari resource audio melalui class loader
          URL url = this.getClass().getClassLoader().getResource(soundFileName);
          // Mendapatkan AudioInputStream dari URL
          AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(url);
          // Mendapatkan Clip audio
-         clip = AudioSystem.getClip();
+         Clip loadedClip = AudioSystem.getClip();
          // Membuka Clip dengan AudioInputStream
-         clip.open(audioInputStream);
+         loadedClip.open(audioInputStream);
+         clip = loadedClip; // Hanya dipakai jika berhasil dibuka
       } catch (UnsupportedAudioFileException e) {
          // Menangani jika format file audio tidak didukung
          e.printStackTrace();
@@ -59,6 +78,9 @@ public enum SoundEffect {
       } catch (LineUnavailableException e) {
          // Menangani jika jalur audio tidak tersedia
          e.printStackTrace();
+      } catch (IllegalArgumentException e) {
+         // Menangani jika tidak ada mixer audio yang mendukung klip ini
+         System.err.println("SoundEffect: Audio unavailable for " + soundFileName + ": " + e.getMessage());
       }
    }
 
@@ -69,6 +91,8 @@ public enum SoundEffect {
     */
    public void play() {
       if (volume != Volume.MUTE) { // Hanya putar jika volume tidak MUTE
+         load();
+         if (clip == null) return; // Klip tidak tersedia (tanpa layar atau gagal dimuat)
          if (clip.isRunning())
             clip.stop();   // Menghentikan pemutaran jika sedang berjalan
          clip.setFramePosition(0); // Mengatur posisi pemutaran ke awal
@@ -78,10 +102,11 @@ public enum SoundEffect {
 
    /**
     * Metode statis untuk menginisialisasi semua efek suara.
-    * Memanggil values() akan memicu konstruktor untuk semua konstanta enum,
-    * sehingga memuat semua file audio.
+    * Memuat semua file audio sekarang agar suara pertama tidak tertunda.
     */
    static void initGame() {
-      values(); // Memastikan semua konstanta enum diinisialisasi (memuat semua suara)
+      for (SoundEffect effect : values()) {
+         effect.load(); // Memuat setiap klip suara
+      }
    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+// package SpectatorPanel; // Asumsi paket jika tidak ada di file.
+
+import java.awt.*;
+import javax.swing.*;
+
+/**
+ * Kelas SpectatorPanel menampilkan semua game yang diikuti GameTracker dalam satu grid:
+ * setiap papan digambar dengan Board.paint() yang diperkecil, dengan ID game dan state-nya di atasnya.
+ * Panel digambar ulang setiap kali GameTracker berubah.
+ */
+public class SpectatorPanel extends JPanel {
+    private static final long serialVersionUID = 1L; // Untuk menghindari peringatan serializable
+
+    private static final int TILE_SIZE = 200;  // Ukuran papan per game (piksel)
+    private static final int LABEL_HEIGHT = 20; // Tinggi label di atas papan
+    private static final int GAP = 10;          // Jarak antar papan
+    private static final int COLUMNS = 3;       // Jumlah papan per baris
+
+    private final transient GameTracker tracker;
+
+    /**
+     * Konstruktor untuk SpectatorPanel yang menampilkan game dari tracker.
+     */
+    public SpectatorPanel(GameTracker tracker) {
+        if (tracker == null) {
+            throw new IllegalArgumentException("GameTracker cannot be null");
+        }
+        this.tracker = tracker;
+        setBackground(new Color(50, 50, 100));
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int count = Math.max(1, tracker.size());
+        int columns = Math.min(count, COLUMNS);
+        int rows = (count + COLUMNS - 1) / COLUMNS;
+        return new Dimension(GAP + columns * (TILE_SIZE + GAP), GAP + rows * (LABEL_HEIGHT + TILE_SIZE + GAP));
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        int index = 0;
+        for (GameTracker.TrackedGame game : tracker.getGames()) {
+            int x = GAP + (index % COLUMNS) * (TILE_SIZE + GAP);
+            int y = GAP + (index / COLUMNS) * (LABEL_HEIGHT + TILE_SIZE + GAP);
+            index++;
+
+            // Label: ID game, state, dan jumlah langkah
+            g.setColor(Color.WHITE);
+            g.setFont(new Font("Arial", Font.PLAIN, 12));
+            String status = (game.getState() == State.PLAYING) ? "Playing" : game.getState().getDisplayName();
+            g.drawString(game.getGameId() + " - " + status + " (" + game.getLastMoveNumber() + " moves)", x, y + LABEL_HEIGHT - 6);
+
+            // Papan diperkecil agar muat di TILE_SIZE x TILE_SIZE
+            Board board = game.getBoard();
+            Graphics2D g2 = (Graphics2D) g.create();
+            try {
+                g2.translate(x, y + LABEL_HEIGHT);
+                double scale = (double) TILE_SIZE / Math.max(board.getCanvasWidth(), board.getCanvasHeight());
+                g2.scale(scale, scale);
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                board.paint(g2);
+            } finally {
+                g2.dispose();
+            }
+        }
+    }
+}
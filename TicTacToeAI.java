@@ -1,90 +1,250 @@
 // package TicTacToeAI; // Asumsi paket jika tidak ada di file.
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
  * Kelas TicTacToeAI berisi algoritma kecerdasan buatan (AI) untuk bermain Tic-Tac-Toe.
- * Ini menentukan langkah terbaik yang harus dilakukan AI berdasarkan state papan saat ini,
- * dengan prioritas untuk memenangkan game, memblokir lawan, mengambil posisi strategis,
- * atau memilih langkah acak jika tidak ada pilihan yang lebih baik.
+ * Ini menentukan langkah terbaik yang harus dilakukan AI berdasarkan state papan saat ini.
+ * Tersedia empat strategi:
+ * - PERFECT: membaca langkah terbaik dari tabel PerfectPlaySolver (permainan sempurna, hanya 3x3;
+ *   untuk ukuran papan lain jatuh ke SEARCH).
+ * - SEARCH: pencarian negamax alpha-beta dengan tabel transposisi Zobrist (NegamaxSearch),
+ *   iterative deepening sampai batas waktu per langkah habis. Tingkat kesulitan diatur lewat batas waktu.
+ *   Pencarian berjalan paralel (Lazy SMP, LazySmpSearch) dengan jumlah thread yang dapat diatur.
+ * - MCTS: Monte Carlo Tree Search (MctsEngine) dengan batas waktu yang sama, untuk papan besar.
+ * - HEURISTIC: prioritas menang, blokir, tengah, sudut, lalu sisi acak.
+ * Semua pemeriksaan dilakukan langsung pada penghitung jendela papan tanpa mengubah isi papan,
+ * sehingga heuristik juga berlaku untuk papan N x M dengan k berapa pun.
  */
 public class TicTacToeAI {
+    /**
+     * Enum untuk memilih strategi AI.
+     */
+    public enum Strategy {
+        HEURISTIC,
+        PERFECT,
+        SEARCH,
+        MCTS
+    }
+
+    // Konfigurasi default pencarian
+    public static final int DEFAULT_SEARCH_DEPTH = 32;      // Kedalaman maksimum pencarian (ply)
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 500; // Batas waktu berpikir per langkah
+    public static final int DEFAULT_TABLE_LOG2_BUCKETS = 18; // 2^18 bucket (sekitar 8 MB)
+    public static final int DEFAULT_SEARCH_THREADS = Runtime.getRuntime().availableProcessors(); // Satu thread per core
+
     private Random random = new Random(); // Digunakan untuk memilih langkah acak
+    private Strategy strategy;            // Strategi yang digunakan AI
+    private int searchDepth = DEFAULT_SEARCH_DEPTH; // Kedalaman maksimum untuk strategi SEARCH
+    private long timeBudgetMillis = DEFAULT_TIME_BUDGET_MILLIS; // Batas waktu per langkah untuk SEARCH (0 = tanpa batas)
+    private int searchThreads = DEFAULT_SEARCH_THREADS; // Jumlah thread untuk strategi SEARCH dan MCTS
+    private LazySmpSearch search;         // Mesin pencarian (dibuat saat pertama dibutuhkan)
+    private MctsEngine mcts;              // Mesin MCTS (dibuat saat pertama dibutuhkan)
+    private boolean verbose = true;       // Mencetak statistik pencarian ke konsol
+
+    // Indeks sel sudut pada papan 3x3
+    private static final int[] CORNERS_3X3 = {0, 2, 6, 8};
+
+    /**
+     * Konstruktor default, menggunakan strategi HEURISTIC.
+     */
+    public TicTacToeAI() {
+        this(Strategy.HEURISTIC);
+    }
+
+    /**
+     * Konstruktor dengan strategi yang ditentukan.
+     */
+    public TicTacToeAI(Strategy strategy) {
+        this.strategy = strategy;
+        if (strategy == Strategy.PERFECT) {
+            PerfectPlaySolver.init(); // Membangun tabel posisi sekarang, bukan saat langkah pertama
+        }
+    }
 
     /**
      * Mencari langkah terbaik yang harus diambil oleh AI pada papan permainan saat ini.
-     * Algoritma ini memiliki prioritas sebagai berikut:
+     * Mengembalikan {row, col}, atau {-1, -1} jika tidak ada langkah valid (papan penuh).
+     */
+    public int[] findBestMove(Board currentBoard, Seed aiPlayerSeed) {
+        int idx = findBestMoveIndex(currentBoard, aiPlayerSeed);
+        if (idx < 0) {
+            return new int[]{-1, -1};
+        }
+        return new int[]{idx / currentBoard.getCols(), idx % currentBoard.getCols()};
+    }
+
+    /**
+     * Mencari langkah terbaik dan mengembalikannya sebagai indeks sel (row * cols + col),
+     * atau -1 jika tidak ada langkah valid. Tidak mengalokasikan objek.
+     */
+    public int findBestMoveIndex(Board currentBoard, Seed aiPlayerSeed) {
+        if (strategy == Strategy.PERFECT) {
+            int idx = PerfectPlaySolver.bestMove(currentBoard, aiPlayerSeed);
+            if (idx >= 0) {
+                return idx;
+            }
+            if (!PerfectPlaySolver.supports(currentBoard)) {
+                return findSearchMoveIndex(currentBoard, aiPlayerSeed); // Papan bukan 3x3: gunakan pencarian
+            }
+            // Posisi tidak ada di tabel: gunakan heuristik
+        } else if (strategy == Strategy.SEARCH) {
+            return findSearchMoveIndex(currentBoard, aiPlayerSeed);
+        } else if (strategy == Strategy.MCTS) {
+            return findMctsMoveIndex(currentBoard, aiPlayerSeed);
+        }
+        return findHeuristicMoveIndex(currentBoard, aiPlayerSeed);
+    }
+
+    /**
+     * Mencari langkah dengan negamax alpha-beta yang memakai tabel transposisi,
+     * memperdalam secara iteratif sampai batas waktu habis.
+     * Tabel dipertahankan antar langkah sehingga hasil pencarian sebelumnya dipakai ulang.
+     */
+    private int findSearchMoveIndex(Board currentBoard, Seed aiPlayerSeed) {
+        if (search == null) {
+            search = new LazySmpSearch(new TranspositionTable(DEFAULT_TABLE_LOG2_BUCKETS), searchThreads);
+        }
+        int idx = search.search(currentBoard, aiPlayerSeed, searchDepth, timeBudgetMillis);
+        if (verbose) System.out.println("TicTacToeAI: Search reached depth " + search.getCompletedDepth()
+                + " in " + search.getNodes() + " nodes (" + search.getThreads() + " threads)");
+        return idx >= 0 ? idx : findHeuristicMoveIndex(currentBoard, aiPlayerSeed);
+    }
+
+    /**
+     * Pondering: mencari posisi saat ini dari sudut pandang lawan (pemain manusia) tanpa batas waktu,
+     * sampai thread diinterupsi atau kedalaman maksimum tercapai. Hasilnya hanya disimpan di tabel
+     * transposisi, sehingga pencarian setelah langkah lawan langsung memakai ulang subpohon yang cocok.
+     * Hanya berlaku untuk papan yang ditangani SEARCH (tabel PERFECT dan heuristik tidak perlu berpikir).
+     */
+    public void ponder(Board currentBoard, Seed opponentSeed) {
+        boolean usesSearch = strategy == Strategy.SEARCH
+                || (strategy == Strategy.PERFECT && !PerfectPlaySolver.supports(currentBoard));
+        if (!usesSearch) {
+            return;
+        }
+        if (search == null) {
+            search = new LazySmpSearch(new TranspositionTable(DEFAULT_TABLE_LOG2_BUCKETS), searchThreads);
+        }
+        search.search(currentBoard, opponentSeed, searchDepth, 0L);
+        if (verbose) System.out.println("TicTacToeAI: Pondered to depth " + search.getCompletedDepth()
+                + " in " + search.getNodes() + " nodes");
+    }
+
+    /**
+     * Mencari langkah dengan Monte Carlo Tree Search dalam batas waktu per langkah.
+     */
+    private int findMctsMoveIndex(Board currentBoard, Seed aiPlayerSeed) {
+        if (mcts == null) {
+            mcts = new MctsEngine(searchThreads);
+        }
+        int idx = mcts.search(currentBoard, aiPlayerSeed, timeBudgetMillis);
+        if (verbose) System.out.println("TicTacToeAI: MCTS ran " + mcts.getPlayouts() + " playouts ("
+                + mcts.getPlayoutsPerSecond() + "/s, " + mcts.getThreads() + " threads)");
+        return idx >= 0 ? idx : findHeuristicMoveIndex(currentBoard, aiPlayerSeed);
+    }
+
+    /**
+     * Strategi heuristik dengan prioritas sebagai berikut:
      * 1. Menang: Jika AI bisa menang dalam satu langkah.
      * 2. Blokir: Jika lawan bisa menang dalam satu langkah, AI akan memblokirnya.
      * 3. Tengah: Ambil posisi tengah (jika kosong).
-     * 4. Sudut: Ambil posisi sudut (jika kosong).
-     * 5. Sisi: Ambil posisi sisi acak (jika kosong).
+     * 4. Sudut: Ambil posisi sudut (jika kosong, hanya untuk papan 3x3).
+     * 5. Acak: Ambil sel kosong acak, diutamakan yang bersebelahan dengan bidak yang sudah ada.
      */
-    public int[] findBestMove(Board currentBoard, Seed aiPlayerSeed) {
+    private int findHeuristicMoveIndex(Board currentBoard, Seed aiPlayerSeed) {
         // Menentukan simbol lawan
         Seed opponentSeed = (aiPlayerSeed == Seed.CROSS) ? Seed.NOUGHT : Seed.CROSS;
+        int rows = currentBoard.getRows();
+        int cols = currentBoard.getCols();
+        int cellCount = currentBoard.getCellCount();
 
         // Strategi 1: Cek apakah AI bisa menang dalam satu langkah
-        // AI mencoba setiap sel kosong dengan simbolnya sendiri
-        for (int r = 0; r < Board.ROWS; r++) {
-            for (int c = 0; c < Board.COLS; c++) {
-                if (currentBoard.cells[r][c].content == Seed.NO_SEED) { // Jika sel kosong
-                    currentBoard.cells[r][c].content = aiPlayerSeed; // Coba letakkan simbol AI
-                    // Periksa apakah langkah ini menghasilkan kemenangan bagi AI
-                    if (currentBoard.stepGame(aiPlayerSeed, r, c) == (aiPlayerSeed == Seed.CROSS ? State.CROSS_WON : State.NOUGHT_WON)) {
-                        currentBoard.cells[r][c].content = Seed.NO_SEED; // Batalkan perubahan pada papan
-                        return new int[]{r, c}; // Mengembalikan langkah kemenangan
-                    }
-                    currentBoard.cells[r][c].content = Seed.NO_SEED; // Batalkan perubahan pada papan
-                }
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (currentBoard.isEmptyAt(idx) && currentBoard.wouldWin(aiPlayerSeed, idx)) {
+                return idx; // Mengembalikan langkah kemenangan
             }
         }
 
         // Strategi 2: Cek apakah lawan bisa menang dalam satu langkah dan blokir
-        // AI mencoba setiap sel kosong dengan simbol lawan
-        for (int r = 0; r < Board.ROWS; r++) {
-            for (int c = 0; c < Board.COLS; c++) {
-                if (currentBoard.cells[r][c].content == Seed.NO_SEED) { // Jika sel kosong
-                    currentBoard.cells[r][c].content = opponentSeed; // Coba letakkan simbol lawan
-                    // Periksa apakah langkah ini akan membuat lawan menang
-                    if (currentBoard.stepGame(opponentSeed, r, c) == (opponentSeed == Seed.CROSS ? State.CROSS_WON : State.NOUGHT_WON)) {
-                        currentBoard.cells[r][c].content = Seed.NO_SEED; // Batalkan perubahan pada papan
-                        return new int[]{r, c}; // Mengembalikan langkah untuk memblokir lawan
-                    }
-                    currentBoard.cells[r][c].content = Seed.NO_SEED; // Batalkan perubahan pada papan
-                }
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (currentBoard.isEmptyAt(idx) && currentBoard.wouldWin(opponentSeed, idx)) {
+                return idx; // Mengembalikan langkah untuk memblokir lawan
             }
         }
 
         // Strategi 3: Ambil posisi tengah jika kosong
-        if (currentBoard.cells[1][1].content == Seed.NO_SEED) {
-            return new int[]{1, 1}; // Mengembalikan posisi tengah
+        int center = (rows / 2) * cols + cols / 2;
+        if (currentBoard.isEmptyAt(center)) {
+            return center; // Mengembalikan posisi tengah
         }
 
-        // Strategi 4: Ambil posisi sudut jika kosong
-        int[][] corners = {{0, 0}, {0, 2}, {2, 0}, {2, 2}}; // Koordinat semua sudut
-        for (int[] corner : corners) {
-            if (currentBoard.cells[corner[0]][corner[1]].content == Seed.NO_SEED) { // Jika sudut kosong
-                return corner; // Mengembalikan posisi sudut
+        // Strategi 4: Ambil posisi sudut jika kosong (hanya bermakna pada papan kecil 3x3)
+        if (rows == 3 && cols == 3) {
+            for (int corner : CORNERS_3X3) {
+                if (currentBoard.isEmptyAt(corner)) { // Jika sudut kosong
+                    return corner; // Mengembalikan posisi sudut
+                }
             }
         }
 
-        // Strategi 5: Ambil posisi sisi acak jika tidak ada pilihan di atas
-        List<int[]> emptyCells = new ArrayList<>(); // List untuk menyimpan semua sel kosong
-        for (int r = 0; r < Board.ROWS; r++) {
-            for (int c = 0; c < Board.COLS; c++) {
-                if (currentBoard.cells[r][c].content == Seed.NO_SEED) {
-                    emptyCells.add(new int[]{r, c}); // Menambahkan sel kosong ke list
-                }
+        // Strategi 5: Ambil sel kosong acak, diutamakan yang bersebelahan dengan bidak yang ada
+        int neighbourCount = 0;
+        int emptyCount = 0;
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (currentBoard.isEmptyAt(idx)) {
+                emptyCount++;
+                if (hasNeighbour(currentBoard, idx)) neighbourCount++;
             }
         }
-        if (!emptyCells.isEmpty()) {
-            // Mengembalikan sel kosong acak dari list
-            return emptyCells.get(random.nextInt(emptyCells.size()));
+        if (emptyCount == 0) {
+            return -1; // Tidak ada langkah valid (papan penuh)
+        }
+        boolean nearOnly = neighbourCount > 0;
+        int pick = random.nextInt(nearOnly ? neighbourCount : emptyCount); // Urutan sel kosong yang dipilih
+        for (int idx = 0; idx < cellCount; idx++) {
+            if (currentBoard.isEmptyAt(idx) && (!nearOnly || hasNeighbour(currentBoard, idx)) && pick-- == 0) {
+                return idx;
+            }
         }
+        return -1;
+    }
 
-        return new int[]{-1, -1}; // Mengembalikan {-1, -1} jika tidak ada langkah valid (papan penuh)
+    /**
+     * Mengembalikan true jika sel idx bersebelahan (8 arah) dengan sel yang sudah terisi.
+     */
+    private static boolean hasNeighbour(Board board, int idx) {
+        int row = idx / board.getCols();
+        int col = idx % board.getCols();
+        for (int dr = -1; dr <= 1; dr++) {
+            for (int dc = -1; dc <= 1; dc++) {
+                if ((dr != 0 || dc != 0) && board.isInside(row + dr, col + dc) && !board.isEmpty(row + dr, col + dc)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public Strategy getStrategy() { return strategy; } // Mengembalikan strategi AI
+    public void setStrategy(Strategy strategy) { this.strategy = strategy; } // Mengatur strategi AI
+    public int getSearchDepth() { return searchDepth; } // Mengembalikan kedalaman pencarian
+    public void setSearchDepth(int depth) { this.searchDepth = depth; } // Mengatur kedalaman pencarian
+    public long getTimeBudgetMillis() { return timeBudgetMillis; } // Mengembalikan batas waktu per langkah
+    public void setTimeBudgetMillis(long millis) { this.timeBudgetMillis = millis; } // Mengatur batas waktu per langkah
+    public boolean isVerbose() { return verbose; } // Mengembalikan apakah statistik pencarian dicetak
+    public void setVerbose(boolean verbose) { this.verbose = verbose; } // Mengatur pencetakan statistik (mati untuk simulasi massal)
+    public int getSearchThreads() { return searchThreads; } // Mengembalikan jumlah thread pencarian
+
+    /**
+     * Mengatur jumlah thread untuk strategi SEARCH dan MCTS. Mesin dibuat ulang pada langkah berikutnya.
+     */
+    public void setSearchThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.searchThreads = threads;
+        this.search = null;
+        this.mcts = null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+// package TranspositionTable; // Asumsi paket jika tidak ada di file.
+
+import java.util.Arrays;
+
+/**
+ * Kelas TranspositionTable menyimpan hasil pencarian AI berdasarkan kunci Zobrist posisi,
+ * sehingga posisi yang sama yang dicapai lewat urutan langkah berbeda tidak dievaluasi ulang.
+ * Tabel berukuran tetap dan hanya memakai array primitif (tanpa objek per entri).
+ * Setiap bucket berisi dua slot:
+ * - slot 0 (depth-preferred): hanya diganti oleh hasil dengan kedalaman yang sama atau lebih dalam,
+ *   atau jika entri lama berasal dari pencarian sebelumnya;
+ * - slot 1 (always-replace): selalu diganti oleh hasil terbaru.
+ * Satu entri dikemas dalam sebuah long:
+ * bit 0-31 skor, bit 32-47 langkah terbaik (+1, 0 = tidak ada), bit 48-55 kedalaman,
+ * bit 56-57 jenis batas, bit 58-63 generasi pencarian.
+ * Tabel dapat dipakai bersama oleh beberapa thread pencarian tanpa kunci (lockless):
+ * array kunci menyimpan key XOR entri, sehingga pasangan kunci/entri yang tertulis setengah
+ * oleh dua thread sekaligus tidak lolos pemeriksaan dan dianggap tidak ditemukan.
+ * Statistik probe/hit tidak disinkronkan dan hanya bersifat perkiraan saat dipakai bersama.
+ */
+public class TranspositionTable {
+    // Jenis batas skor yang tersimpan (0 berarti slot kosong)
+    public static final int EXACT = 1; // Skor tepat
+    public static final int LOWER = 2; // Skor >= nilai tersimpan (beta cutoff)
+    public static final int UPPER = 3; // Skor <= nilai tersimpan (tidak ada langkah yang menaikkan alpha)
+
+    private static final int SLOTS_PER_BUCKET = 2;
+
+    private final long[] keys;    // Kunci Zobrist XOR entri untuk setiap slot
+    private final long[] entries; // Data entri terkemas untuk setiap slot
+    private final int bucketMask; // Jumlah bucket - 1 (jumlah bucket adalah pangkat 2)
+    private volatile int generation; // Generasi pencarian saat ini (0-63)
+
+    // Statistik sederhana untuk logging
+    private long probes;
+    private long hits;
+
+    /**
+     * Konstruktor untuk TranspositionTable dengan jumlah bucket 2^log2Buckets.
+     * Memori yang dipakai kira-kira 2^log2Buckets * 32 byte.
+     */
+    public TranspositionTable(int log2Buckets) {
+        if (log2Buckets < 1 || log2Buckets > 26) {
+            throw new IllegalArgumentException("log2Buckets must be between 1 and 26");
+        }
+        int buckets = 1 << log2Buckets;
+        this.bucketMask = buckets - 1;
+        this.keys = new long[buckets * SLOTS_PER_BUCKET];
+        this.entries = new long[buckets * SLOTS_PER_BUCKET];
+    }
+
+    /**
+     * Menandai dimulainya pencarian baru; entri dari generasi lama lebih mudah diganti.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /**
+     * Mengosongkan seluruh tabel.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(entries, 0L);
+        probes = 0;
+        hits = 0;
+    }
+
+    /**
+     * Mencari entri untuk kunci yang diberikan.
+     * Mengembalikan entri terkemas, atau 0 jika tidak ditemukan.
+     */
+    public long probe(long key) {
+        probes++;
+        int slot = bucketIndex(key);
+        for (int i = 0; i < SLOTS_PER_BUCKET; i++) {
+            long entry = entries[slot + i];
+            if (entry != 0L && (keys[slot + i] ^ entry) == key) {
+                hits++;
+                return entry;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Menyimpan hasil pencarian untuk kunci yang diberikan dengan kebijakan penggantian dua slot.
+     */
+    public void store(long key, int score, int bestMove, int depth, int bound) {
+        int slot = bucketIndex(key);
+        long entry = pack(score, bestMove, depth, bound, generation);
+
+        // Slot 0: depth-preferred
+        long existing = entries[slot];
+        long existingKey = keys[slot] ^ existing;
+        if (existing == 0L || existingKey == key || depth >= depth(existing) || generation(existing) != generation) {
+            // Entri lama slot 0 yang tergeser tetap disimpan di slot 1 jika lebih berharga
+            if (existing != 0L && existingKey != key) {
+                keys[slot + 1] = existingKey ^ existing;
+                entries[slot + 1] = existing;
+            }
+            keys[slot] = key ^ entry;
+            entries[slot] = entry;
+            return;
+        }
+        // Slot 1: always-replace
+        keys[slot + 1] = key ^ entry;
+        entries[slot + 1] = entry;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key ^ (key >>> 32)) & bucketMask) * SLOTS_PER_BUCKET;
+    }
+
+    private static long pack(int score, int bestMove, int depth, int bound, int generation) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) ((bestMove + 1) & 0xFFFF) << 32)
+                | ((long) (Math.min(depth, 255) & 0xFF) << 48)
+                | ((long) (bound & 0x3) << 56)
+                | ((long) (generation & 0x3F) << 58);
+    }
+
+    // --- Accessor statis untuk membongkar entri terkemas (tanpa alokasi objek) ---
+    public static int score(long entry) { return (int) entry; }
+    public static int bestMove(long entry) { return (int) ((entry >>> 32) & 0xFFFF) - 1; }
+    public static int depth(long entry) { return (int) ((entry >>> 48) & 0xFF); }
+    public static int bound(long entry) { return (int) ((entry >>> 56) & 0x3); }
+    private static int generation(long entry) { return (int) ((entry >>> 58) & 0x3F); }
+
+    // --- Statistik ---
+    public long getProbes() { return probes; }
+    public long getHits() { return hits; }
+}
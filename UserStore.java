@@ -0,0 +1,13 @@
+// package UserStore; // Asumsi paket jika tidak ada di file.
+
+import java.sql.SQLException;
+
+/**
+ * Interface UserStore menyediakan data akun untuk proses login di MainApp.
+ */
+public interface UserStore {
+    /**
+     * Mengembalikan password untuk username yang diberikan, atau string kosong jika tidak ditemukan.
+     */
+    String getPassword(String username) throws SQLException;
+}